@@ -0,0 +1,73 @@
+package de.lit.jobscheduler.dao;
+
+import ca.krasnay.sqlbuilder.InsertBuilder;
+import de.lit.jobscheduler.entity.JobAssignment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class JdbcJobAssignmentDao implements JobAssignmentDao {
+
+	private JdbcTemplate jdbcTemplate;
+	private String tablename = "JOB_ASSIGNMENT";
+
+	@Autowired
+	public JdbcJobAssignmentDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public JobAssignment save(JobAssignment entity) {
+		Assert.notNull(entity, "entity must not be null");
+		Assert.notNull(entity.getJobName(), "jobName must not be null");
+		jdbcTemplate.update(
+				new InsertBuilder(tablename)
+						.set("JOB_NAME", "?")
+						.set("NODE_NAME", "?")
+						.set("ASSIGNED", "?")
+						.toString(),
+				entity.getJobName(),
+				entity.getNodeName(),
+				entity.getAssigned() != null ? Timestamp.valueOf(entity.getAssigned()) : null);
+		return entity;
+	}
+
+	@Override
+	public List<JobAssignment> findAllByNodeName(String nodeName) {
+		String sql = "SELECT * FROM " + tablename + " WHERE NODE_NAME = ?";
+		return jdbcTemplate.query(sql, new Object[]{nodeName}, this::rowMapper);
+	}
+
+	@Override
+	public List<JobAssignment> findAllByOrderByAssigned() {
+		String sql = "SELECT * FROM " + tablename + " ORDER BY ASSIGNED";
+		return jdbcTemplate.query(sql, this::rowMapper);
+	}
+
+	@Override
+	public int deleteAssignment(String jobName, String nodeName) {
+		return jdbcTemplate.update("DELETE FROM " + tablename + " WHERE JOB_NAME = ? and NODE_NAME = ?", jobName, nodeName);
+	}
+
+	protected JobAssignment rowMapper(ResultSet rs, int rowNum) throws SQLException {
+		Timestamp assigned = rs.getTimestamp("ASSIGNED");
+		return new JobAssignment(rs.getString("JOB_NAME"), rs.getString("NODE_NAME"), assigned != null ? assigned.toLocalDateTime() : null);
+	}
+
+	public JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	public String getTablename() {
+		return tablename;
+	}
+
+	public void setTablename(String tablename) {
+		this.tablename = tablename;
+	}
+}
@@ -5,17 +5,23 @@ import ca.krasnay.sqlbuilder.UpdateBuilder;
 import de.lit.jobscheduler.entity.JobDefinition;
 import de.lit.jobscheduler.entity.JobExecution;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +30,11 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 	private JdbcTemplate jdbcTemplate;
 	private String tablename = "JOB";
 
+	/**
+	 * {@code null} until detected from the database metadata
+	 */
+	private volatile Boolean skipLocked;
+
 	@Autowired
 	public JdbcJobDefinitionDao(JdbcTemplate jdbcTemplate) {
 		this.jdbcTemplate = jdbcTemplate;
@@ -54,6 +65,13 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 						.set("DISABLED", "?")
 						.set("LAST_EXECUTION_ID", "?")
 						.set("ERROR_MAIL_ADDRESS", "?")
+						.set("PRIORITY", "?")
+						.set("JOB_GROUP", "?")
+						.set("MISFIRE_POLICY", "?")
+						.set("JITTER", "?")
+						.set("EXECUTOR", "?")
+						.set("LIGHTWEIGHT", "?")
+						.set("WEIGHT", "?")
 						.toString(),
 				entity.getName(),
 				entity.getCronExpression(),
@@ -65,8 +83,14 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 				entity.isSuspended(),
 				entity.isDisabled(),
 				entity.getLastExecution() != null ? entity.getLastExecution().getId() : null,
-				entity.getErrorMailAddress()
-
+				entity.getErrorMailAddress(),
+				entity.getPriority(),
+				entity.getJobGroup(),
+				entity.getMisfirePolicy() != null ? entity.getMisfirePolicy().name() : null,
+				entity.getJitter(),
+				entity.getExecutor(),
+				entity.isLightweight(),
+				entity.getWeight()
 		);
 	}
 
@@ -83,6 +107,13 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 						.set("DISABLED=?")
 						.set("LAST_EXECUTION_ID=?")
 						.set("ERROR_MAIL_ADDRESS=?")
+						.set("PRIORITY=?")
+						.set("JOB_GROUP=?")
+						.set("MISFIRE_POLICY=?")
+						.set("JITTER=?")
+						.set("EXECUTOR=?")
+						.set("LIGHTWEIGHT=?")
+						.set("WEIGHT=?")
 						.where("NAME=?")
 						.toString(),
 				entity.getCronExpression(),
@@ -95,6 +126,13 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 				entity.isDisabled(),
 				entity.getLastExecution() != null ? entity.getLastExecution().getId() : null,
 				entity.getErrorMailAddress(),
+				entity.getPriority(),
+				entity.getJobGroup(),
+				entity.getMisfirePolicy() != null ? entity.getMisfirePolicy().name() : null,
+				entity.getJitter(),
+				entity.getExecutor(),
+				entity.isLightweight(),
+				entity.getWeight(),
 				entity.getName()
 		);
 	}
@@ -126,13 +164,22 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 		entity.setSuspended(rs.getBoolean(columnNamePrefix + "SUSPENDED"));
 		entity.setDisabled(rs.getBoolean(columnNamePrefix + "DISABLED"));
 		entity.setErrorMailAddress(rs.getString(columnNamePrefix + "ERROR_MAIL_ADDRESS"));
+		entity.setPriority(rs.getInt(columnNamePrefix + "PRIORITY"));
+		entity.setJobGroup(rs.getString(columnNamePrefix + "JOB_GROUP"));
+		String misfirePolicy = rs.getString(columnNamePrefix + "MISFIRE_POLICY");
+		entity.setMisfirePolicy(misfirePolicy != null ? JobDefinition.MisfirePolicy.valueOf(misfirePolicy) : null);
+		entity.setExecutor(rs.getString(columnNamePrefix + "EXECUTOR"));
+		entity.setJitter(rs.getObject(columnNamePrefix + "JITTER") != null ? rs.getInt(columnNamePrefix + "JITTER") : null);
+		entity.setLightweight(rs.getBoolean(columnNamePrefix + "LIGHTWEIGHT"));
+		entity.setWeight(rs.getObject(columnNamePrefix + "WEIGHT") != null ? rs.getInt(columnNamePrefix + "WEIGHT") : null);
 		return entity;
 	}
 
 	public String[] getColumnNames() {
 		return new String[]{
 				"NAME", "CRON_EXPRESSION", "IMPLEMENTATION", "SCHEDULE", "NEXT_RUN", "PARAMS",
-				"RUNNING", "SUSPENDED", "DISABLED", "LAST_EXECUTION_ID", "ERROR_MAIL_ADDRESS"
+				"RUNNING", "SUSPENDED", "DISABLED", "LAST_EXECUTION_ID", "ERROR_MAIL_ADDRESS", "PRIORITY", "JOB_GROUP",
+				"MISFIRE_POLICY", "JITTER", "EXECUTOR", "LIGHTWEIGHT", "WEIGHT"
 		};
 	}
 
@@ -152,10 +199,67 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 				+ "    SELECT 1 FROM " + tablename + " x"
 				+ "    WHERE x.RUN_QUEUE = a.RUN_QUEUE and x.running = 1"
 				+ "  ) "
-				+ " ORDER BY a.NEXT_RUN";
+				+ " ORDER BY a.PRIORITY DESC, a.NEXT_RUN";
 		return jdbcTemplate.query(sql, new Object[]{when}, this::rowMapper);
 	}
 
+	@Override
+	public LocalDateTime findNextRun() {
+		String sql = "SELECT MIN(NEXT_RUN) FROM " + tablename
+				+ " WHERE RUNNING=0 and DISABLED=0 and SUSPENDED=0";
+		return toLocalDateTime(jdbcTemplate.queryForObject(sql, Timestamp.class));
+	}
+
+	public List<JobDefinition> findDue(LocalDateTime when, JobDefinition after, int limit) {
+		String sql = "SELECT * FROM " + tablename + " a"
+				+ " WHERE a.RUNNING=0 and a.DISABLED=0 and a.SUSPENDED=0 "
+				+ "  and a.NEXT_RUN <= ? "
+				+ (after != null ? " and (a.PRIORITY < ? or (a.PRIORITY = ?"
+				+ "   and (a.NEXT_RUN > ? or (a.NEXT_RUN = ? and a.NAME > ?)))) " : "")
+				+ "  and NOT EXISTS("
+				+ "    SELECT 1 FROM " + tablename + " x"
+				+ "    WHERE x.RUN_QUEUE = a.RUN_QUEUE and x.running = 1"
+				+ "  ) "
+				+ " ORDER BY a.PRIORITY DESC, a.NEXT_RUN, a.NAME";
+		return jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setMaxRows(limit);
+			ps.setTimestamp(1, Timestamp.valueOf(when));
+			if (after != null) {
+				ps.setInt(2, after.getPriority());
+				ps.setInt(3, after.getPriority());
+				ps.setTimestamp(4, Timestamp.valueOf(after.getNextRun()));
+				ps.setTimestamp(5, Timestamp.valueOf(after.getNextRun()));
+				ps.setString(6, after.getName());
+			}
+			return ps;
+		}, this::rowMapper);
+	}
+
+	public List<JobDefinition> findDueByNames(Collection<String> names, LocalDateTime when) {
+		if (names.isEmpty()) {
+			return Collections.emptyList();
+		}
+		String sql = "SELECT * FROM " + tablename + " a"
+				+ " WHERE a.NAME IN (" + placeholders(names.size()) + ")"
+				+ "  and a.RUNNING=0 and a.DISABLED=0 and a.SUSPENDED=0 "
+				+ "  and a.NEXT_RUN <= ? "
+				+ "  and NOT EXISTS("
+				+ "    SELECT 1 FROM " + tablename + " x"
+				+ "    WHERE x.RUN_QUEUE = a.RUN_QUEUE and x.running = 1"
+				+ "  ) "
+				+ " ORDER BY a.PRIORITY DESC, a.NEXT_RUN, a.NAME";
+		List<Object> args = new ArrayList<>(names);
+		args.add(when);
+		return jdbcTemplate.query(sql, args.toArray(), this::rowMapper);
+	}
+
+	public List<JobDefinition> findAllScheduled() {
+		String sql = "SELECT * FROM " + tablename
+				+ " WHERE DISABLED=0 and NEXT_RUN is not null";
+		return jdbcTemplate.query(sql, this::rowMapper);
+	}
+
 	@Transactional(propagation = Propagation.MANDATORY)
 	public JobDefinition lockJob(String name) {
 		String sql = "SELECT JOB.* FROM " + tablename + " JOB WHERE JOB.NAME = ? FOR UPDATE";
@@ -169,6 +273,50 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 		return jdbcTemplate.query(sql, new Object[]{queue}, this::rowMapper);
 	}
 
+	@Transactional(propagation = Propagation.MANDATORY)
+	public JobDefinition tryLockJob(String name) {
+		String sql = "SELECT JOB.* FROM " + tablename + " JOB WHERE JOB.NAME = ?"
+				+ " FOR UPDATE" + (isSkipLocked() ? " SKIP LOCKED" : "");
+		List<JobDefinition> jobs = jdbcTemplate.query(sql, new Object[]{name},
+				(rs, rowNum) -> mapJobDefinition(rs, ""));
+		return jobs.isEmpty() ? null : jobs.get(0);
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public List<JobDefinition> tryLockRunQueue(String queue) {
+		String sql = "SELECT JOB.* FROM " + tablename + " JOB WHERE JOB.RUN_QUEUE = ?"
+				+ " FOR UPDATE" + (isSkipLocked() ? " NOWAIT" : "");
+		return jdbcTemplate.query(sql, new Object[]{queue}, this::rowMapper);
+	}
+
+	@Transactional
+	public List<JobDefinition> claimDueJobs(Collection<String> names, LocalDateTime when) {
+		if (names.isEmpty()) {
+			return Collections.emptyList();
+		}
+		String sql = "SELECT JOB.* FROM " + tablename + " JOB"
+				+ " WHERE JOB.NAME IN (" + placeholders(names.size()) + ")"
+				+ "  and JOB.RUNNING=0 and JOB.DISABLED=0 and JOB.SUSPENDED=0"
+				+ "  and JOB.NEXT_RUN <= ?"
+				+ " FOR UPDATE" + (isSkipLocked() ? " SKIP LOCKED" : "");
+		List<Object> args = new ArrayList<>(names);
+		args.add(when);
+		List<JobDefinition> jobs = jdbcTemplate.query(sql, args.toArray(), this::rowMapper);
+		if (!jobs.isEmpty()) {
+			Object[] claimed = jobs.stream().map(JobDefinition::getName).toArray();
+			jdbcTemplate.update(
+					"UPDATE " + tablename + " SET RUNNING=1 WHERE NAME IN (" + placeholders(claimed.length) + ")",
+					claimed
+			);
+			jobs.forEach(job -> job.setRunning(true));
+		}
+		return jobs;
+	}
+
+	private String placeholders(int count) {
+		return String.join(",", Collections.nCopies(count, "?"));
+	}
+
 	@Transactional
 	public int runJobNow(String name) {
 		return jdbcTemplate.update(
@@ -205,6 +353,18 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 		);
 	}
 
+	@Transactional
+	public int updateForNextRun(String name, LocalDateTime nextRun, JobExecution lastExecution) {
+		Assert.notNull(lastExecution, "JobExecution must not be null");
+		Assert.notNull(lastExecution.getId(), "JobExecution must be saved first (ID is missing)");
+		return jdbcTemplate.update(
+				"UPDATE " + tablename + " SET RUNNING=0, NEXT_RUN=?, LAST_EXECUTION_ID=? where NAME=?",
+				new SqlParameterValue(Types.TIMESTAMP, nextRun),
+				new SqlParameterValue(Types.BIGINT, lastExecution.getId()),
+				name
+		);
+	}
+
 	@Transactional
 	public int updateParams(String name, String params) {
 		return jdbcTemplate.update(
@@ -213,6 +373,35 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 		);
 	}
 
+	/**
+	 * {@code FOR UPDATE SKIP LOCKED} and {@code FOR UPDATE NOWAIT} are supported by Oracle,
+	 * PostgreSQL 9.5+, MySQL 8+ and MariaDB 10.6+. Other databases use a plain {@code FOR UPDATE}.
+	 */
+	protected boolean isSkipLocked() {
+		Boolean result = skipLocked;
+		if (result == null) {
+			result = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> supportsSkipLocked(con.getMetaData()));
+			skipLocked = result;
+		}
+		return Boolean.TRUE.equals(result);
+	}
+
+	protected boolean supportsSkipLocked(DatabaseMetaData metaData) throws SQLException {
+		String product = metaData.getDatabaseProductName().toLowerCase();
+		int major = metaData.getDatabaseMajorVersion();
+		int minor = metaData.getDatabaseMinorVersion();
+		if (product.contains("oracle")) {
+			return true;
+		} else if (product.contains("postgresql")) {
+			return major > 9 || (major == 9 && minor >= 5);
+		} else if (product.contains("mariadb")) {
+			return major > 10 || (major == 10 && minor >= 6);
+		} else if (product.contains("mysql")) {
+			return major >= 8;
+		}
+		return false;
+	}
+
 	protected LocalDateTime toLocalDateTime(Timestamp timestamp) {
 		return timestamp != null ? timestamp.toLocalDateTime() : null;
 	}
@@ -231,4 +420,12 @@ public class JdbcJobDefinitionDao implements JobDefinitionDao {
 	public void setTablename(String tablename) {
 		this.tablename = tablename;
 	}
+
+	/**
+	 * Use {@code FOR UPDATE SKIP LOCKED} and {@code FOR UPDATE NOWAIT} for claiming jobs.
+	 * Default is {@code null}: detect support from the database metadata.
+	 */
+	public void setSkipLocked(Boolean skipLocked) {
+		this.skipLocked = skipLocked;
+	}
 }
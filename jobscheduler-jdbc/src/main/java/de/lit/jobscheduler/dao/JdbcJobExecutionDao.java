@@ -42,15 +42,31 @@ public class JdbcJobExecutionDao implements JobExecutionDao {
 		return entity;
 	}
 
+	/**
+	 * New entities are inserted in one JDBC batch if an idGenerator is set, otherwise one by one.
+	 * Existing entities are updated in one JDBC batch.
+	 */
+	@Override
+	public <S extends JobExecution> Iterable<S> saveAll(Iterable<S> entities) {
+		List<JobExecution> inserts = new ArrayList<>();
+		List<JobExecution> updates = new ArrayList<>();
+		for (JobExecution entity : entities) {
+			if (entity.getId() != null) {
+				updates.add(entity);
+			} else if (idGenerator != null) {
+				entity.setId(idGenerator.get());
+				inserts.add(entity);
+			} else {
+				insert(entity);
+			}
+		}
+		if (!inserts.isEmpty()) insertAll(inserts);
+		if (!updates.isEmpty()) updateAll(updates);
+		return entities;
+	}
+
 	public int insert(JobExecution entity) {
-		Map<String, Object> params = new HashMap<>();
-		params.put("JOB_NAME", entity.getJobDefinition().getName());
-		params.put("STATUS", entity.getStatus().name());
-		params.put("START_TIME", entity.getStartTime());
-		params.put("END_TIME", entity.getEndTime());
-		params.put("MESSAGE", entity.getMessage());
-		params.put("NODE_NAME", entity.getNodeName());
-		params.put("SIGN_OF_LIFE_TIME", entity.getSignOfLifeTime());
+		Map<String, Object> params = insertParams(entity);
 
 		if (idGenerator != null) {
 			entity.setId(idGenerator.get());
@@ -63,17 +79,61 @@ public class JdbcJobExecutionDao implements JobExecutionDao {
 		return 1;
 	}
 
+	/**
+	 * Insert entities with already assigned ids in one JDBC batch.
+	 */
+	public int[] insertAll(Collection<JobExecution> entities) {
+		@SuppressWarnings("unchecked")
+		Map<String, Object>[] batch = new Map[entities.size()];
+		int i = 0;
+		for (JobExecution entity : entities) {
+			batch[i] = insertParams(entity);
+			batch[i++].put("ID", entity.getId());
+		}
+		return getJdbcInsert().executeBatch(batch);
+	}
+
+	private Map<String, Object> insertParams(JobExecution entity) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("JOB_NAME", entity.getJobDefinition().getName());
+		params.put("STATUS", entity.getStatus().name());
+		params.put("START_TIME", entity.getStartTime());
+		params.put("END_TIME", entity.getEndTime());
+		params.put("MESSAGE", entity.getMessage());
+		params.put("NODE_NAME", entity.getNodeName());
+		params.put("SIGN_OF_LIFE_TIME", entity.getSignOfLifeTime());
+		return params;
+	}
+
 	public int update(JobExecution entity) {
-		return jdbcTemplate.update(
-				new UpdateBuilder(tablename)
-						.set("STATUS=?")
-						.set("START_TIME=?")
-						.set("END_TIME=?")
-						.set("MESSAGE=?")
-						.set("NODE_NAME=?")
-						.set("SIGN_OF_LIFE_TIME=?")
-						.where("ID=?")
-						.toString(),
+		return jdbcTemplate.update(buildUpdate(), updateParams(entity));
+	}
+
+	/**
+	 * Update entities in one JDBC batch.
+	 */
+	public int[] updateAll(Collection<JobExecution> entities) {
+		List<Object[]> batch = new ArrayList<>(entities.size());
+		for (JobExecution entity : entities) {
+			batch.add(updateParams(entity));
+		}
+		return jdbcTemplate.batchUpdate(buildUpdate(), batch);
+	}
+
+	private String buildUpdate() {
+		return new UpdateBuilder(tablename)
+				.set("STATUS=?")
+				.set("START_TIME=?")
+				.set("END_TIME=?")
+				.set("MESSAGE=?")
+				.set("NODE_NAME=?")
+				.set("SIGN_OF_LIFE_TIME=?")
+				.where("ID=?")
+				.toString();
+	}
+
+	private Object[] updateParams(JobExecution entity) {
+		return new Object[]{
 				entity.getStatus().name(),
 				entity.getStartTime(),
 				entity.getEndTime(),
@@ -81,19 +141,28 @@ public class JdbcJobExecutionDao implements JobExecutionDao {
 				entity.getNodeName(),
 				entity.getSignOfLifeTime(),
 				entity.getId()
-		);
+		};
 	}
 
 	@Override
 	public int updateSignOfLife(Long id, Date timestamp) {
-		return jdbcTemplate.update(
-				new UpdateBuilder(tablename)
-						.set("SIGN_OF_LIFE_TIME=?")
-						.where("ID=?")
-						.toString(),
-				timestamp,
-				id
-		);
+		return jdbcTemplate.update(buildSignOfLifeUpdate(), timestamp, id);
+	}
+
+	/**
+	 * Update the sign of life of several executions in one JDBC batch.
+	 */
+	public int[] updateSignOfLifeAll(Map<Long, Date> timestamps) {
+		List<Object[]> batch = new ArrayList<>(timestamps.size());
+		timestamps.forEach((id, timestamp) -> batch.add(new Object[]{timestamp, id}));
+		return jdbcTemplate.batchUpdate(buildSignOfLifeUpdate(), batch);
+	}
+
+	private String buildSignOfLifeUpdate() {
+		return new UpdateBuilder(tablename)
+				.set("SIGN_OF_LIFE_TIME=?")
+				.where("ID=?")
+				.toString();
 	}
 
 	protected JobExecution rowMapper(ResultSet rs, int rowNum) throws SQLException {
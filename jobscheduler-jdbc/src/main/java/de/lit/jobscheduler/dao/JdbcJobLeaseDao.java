@@ -0,0 +1,122 @@
+package de.lit.jobscheduler.dao;
+
+import ca.krasnay.sqlbuilder.InsertBuilder;
+import ca.krasnay.sqlbuilder.UpdateBuilder;
+import de.lit.jobscheduler.entity.JobLease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class JdbcJobLeaseDao implements JobLeaseDao {
+
+	private JdbcTemplate jdbcTemplate;
+	private String tablename = "JOB_LEASE";
+
+	@Autowired
+	public JdbcJobLeaseDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public JobLease save(JobLease entity) {
+		Assert.notNull(entity, "entity must not be null");
+		Assert.notNull(entity.getName(), "name must not be null");
+		int updCount = jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("OWNER=?")
+						.set("EXPIRES=?")
+						.where("NAME=?")
+						.toString(),
+				entity.getOwner(),
+				toTimestamp(entity.getExpires()),
+				entity.getName());
+		if (updCount == 0) {
+			jdbcTemplate.update(
+					new InsertBuilder(tablename)
+							.set("NAME", "?")
+							.set("OWNER", "?")
+							.set("EXPIRES", "?")
+							.toString(),
+					entity.getName(),
+					entity.getOwner(),
+					toTimestamp(entity.getExpires()));
+		}
+		return entity;
+	}
+
+	@Override
+	public Optional<JobLease> findById(String name) {
+		String sql = "SELECT * FROM " + tablename + " WHERE NAME = ?";
+		List<JobLease> list = jdbcTemplate.query(sql, new Object[]{name}, this::rowMapper);
+		return list.stream().findFirst();
+	}
+
+	@Override
+	public int create(String name, String owner, LocalDateTime expires) {
+		return jdbcTemplate.update(
+				new InsertBuilder(tablename)
+						.set("NAME", "?")
+						.set("OWNER", "?")
+						.set("EXPIRES", "?")
+						.toString(),
+				name,
+				owner,
+				toTimestamp(expires));
+	}
+
+	@Override
+	public int acquire(String name, String owner, LocalDateTime now, LocalDateTime expires) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("OWNER=?")
+						.set("EXPIRES=?")
+						.where("NAME=?")
+						.where("(OWNER=? or OWNER is null or EXPIRES < ?)")
+						.toString(),
+				owner,
+				toTimestamp(expires),
+				name,
+				owner,
+				toTimestamp(now));
+	}
+
+	@Override
+	public int release(String name, String owner) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("OWNER=null")
+						.where("NAME=?")
+						.where("OWNER=?")
+						.toString(),
+				name,
+				owner);
+	}
+
+	protected JobLease rowMapper(ResultSet rs, int rowNum) throws SQLException {
+		Timestamp expires = rs.getTimestamp("EXPIRES");
+		return new JobLease(rs.getString("NAME"), rs.getString("OWNER"), expires != null ? expires.toLocalDateTime() : null);
+	}
+
+	private Timestamp toTimestamp(LocalDateTime dateTime) {
+		return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+	}
+
+	public JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	public String getTablename() {
+		return tablename;
+	}
+
+	public void setTablename(String tablename) {
+		this.tablename = tablename;
+	}
+}
@@ -0,0 +1,80 @@
+package de.lit.jobscheduler.dao;
+
+import ca.krasnay.sqlbuilder.InsertBuilder;
+import ca.krasnay.sqlbuilder.UpdateBuilder;
+import de.lit.jobscheduler.entity.JobNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class JdbcJobNodeDao implements JobNodeDao {
+
+	private JdbcTemplate jdbcTemplate;
+	private String tablename = "JOB_NODE";
+
+	@Autowired
+	public JdbcJobNodeDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public JobNode save(JobNode entity) {
+		Assert.notNull(entity, "entity must not be null");
+		Assert.notNull(entity.getName(), "name must not be null");
+		int updCount = jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("HEARTBEAT=?")
+						.where("NAME=?")
+						.toString(),
+				toTimestamp(entity.getHeartbeat()),
+				entity.getName());
+		if (updCount == 0) {
+			jdbcTemplate.update(
+					new InsertBuilder(tablename)
+							.set("NAME", "?")
+							.set("HEARTBEAT", "?")
+							.toString(),
+					entity.getName(),
+					toTimestamp(entity.getHeartbeat()));
+		}
+		return entity;
+	}
+
+	@Override
+	public List<JobNode> findAllByHeartbeatAfterOrderByName(LocalDateTime after) {
+		String sql = "SELECT * FROM " + tablename + " WHERE HEARTBEAT > ? ORDER BY NAME";
+		return jdbcTemplate.query(sql, new Object[]{toTimestamp(after)}, this::rowMapper);
+	}
+
+	@Override
+	public void deleteById(String name) {
+		jdbcTemplate.update("DELETE FROM " + tablename + " WHERE NAME = ?", name);
+	}
+
+	protected JobNode rowMapper(ResultSet rs, int rowNum) throws SQLException {
+		Timestamp heartbeat = rs.getTimestamp("HEARTBEAT");
+		return new JobNode(rs.getString("NAME"), heartbeat != null ? heartbeat.toLocalDateTime() : null);
+	}
+
+	private Timestamp toTimestamp(LocalDateTime dateTime) {
+		return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+	}
+
+	public JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	public String getTablename() {
+		return tablename;
+	}
+
+	public void setTablename(String tablename) {
+		this.tablename = tablename;
+	}
+}
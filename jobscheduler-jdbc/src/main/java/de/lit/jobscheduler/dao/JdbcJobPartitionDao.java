@@ -0,0 +1,161 @@
+package de.lit.jobscheduler.dao;
+
+import ca.krasnay.sqlbuilder.UpdateBuilder;
+import de.lit.jobscheduler.entity.JobPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class JdbcJobPartitionDao implements JobPartitionDao {
+
+	private JdbcTemplate jdbcTemplate;
+	private String tablename = "JOB_PARTITION";
+	private SimpleJdbcInsert jdbcInsert;
+
+	@Autowired
+	public JdbcJobPartitionDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Inserts the partitions in one JDBC batch, the generated ids are not set.
+	 */
+	@Override
+	public <S extends JobPartition> Iterable<S> saveAll(Iterable<S> entities) {
+		List<Map<String, Object>> batch = new ArrayList<>();
+		for (JobPartition entity : entities) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("EXECUTION_ID", entity.getExecutionId());
+			params.put("JOB_NAME", entity.getJobName());
+			params.put("PARTITION_KEY", entity.getPartitionKey());
+			params.put("STATUS", entity.getStatus().name());
+			params.put("NODE_NAME", entity.getNodeName());
+			params.put("START_TIME", toTimestamp(entity.getStartTime()));
+			params.put("END_TIME", toTimestamp(entity.getEndTime()));
+			params.put("MESSAGE", entity.getMessage());
+			batch.add(params);
+		}
+		if (!batch.isEmpty()) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object>[] array = batch.toArray(new Map[0]);
+			getJdbcInsert().executeBatch(array);
+		}
+		return entities;
+	}
+
+	@Override
+	public List<JobPartition> findAllByExecutionId(Long executionId) {
+		String sql = "SELECT * FROM " + tablename + " WHERE EXECUTION_ID = ?";
+		return jdbcTemplate.query(sql, new Object[]{executionId}, this::rowMapper);
+	}
+
+	@Override
+	public List<JobPartition> findPending(Long executionId, int limit) {
+		String sql = "SELECT * FROM " + tablename + " WHERE STATUS = 'PENDING'"
+				+ (executionId != null ? " and EXECUTION_ID = ?" : "")
+				+ " ORDER BY ID";
+		return jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql);
+			ps.setMaxRows(limit);
+			if (executionId != null) {
+				ps.setLong(1, executionId);
+			}
+			return ps;
+		}, this::rowMapper);
+	}
+
+	@Override
+	public int claim(Long id, String nodeName, LocalDateTime startTime) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("STATUS='RUNNING'")
+						.set("NODE_NAME=?")
+						.set("START_TIME=?")
+						.where("ID=?")
+						.where("STATUS='PENDING'")
+						.toString(),
+				nodeName,
+				toTimestamp(startTime),
+				id);
+	}
+
+	@Override
+	public int finish(Long id, JobPartition.Status status, LocalDateTime endTime, String message) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("STATUS=?")
+						.set("END_TIME=?")
+						.set("MESSAGE=?")
+						.where("ID=?")
+						.where("STATUS='RUNNING'")
+						.toString(),
+				status.name(),
+				toTimestamp(endTime),
+				message,
+				id);
+	}
+
+	@Override
+	public int resetRunning(String nodeName) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("STATUS='PENDING'")
+						.set("NODE_NAME=NULL")
+						.set("START_TIME=NULL")
+						.where("STATUS='RUNNING'")
+						.where("NODE_NAME=?")
+						.toString(),
+				nodeName);
+	}
+
+	protected JobPartition rowMapper(ResultSet rs, int rowNum) throws SQLException {
+		JobPartition entity = new JobPartition();
+		entity.setId(rs.getLong("ID"));
+		entity.setExecutionId(rs.getLong("EXECUTION_ID"));
+		entity.setJobName(rs.getString("JOB_NAME"));
+		entity.setPartitionKey(rs.getString("PARTITION_KEY"));
+		entity.setStatus(JobPartition.Status.valueOf(rs.getString("STATUS")));
+		entity.setNodeName(rs.getString("NODE_NAME"));
+		entity.setStartTime(toLocalDateTime(rs.getTimestamp("START_TIME")));
+		entity.setEndTime(toLocalDateTime(rs.getTimestamp("END_TIME")));
+		entity.setMessage(rs.getString("MESSAGE"));
+		return entity;
+	}
+
+	private static Timestamp toTimestamp(LocalDateTime time) {
+		return time != null ? Timestamp.valueOf(time) : null;
+	}
+
+	private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+		return timestamp != null ? timestamp.toLocalDateTime() : null;
+	}
+
+	public SimpleJdbcInsert getJdbcInsert() {
+		if (jdbcInsert == null) {
+			jdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
+					.withTableName(tablename)
+					.usingGeneratedKeyColumns("ID");
+			jdbcInsert.compile();
+		}
+		return jdbcInsert;
+	}
+
+	public JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	public String getTablename() {
+		return tablename;
+	}
+
+	public void setTablename(String tablename) {
+		this.tablename = tablename;
+	}
+}
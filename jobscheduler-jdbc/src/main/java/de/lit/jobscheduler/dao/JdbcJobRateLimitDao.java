@@ -0,0 +1,112 @@
+package de.lit.jobscheduler.dao;
+
+import ca.krasnay.sqlbuilder.InsertBuilder;
+import ca.krasnay.sqlbuilder.UpdateBuilder;
+import de.lit.jobscheduler.entity.JobRateLimit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class JdbcJobRateLimitDao implements JobRateLimitDao {
+
+	private JdbcTemplate jdbcTemplate;
+	private String tablename = "JOB_RATE_LIMIT";
+
+	@Autowired
+	public JdbcJobRateLimitDao(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public JobRateLimit save(JobRateLimit entity) {
+		Assert.notNull(entity, "entity must not be null");
+		Assert.notNull(entity.getName(), "name must not be null");
+		int updCount = jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("CAPACITY=?")
+						.set("REFILL_INTERVAL=?")
+						.set("TOKENS=?")
+						.set("LAST_REFILL=?")
+						.set("VERSION=VERSION+1")
+						.where("NAME=?")
+						.toString(),
+				entity.getCapacity(),
+				entity.getRefillInterval(),
+				entity.getTokens(),
+				toTimestamp(entity.getLastRefill()),
+				entity.getName());
+		if (updCount == 0) {
+			jdbcTemplate.update(
+					new InsertBuilder(tablename)
+							.set("NAME", "?")
+							.set("CAPACITY", "?")
+							.set("REFILL_INTERVAL", "?")
+							.set("TOKENS", "?")
+							.set("LAST_REFILL", "?")
+							.set("VERSION", "?")
+							.toString(),
+					entity.getName(),
+					entity.getCapacity(),
+					entity.getRefillInterval(),
+					entity.getTokens(),
+					toTimestamp(entity.getLastRefill()),
+					entity.getVersion());
+		}
+		return entity;
+	}
+
+	@Override
+	public Optional<JobRateLimit> findById(String name) {
+		String sql = "SELECT * FROM " + tablename + " WHERE NAME = ?";
+		List<JobRateLimit> list = jdbcTemplate.query(sql, new Object[]{name}, this::rowMapper);
+		return list.stream().findFirst();
+	}
+
+	@Override
+	public int update(String name, int tokens, LocalDateTime lastRefill, long version) {
+		return jdbcTemplate.update(
+				new UpdateBuilder(tablename)
+						.set("TOKENS=?")
+						.set("LAST_REFILL=?")
+						.set("VERSION=VERSION+1")
+						.where("NAME=?")
+						.where("VERSION=?")
+						.toString(),
+				tokens,
+				toTimestamp(lastRefill),
+				name,
+				version);
+	}
+
+	protected JobRateLimit rowMapper(ResultSet rs, int rowNum) throws SQLException {
+		JobRateLimit entity = new JobRateLimit(rs.getString("NAME"), rs.getInt("CAPACITY"), rs.getInt("REFILL_INTERVAL"));
+		entity.setTokens(rs.getInt("TOKENS"));
+		Timestamp lastRefill = rs.getTimestamp("LAST_REFILL");
+		entity.setLastRefill(lastRefill != null ? lastRefill.toLocalDateTime() : null);
+		entity.setVersion(rs.getLong("VERSION"));
+		return entity;
+	}
+
+	private Timestamp toTimestamp(LocalDateTime dateTime) {
+		return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+	}
+
+	public JdbcTemplate getJdbcTemplate() {
+		return jdbcTemplate;
+	}
+
+	public String getTablename() {
+		return tablename;
+	}
+
+	public void setTablename(String tablename) {
+		this.tablename = tablename;
+	}
+}
@@ -0,0 +1,249 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind decorator for {@link JdbcJobExecutionDao}. Job finishes and sign of life
+ * updates are collected in memory and written in JDBC batches, either when {@code batchSize}
+ * changes are pending or every {@code flushInterval} milliseconds. Several changes of the same
+ * execution are coalesced into one statement.
+ * <p></p>
+ * New executions are inserted immediately, because the caller references their id at once,
+ * e.g. in {@code JOB.LAST_EXECUTION_ID} or {@code JOB_PARTITION.EXECUTION_ID}.
+ * {@link #findById(Long)} sees pending changes, all other queries flush first.
+ * Pending changes are written on shutdown by the job executor and by {@link #destroy()}, but
+ * are lost if the JVM dies.
+ */
+public class WriteBehindJobExecutionDao implements JobExecutionDao, InitializingBean, DisposableBean {
+	private final Logger logger = LoggerFactory.getLogger(WriteBehindJobExecutionDao.class);
+
+	private final JdbcJobExecutionDao delegate;
+	private int batchSize = 100;
+	private long flushInterval = 200;
+	private ScheduledExecutorService flusher;
+
+	// guarded by this
+	private Map<Long, JobExecution> pendingUpdates = new LinkedHashMap<>();
+	private Map<Long, Date> pendingSignOfLife = new LinkedHashMap<>();
+	// latest state of executions not yet written, also while a flush is writing them
+	private final Map<Long, JobExecution> unwritten = new HashMap<>();
+
+	// serializes flushes, so changes of one execution are written in order
+	private final Object flushLock = new Object();
+
+	public WriteBehindJobExecutionDao(JdbcJobExecutionDao delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "jobExecutionWriter");
+			t.setDaemon(true);
+			return t;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		if (flusher != null) {
+			flusher.shutdown();
+		}
+		flush();
+	}
+
+	@Override
+	public JobExecution create() {
+		return delegate.create();
+	}
+
+	@Override
+	public JobExecution save(JobExecution entity) {
+		if (entity.getId() == null) {
+			return delegate.save(entity);
+		}
+		int pending;
+		synchronized (this) {
+			pendingUpdates.put(entity.getId(), copyOf(entity));
+			unwritten.put(entity.getId(), entity);
+			pending = pendingUpdates.size() + pendingSignOfLife.size();
+		}
+		flushIfFull(pending);
+		return entity;
+	}
+
+	/**
+	 * New executions are inserted with one JDBC batch right away, updates are queued.
+	 */
+	@Override
+	public <S extends JobExecution> Iterable<S> saveAll(Iterable<S> entities) {
+		List<S> inserts = new ArrayList<>();
+		for (S entity : entities) {
+			if (entity.getId() == null) {
+				inserts.add(entity);
+			} else {
+				save(entity);
+			}
+		}
+		if (!inserts.isEmpty()) {
+			delegate.saveAll(inserts);
+		}
+		return entities;
+	}
+
+	@Override
+	public int updateSignOfLife(Long id, Date timestamp) {
+		int pending;
+		synchronized (this) {
+			JobExecution exec = pendingUpdates.get(id);
+			if (exec != null) {
+				exec.setSignOfLifeTime(timestamp);
+			} else {
+				pendingSignOfLife.put(id, timestamp);
+			}
+			pending = pendingUpdates.size() + pendingSignOfLife.size();
+		}
+		flushIfFull(pending);
+		return 1;
+	}
+
+	@Override
+	public Optional<JobExecution> findById(Long id) {
+		synchronized (this) {
+			JobExecution exec = unwritten.get(id);
+			if (exec != null) {
+				return Optional.of(exec);
+			}
+		}
+		return delegate.findById(id);
+	}
+
+	@Override
+	public List<JobExecution> findAllByJobDefinitionAndStatus(JobDefinition job, JobExecution.Status status) {
+		flush();
+		return delegate.findAllByJobDefinitionAndStatus(job, status);
+	}
+
+	@Override
+	public List<JobExecution> findAllByJobDefinitionName(String name) {
+		flush();
+		return delegate.findAllByJobDefinitionName(name);
+	}
+
+	@Override
+	public List<JobExecution> findAllByStatusAndNodeName(JobExecution.Status status, String nodeName) {
+		flush();
+		return delegate.findAllByStatusAndNodeName(status, nodeName);
+	}
+
+	@Override
+	public List<JobExecution> findAllByStatusAndSignOfLifeTimeBefore(JobExecution.Status status, Date before) {
+		flush();
+		return delegate.findAllByStatusAndSignOfLifeTimeBefore(status, before);
+	}
+
+	/**
+	 * Write all pending changes in the calling thread (and its transaction, if any).
+	 */
+	@Override
+	public void flush() {
+		synchronized (flushLock) {
+			Map<Long, JobExecution> updates;
+			Map<Long, Date> signOfLife;
+			synchronized (this) {
+				if (pendingUpdates.isEmpty() && pendingSignOfLife.isEmpty()) {
+					return;
+				}
+				updates = pendingUpdates;
+				signOfLife = pendingSignOfLife;
+				pendingUpdates = new LinkedHashMap<>();
+				pendingSignOfLife = new LinkedHashMap<>();
+			}
+			try {
+				if (!updates.isEmpty()) delegate.updateAll(updates.values());
+				if (!signOfLife.isEmpty()) delegate.updateSignOfLifeAll(signOfLife);
+				logger.debug("Wrote {} updates and {} sign of life updates", updates.size(), signOfLife.size());
+			} catch (RuntimeException e) {
+				// keep the changes for the next flush, newer changes of the same execution win
+				synchronized (this) {
+					updates.forEach(pendingUpdates::putIfAbsent);
+					signOfLife.forEach(pendingSignOfLife::putIfAbsent);
+				}
+				throw e;
+			} finally {
+				synchronized (this) {
+					released(updates.keySet());
+				}
+			}
+		}
+	}
+
+	private void released(Set<Long> ids) {
+		for (Long id : ids) {
+			if (!pendingUpdates.containsKey(id)) {
+				unwritten.remove(id);
+			}
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (Exception e) {
+			logger.error("Writing job executions failed", e);
+		}
+	}
+
+	private void flushIfFull(int pending) {
+		if (pending >= batchSize && flusher != null && !flusher.isShutdown()) {
+			flusher.execute(this::flushQuietly);
+		}
+	}
+
+	private static JobExecution copyOf(JobExecution entity) {
+		JobExecution copy = new JobExecution();
+		copy.setId(entity.getId());
+		copy.setJobDefinition(entity.getJobDefinition());
+		copy.setStatus(entity.getStatus());
+		copy.setStartTime(entity.getStartTime());
+		copy.setEndTime(entity.getEndTime());
+		copy.setMessage(entity.getMessage());
+		copy.setNodeName(entity.getNodeName());
+		copy.setSignOfLifeTime(entity.getSignOfLifeTime());
+		return copy;
+	}
+
+	public JdbcJobExecutionDao getDelegate() {
+		return delegate;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * @param flushInterval milliseconds between two flushes, set before the bean is initialized
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+}
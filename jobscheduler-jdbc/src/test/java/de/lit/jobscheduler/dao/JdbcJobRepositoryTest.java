@@ -1,21 +1,42 @@
 package de.lit.jobscheduler.dao;
 
+import de.lit.jobscheduler.JobSchedule;
 import de.lit.jobscheduler.SpringDbUnitTestCase;
 import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobAssignment;
 import de.lit.jobscheduler.entity.JobExecution;
+import de.lit.jobscheduler.entity.JobLease;
+import de.lit.jobscheduler.entity.JobNode;
+import de.lit.jobscheduler.entity.JobPartition;
+import de.lit.jobscheduler.entity.JobRateLimit;
+import de.lit.jobscheduler.impl.JobExecutorImpl;
+import de.lit.jobscheduler.impl.JobInstance;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @ContextConfiguration
 public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
@@ -26,6 +47,24 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 	@Autowired
 	private JobExecutionDao executionDao;
 
+	@Autowired
+	private JobNodeDao nodeDao;
+
+	@Autowired
+	private JobLeaseDao leaseDao;
+
+	@Autowired
+	private JobAssignmentDao assignmentDao;
+
+	@Autowired
+	private JobPartitionDao partitionDao;
+
+	@Autowired
+	private JobRateLimitDao rateLimitDao;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	public static class JobExecutionIdGenerator implements Supplier<Long> {
 		private JdbcTemplate jdbcTemplate;
 
@@ -56,6 +95,30 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 		assertEquals(1, list.size());
 		assertEquals(testjob, list.get(0));
 
+		list = jobDao.findAllScheduled();
+		assertEquals(1, list.size());
+		assertEquals(testjob, list.get(0));
+
+		list = jobDao.findDue(LocalDateTime.now(), null, 10);
+		assertEquals(1, list.size());
+		assertEquals(testjob, list.get(0));
+		assertEquals(0, jobDao.findDue(LocalDateTime.now(), testjob, 10).size());
+		assertEquals(testjob.getNextRun(), jobDao.findNextRun());
+		list = jobDao.findDueByNames(Arrays.asList(testName, "__UNKNOWN"), LocalDateTime.now());
+		assertEquals(1, list.size());
+		assertEquals(testjob, list.get(0));
+		assertTrue(jobDao.findDueByNames(Collections.emptyList(), LocalDateTime.now()).isEmpty());
+
+		list = jobDao.claimDueJobs(Arrays.asList(testName, "__UNKNOWN"), LocalDateTime.now());
+		assertEquals(1, list.size());
+		assertTrue("claimed", list.get(0).isRunning());
+		assertEquals(0, jobDao.claimDueJobs(Arrays.asList(testName), LocalDateTime.now()).size());
+		jobDao.updateRunning(testName, false);
+
+		assertEquals(testName, jobDao.tryLockJob(testName).getName());
+		assertNull(jobDao.tryLockJob("__UNKNOWN"));
+		assertTrue(jobDao.tryLockRunQueue("__UNKNOWN").isEmpty());
+
 		job = jobDao.lockJob(job.getName());
 		job.setRunning(true);
 		jobDao.save(job);
@@ -64,6 +127,8 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 
 		assertEquals(testName, job.getName());
 		assertTrue("running", job.isRunning());
+		assertTrue("lightweight", job.isLightweight());
+		assertEquals(Integer.valueOf(3), job.getWeight());
 
 		LocalDateTime nextRun = LocalDateTime.now().plusHours(1);
 		jobDao.updateForNextRun(testName, nextRun);
@@ -125,6 +190,81 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 		assertEquals("new test-message", exec.getMessage());
 	}
 
+	@Test
+	@Transactional
+	public void testWriteBehindExecutionDao() throws Exception {
+		WriteBehindJobExecutionDao writeBehind = new WriteBehindJobExecutionDao((JdbcJobExecutionDao) executionDao);
+		JobExecution testexec = createJobExecution();
+		jobDao.save(testexec.getJobDefinition());
+		Long testId = writeBehind.save(testexec).getId();
+		assertNotNull(testId);
+		assertEquals("inserted immediately", 1, countExecutions(testId));
+
+		testexec.setStatus(JobExecution.Status.SUCCESS);
+		writeBehind.save(testexec);
+		assertSame("pending", testexec, writeBehind.findById(testId).orElseThrow(AssertionError::new));
+		assertEquals("not written", JobExecution.Status.RUNNING,
+				executionDao.findById(testId).orElseThrow(AssertionError::new).getStatus());
+		Timestamp signOfLife = new Timestamp(System.currentTimeMillis());
+		writeBehind.updateSignOfLife(testId, signOfLife);
+		writeBehind.flush();
+		JobExecution exec = writeBehind.findById(testId).orElseThrow(AssertionError::new);
+		assertNotSame(testexec, exec);
+		assertEquals(JobExecution.Status.SUCCESS, exec.getStatus());
+		assertEquals(signOfLife, exec.getSignOfLifeTime());
+
+		exec.setMessage("new test-message");
+		writeBehind.save(exec);
+		writeBehind.updateSignOfLife(testId, new Timestamp(signOfLife.getTime() + 1000));
+		assertEquals("flushed before query", 1, writeBehind.findAllByStatusAndNodeName(
+				JobExecution.Status.SUCCESS, testexec.getNodeName()).size());
+		exec = executionDao.findById(testId).orElseThrow(AssertionError::new);
+		assertEquals("new test-message", exec.getMessage());
+		assertEquals(signOfLife.getTime() + 1000, exec.getSignOfLifeTime().getTime());
+	}
+
+	/**
+	 * Not transactional: the job runs in a thread of the executor and its execution is referenced
+	 * by the job row right away.
+	 */
+	@Test
+	public void testWriteBehindJobRun() throws Exception {
+		String testName = "__TEST4";
+		WriteBehindJobExecutionDao writeBehind = new WriteBehindJobExecutionDao((JdbcJobExecutionDao) executionDao);
+		writeBehind.afterPropertiesSet();
+		JobExecutorImpl executor = new JobExecutorImpl(1, 1, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+				Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+		ReflectionTestUtils.setField(executor, "jobDao", jobDao);
+		ReflectionTestUtils.setField(executor, "jobExecutionDao", writeBehind);
+		JobDefinition testjob = createJobDefinition(testName);
+		jobDao.save(testjob);
+		try {
+			JobSchedule schedule = mock(JobSchedule.class);
+			when(schedule.evalNextRun(any())).thenReturn(LocalDateTime.now().plusDays(1));
+			JobInstance instance = new JobInstance(testjob);
+			instance.setImplementation(execution -> {
+			});
+			instance.setSchedule(schedule);
+			executor.submitClaimedJob(instance);
+			executor.destroy();
+
+			JobDefinition job = jobDao.findById(testName).orElseThrow(AssertionError::new);
+			assertNotNull("last execution", job.getLastExecution());
+			JobExecution exec = executionDao.findById(job.getLastExecution().getId()).orElseThrow(AssertionError::new);
+			assertEquals(JobExecution.Status.SUCCESS, exec.getStatus());
+			assertFalse(job.isRunning());
+		} finally {
+			writeBehind.destroy();
+			jdbcTemplate.update("UPDATE JOB SET LAST_EXECUTION_ID = NULL WHERE NAME = ?", testName);
+			jdbcTemplate.update("DELETE FROM JOB_EXECUTION WHERE JOB_NAME = ?", testName);
+			jdbcTemplate.update("DELETE FROM JOB WHERE NAME = ?", testName);
+		}
+	}
+
+	private int countExecutions(Long id) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM JOB_EXECUTION WHERE ID = ?", Integer.class, id);
+	}
+
 	@Test
 	@Transactional
 	public void testReferences() throws Exception {
@@ -147,6 +287,138 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 		assertNotNull(exec);
 		assertEquals(testjob, exec.getJobDefinition());
 		assertEquals(testName, exec.getJobDefinition().getName());
+
+		JobExecution batchexec = createJobExecution();
+		batchexec.setJobDefinition(testjob);
+		executionDao.saveAll(Arrays.asList(batchexec));
+		assertNotNull(batchexec.getId());
+		jobDao.updateForNextRun(testName, null, batchexec);
+		job = jobDao.findById(testName).orElseThrow(AssertionError::new);
+		assertEquals(batchexec, job.getLastExecution());
+		assertFalse("running", job.isRunning());
+	}
+
+	@Test
+	@Transactional
+	public void testJobNodeDao() throws Exception {
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		nodeDao.save(new JobNode("__node1", now.minusMinutes(5)));
+		nodeDao.save(new JobNode("__node2", now.minusMinutes(5)));
+		nodeDao.save(new JobNode("__node2", now));
+
+		List<JobNode> alive = nodeDao.findAllByHeartbeatAfterOrderByName(now.minusMinutes(1));
+		assertEquals(1, alive.size());
+		assertEquals("__node2", alive.get(0).getName());
+		assertEquals(now, alive.get(0).getHeartbeat());
+
+		nodeDao.deleteById("__node2");
+		assertTrue(nodeDao.findAllByHeartbeatAfterOrderByName(now.minusMinutes(1)).isEmpty());
+	}
+
+	@Test
+	@Transactional
+	public void testLeaseAndAssignmentDao() throws Exception {
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		assertEquals(0, leaseDao.acquire("__lease", "__node1", now, now.plusSeconds(30)));
+		assertEquals(1, leaseDao.create("__lease", "__node1", now.plusSeconds(30)));
+		try {
+			leaseDao.create("__lease", "__node2", now.plusSeconds(30));
+			fail("lease created twice");
+		} catch (DataIntegrityViolationException e) {
+			// created by __node1
+		}
+		assertEquals(0, leaseDao.acquire("__lease", "__node2", now, now.plusSeconds(30)));
+		assertEquals(1, leaseDao.acquire("__lease", "__node2", now.plusSeconds(31), now.plusSeconds(60)));
+		assertEquals(1, leaseDao.release("__lease", "__node2"));
+		assertEquals(1, leaseDao.acquire("__lease", "__node1", now, now.plusSeconds(30)));
+		JobLease lease = leaseDao.findById("__lease").orElseThrow(AssertionError::new);
+		assertEquals("__node1", lease.getOwner());
+		assertEquals(now.plusSeconds(30), lease.getExpires());
+		assertFalse(leaseDao.findById("__unknown").isPresent());
+
+		assignmentDao.save(new JobAssignment("__JOB1", "__node1", now));
+		assignmentDao.save(new JobAssignment("__JOB2", "__node2", now.minusSeconds(1)));
+		assertEquals(1, assignmentDao.findAllByNodeName("__node1").size());
+		assertEquals("__JOB2", assignmentDao.findAllByOrderByAssigned().get(0).getJobName());
+		assertEquals(0, assignmentDao.deleteAssignment("__JOB1", "__node2"));
+		assertEquals(1, assignmentDao.deleteAssignment("__JOB1", "__node1"));
+	}
+
+	@Test
+	@Transactional
+	public void testPartitionDao() throws Exception {
+		JobExecution testexec = createJobExecution();
+		jobDao.save(testexec.getJobDefinition());
+		Long executionId = executionDao.save(testexec).getId();
+		partitionDao.saveAll(Arrays.asList(
+				new JobPartition(executionId, "__TEST2", "1-100"),
+				new JobPartition(executionId, "__TEST2", "101-200")));
+		assertEquals(2, partitionDao.findAllByExecutionId(executionId).size());
+		assertEquals(1, partitionDao.findPending(null, 1).size());
+
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		JobPartition first = partitionDao.findPending(executionId, 10).get(0);
+		assertEquals("1-100", first.getPartitionKey());
+		assertEquals(1, partitionDao.claim(first.getId(), "__node1", now));
+		assertEquals(0, partitionDao.claim(first.getId(), "__node2", now));
+		assertEquals(1, partitionDao.findPending(executionId, 10).size());
+
+		assertEquals(1, partitionDao.resetRunning("__node1"));
+		assertEquals(1, partitionDao.claim(first.getId(), "__node2", now));
+		assertEquals(1, partitionDao.finish(first.getId(), JobPartition.Status.ERROR, now, "failed"));
+		assertEquals(0, partitionDao.finish(first.getId(), JobPartition.Status.SUCCESS, now, null));
+		JobPartition finished = partitionDao.findAllByExecutionId(executionId).stream()
+				.filter(first::equals).findFirst().orElseThrow(AssertionError::new);
+		assertEquals(JobPartition.Status.ERROR, finished.getStatus());
+		assertEquals("__node2", finished.getNodeName());
+		assertEquals(now, finished.getStartTime());
+		assertEquals("failed", finished.getMessage());
+	}
+
+	@Test
+	@Transactional
+	public void testRateLimitDao() throws Exception {
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		rateLimitDao.save(new JobRateLimit("queue:__queue", 2, 60));
+		JobRateLimit bucket = rateLimitDao.findById("queue:__queue").orElseThrow(AssertionError::new);
+		assertEquals(2, bucket.getCapacity());
+		assertEquals(60, bucket.getRefillInterval());
+		assertEquals(2, bucket.getTokens());
+		assertEquals(0, bucket.getVersion());
+
+		assertEquals(2, bucket.take(5, now));
+		assertEquals(1, rateLimitDao.update(bucket.getName(), bucket.getTokens(), bucket.getLastRefill(), 0));
+		assertEquals(0, rateLimitDao.update(bucket.getName(), 2, now, 0));
+		bucket = rateLimitDao.findById("queue:__queue").orElseThrow(AssertionError::new);
+		assertEquals(0, bucket.getTokens());
+		assertEquals(now, bucket.getLastRefill());
+		assertEquals(1, bucket.getVersion());
+
+		assertEquals(0, bucket.take(1, now.plusSeconds(59)));
+		assertEquals(now.plusSeconds(60), bucket.nextToken(now.plusSeconds(59)));
+		assertEquals(1, bucket.take(2, now.plusSeconds(90)));
+		assertEquals(now.plusSeconds(60), bucket.getLastRefill());
+		assertFalse(rateLimitDao.findById("__unknown").isPresent());
+	}
+
+	@Test
+	public void testSkipLockedDetection() throws Exception {
+		JdbcJobDefinitionDao dao = new JdbcJobDefinitionDao(null);
+		assertTrue(dao.supportsSkipLocked(metaData("Oracle", 11, 2)));
+		assertTrue(dao.supportsSkipLocked(metaData("PostgreSQL", 9, 5)));
+		assertFalse(dao.supportsSkipLocked(metaData("PostgreSQL", 9, 4)));
+		assertTrue(dao.supportsSkipLocked(metaData("MySQL", 8, 0)));
+		assertFalse(dao.supportsSkipLocked(metaData("MySQL", 5, 7)));
+		assertTrue(dao.supportsSkipLocked(metaData("MariaDB", 10, 6)));
+		assertFalse(dao.supportsSkipLocked(metaData("H2", 1, 4)));
+	}
+
+	private DatabaseMetaData metaData(String product, int major, int minor) throws SQLException {
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		when(metaData.getDatabaseProductName()).thenReturn(product);
+		when(metaData.getDatabaseMajorVersion()).thenReturn(major);
+		when(metaData.getDatabaseMinorVersion()).thenReturn(minor);
+		return metaData;
 	}
 
 	private JobDefinition createJobDefinition(String testName) {
@@ -159,6 +431,11 @@ public class JdbcJobRepositoryTest extends SpringDbUnitTestCase {
 		job.setRunning(false);
 		job.setDisabled(false);
 		job.setSuspended(false);
+		job.setMisfirePolicy(JobDefinition.MisfirePolicy.SKIP);
+		job.setJitter(30);
+		job.setLightweight(true);
+		job.setWeight(3);
+		job.setExecutor("reports");
 		return job;
 	}
 
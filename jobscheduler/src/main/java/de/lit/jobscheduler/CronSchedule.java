@@ -2,6 +2,7 @@ package de.lit.jobscheduler;
 
 import de.lit.jobscheduler.entity.JobDefinition;
 import org.quartz.CronExpression;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.text.ParseException;
@@ -9,31 +10,106 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
 
+import static de.lit.jobscheduler.entity.JobDefinition.MisfirePolicy.FIRE_ALL;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
+/**
+ * Schedule by the cron expression of the job. Runs can be spread over a jitter window: every
+ * run of a job is delayed by the same offset within the window, derived from the job name, so
+ * jobs with the same cron expression do not become due at the same second.
+ */
 @Component("cronSchedule")
 public class CronSchedule implements JobSchedule {
 
+	/**
+	 * Default jitter window in seconds for jobs without {@code jitter}, 0 to disable
+	 */
+	@Value("${application.jobscheduler.jitter.window:0}")
+	private int jitterWindow = 0;
+
 	@Override
 	public boolean testJobReady(JobDefinition job) {
 		return true;
 	}
 
+	/**
+	 * Next run after now. With misfire policy {@code FIRE_ALL} the next run after the
+	 * last {@code nextRun}, so missed runs are caught up one after another.
+	 */
 	@Override
 	public LocalDateTime evalNextRun(JobDefinition job) {
 		if (isEmpty(job.getCronExpression())) {
 			return null;
 		}
+		CronExpression cron = parse(job);
+		long offset = jitterOffsetMillis(job);
+		Date now = new Date();
+		if (job.getMisfirePolicy() == FIRE_ALL && job.getNextRun() != null) {
+			Date missed = shift(cron.getNextValidTimeAfter(shift(toDate(job.getNextRun()), -offset)), offset);
+			if (missed != null && missed.before(now)) {
+				return toLocalDateTime(missed);
+			}
+		}
+		return toLocalDateTime(shift(cron.getNextValidTimeAfter(shift(now, -offset)), offset));
+	}
+
+	@Override
+	public LocalDateTime evalPreviousRun(JobDefinition job, LocalDateTime before) {
+		if (isEmpty(job.getCronExpression())) {
+			return null;
+		}
+		long offset = jitterOffsetMillis(job);
+		return toLocalDateTime(shift(parse(job).getTimeBefore(shift(toDate(before), -offset)), offset));
+	}
+
+	/**
+	 * Offset of all runs of the job: a whole number of seconds below the jitter window,
+	 * the same for every run.
+	 */
+	long jitterOffsetMillis(JobDefinition job) {
+		int window = job.getJitter() != null ? job.getJitter() : jitterWindow;
+		if (window <= 0 || job.getName() == null) {
+			return 0;
+		}
+		return Math.floorMod(job.getName().hashCode(), window) * 1000L;
+	}
+
+	public int getJitterWindow() {
+		return jitterWindow;
+	}
+
+	/**
+	 * @param jitterWindow default jitter window in seconds for jobs without {@code jitter}. Default is 0 (no jitter)
+	 */
+	public void setJitterWindow(int jitterWindow) {
+		this.jitterWindow = jitterWindow;
+	}
+
+	private CronExpression parse(JobDefinition job) {
 		try {
-			CronExpression cron = new CronExpression(job.getCronExpression());
-			Date nextDate = cron.getNextValidTimeAfter(new Date());
-			return nextDate.toInstant()
-					.atZone(ZoneId.systemDefault())
-					.toLocalDateTime();
+			return new CronExpression(job.getCronExpression());
 		} catch (ParseException e) {
 			throw new IllegalArgumentException(job.getCronExpression(), e);
 		}
 	}
 
+	private static Date shift(Date date, long millis) {
+		if (date == null || millis == 0) {
+			return date;
+		}
+		return new Date(date.getTime() + millis);
+	}
+
+	private static Date toDate(LocalDateTime dateTime) {
+		return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+	}
 
+	private static LocalDateTime toLocalDateTime(Date date) {
+		if (date == null) {
+			return null;
+		}
+		return date.toInstant()
+				.atZone(ZoneId.systemDefault())
+				.toLocalDateTime();
+	}
 }
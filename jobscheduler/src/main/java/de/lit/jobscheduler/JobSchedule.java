@@ -13,4 +13,17 @@ public interface JobSchedule {
 
 	LocalDateTime evalNextRun(JobDefinition job);
 
+	/**
+	 * Last regular run time of the job before the given time. Used to detect misfires: a job misfired
+	 * if a regular run was missed by more than the misfire threshold. Without a previous run time
+	 * ({@code null}, the default) a job misfired if its {@code nextRun} is older than the threshold.
+	 *
+	 * @param job    job definition
+	 * @param before end of the search
+	 * @return last run time before {@code before} or {@code null} if unknown
+	 */
+	default LocalDateTime evalPreviousRun(JobDefinition job, LocalDateTime before) {
+		return null;
+	}
+
 }
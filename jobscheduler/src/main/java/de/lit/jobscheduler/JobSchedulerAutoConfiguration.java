@@ -1,20 +1,18 @@
 package de.lit.jobscheduler;
 
-import de.lit.jobscheduler.dao.JobDefinitionDao;
-import de.lit.jobscheduler.dao.JobExecutionDao;
 import de.lit.jobscheduler.entity.JobDefinition;
 import de.lit.jobscheduler.entity.JobExecution;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.context.annotation.Import;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @ComponentScan
 @ConditionalOnProperty(name = "application.jobscheduler.enable", matchIfMissing = true)
-@EnableJpaRepositories(basePackageClasses = {JobDefinitionDao.class, JobExecutionDao.class})
+@Import(JobSchedulerRepositoryConfiguration.class)
 @EntityScan(basePackageClasses = {JobDefinition.class, JobExecution.class})
 @EnableScheduling
 public class JobSchedulerAutoConfiguration {
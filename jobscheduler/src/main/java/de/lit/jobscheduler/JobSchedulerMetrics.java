@@ -0,0 +1,39 @@
+package de.lit.jobscheduler;
+
+/**
+ * Receives the scheduling latencies of every job start. Implement this interface and provide
+ * it as bean to feed your own metrics system, or enable one of the included implementations
+ * with {@code application.jobscheduler.metrics.type=memory} or {@code micrometer}.
+ */
+@FunctionalInterface
+public interface JobSchedulerMetrics {
+
+	enum Latency {
+		/**
+		 * From {@code nextRun} until the job is handed over to the job executor
+		 */
+		DISPATCH_LAG,
+		/**
+		 * Duration of locking (or batch claiming) the job before it is handed over
+		 */
+		CLAIM,
+		/**
+		 * From handing over until a thread of the job executor starts the job
+		 */
+		QUEUED,
+		/**
+		 * From {@code nextRun} until the job starts, the sum of dispatch lag and queued time
+		 */
+		START_LAG
+	}
+
+	/**
+	 * Called by the scheduler threads and the job executor threads, so implementations have to be thread safe
+	 * and fast.
+	 *
+	 * @param latency kind of latency
+	 * @param jobName name of the job
+	 * @param millis  latency in milliseconds
+	 */
+	void record(Latency latency, String jobName, long millis);
+}
@@ -0,0 +1,57 @@
+package de.lit.jobscheduler;
+
+import de.lit.jobscheduler.dao.JPAJobAssignmentDao;
+import de.lit.jobscheduler.dao.JPAJobLeaseDao;
+import de.lit.jobscheduler.dao.JPAJobNodeDao;
+import de.lit.jobscheduler.dao.JPAJobPartitionDao;
+import de.lit.jobscheduler.dao.JPAJobRateLimitDao;
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobExecution;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The repositories of optional features are only created if the feature is enabled, so a persistence unit
+ * without their entities only needs {@link JobDefinition} and {@link JobExecution}.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = {JobDefinitionDao.class, JobExecutionDao.class},
+		excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {JPAJobNodeDao.class,
+				JPAJobLeaseDao.class, JPAJobAssignmentDao.class, JPAJobPartitionDao.class, JPAJobRateLimitDao.class}))
+public class JobSchedulerRepositoryConfiguration {
+
+	@Configuration
+	@ConditionalOnExpression("${application.jobscheduler.partition.enable:false} or ${application.jobscheduler.leader.enable:false}")
+	@EnableJpaRepositories(basePackageClasses = JPAJobNodeDao.class,
+			includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = JPAJobNodeDao.class))
+	static class JobNodeRepositories {
+	}
+
+	@Configuration
+	@ConditionalOnProperty(name = "application.jobscheduler.leader.enable", havingValue = "true")
+	@EnableJpaRepositories(basePackageClasses = JPAJobLeaseDao.class,
+			includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {JPAJobLeaseDao.class,
+					JPAJobAssignmentDao.class}))
+	static class LeaderElectionRepositories {
+	}
+
+	@Configuration
+	@ConditionalOnProperty(name = "application.jobscheduler.partitionedjob.enable", havingValue = "true")
+	@EnableJpaRepositories(basePackageClasses = JPAJobPartitionDao.class,
+			includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = JPAJobPartitionDao.class))
+	static class PartitionedJobRepositories {
+	}
+
+	@Configuration
+	@ConditionalOnProperty(name = "application.jobscheduler.ratelimit.enable", havingValue = "true")
+	@EnableJpaRepositories(basePackageClasses = JPAJobRateLimitDao.class,
+			includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = JPAJobRateLimitDao.class))
+	static class RateLimitRepositories {
+	}
+}
@@ -43,7 +43,7 @@ public class JobUtilityBean {
 		exec.setStartTime(new Date(System.currentTimeMillis()));
 		exec.setStatus(JobExecution.Status.RUNNING);
 		instance.setJobExecution(exec);
-		instance.setThread(Thread.currentThread());
+		instance.markRunning(Thread.currentThread());
 		instance.setStartedTime(exec.getStartTime().getTime());
 
 		if (lifecycleCallback != null) {
@@ -51,6 +51,7 @@ public class JobUtilityBean {
 		}
 
 		instance.run();
+		instance.markFinished();
 
 		exec.setEndTime(new Date(System.currentTimeMillis()));
 		if (instance.getError() != null) {
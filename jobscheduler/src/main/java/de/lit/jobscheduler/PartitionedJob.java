@@ -0,0 +1,40 @@
+package de.lit.jobscheduler;
+
+import de.lit.jobscheduler.entity.JobExecution;
+
+import java.util.List;
+
+/**
+ * Job that splits its work into partitions. With {@code application.jobscheduler.partitionedjob.enable=true}
+ * the partitions are stored in the {@code JOB_PARTITION} table and processed in parallel by idle worker
+ * threads of all nodes; the thread that started the job works on the partitions, too, and waits until
+ * all of them are finished. If some partitions fail the execution ends with {@code PARTIAL_SUCCESS},
+ * if all fail with {@code ERROR}.
+ * <p></p>
+ * Without partitions enabled all partitions are processed one after the other by {@link #run(JobExecution)}.
+ */
+public interface PartitionedJob extends Job {
+
+	/**
+	 * Split the work of this execution, e.g. into key ranges. Called once per execution.
+	 *
+	 * @param execution the running execution
+	 * @return partition keys, at most 1000 characters each
+	 */
+	List<String> partition(JobExecution execution) throws Exception;
+
+	/**
+	 * Process one partition. Called on any node and thread, possibly in parallel for several partitions.
+	 *
+	 * @param execution the execution that created the partition
+	 * @param partition partition key returned by {@link #partition(JobExecution)}
+	 */
+	void runPartition(JobExecution execution, String partition) throws Exception;
+
+	@Override
+	default void run(JobExecution execution) throws Exception {
+		for (String partition : partition(execution)) {
+			runPartition(execution, partition);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobAssignment;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface JPAJobAssignmentDao extends CrudRepository<JobAssignment, String>, JobAssignmentDao {
+
+	List<JobAssignment> findAllByNodeName(String nodeName);
+
+	List<JobAssignment> findAllByOrderByAssigned();
+
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM JobAssignment WHERE jobName=?1 and nodeName=?2")
+	int deleteAssignment(String jobName, String nodeName);
+}
@@ -3,17 +3,31 @@ package de.lit.jobscheduler.dao;
 import de.lit.jobscheduler.entity.JobDefinition;
 import de.lit.jobscheduler.entity.JobExecution;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface JPAJobDefinitionDao extends CrudRepository<JobDefinition, String>, JobDefinitionDao {
 
+	/**
+	 * Lock timeout hint, translated to {@code SKIP LOCKED} or {@code NOWAIT} by the hibernate dialect.
+	 * Dialects without support fall back to a plain {@code FOR UPDATE}.
+	 */
+	String LOCK_TIMEOUT = "jakarta.persistence.lock.timeout";
+	String SKIP_LOCKED = "-2";
+	String NO_WAIT = "0";
+
 	@Query("FROM JobDefinition a "
 			+ " WHERE a.running=false and a.disabled=false and a.suspended=false "
 			+ "  and a.nextRun <= ?1 "
@@ -21,9 +35,55 @@ public interface JPAJobDefinitionDao extends CrudRepository<JobDefinition, Strin
 			+ "    SELECT 1 FROM JobDefinition x"
 			+ "    WHERE x.runQueue = a.runQueue and x.running = true"
 			+ "  ) "
-			+ " ORDER BY a.nextRun")
+			+ " ORDER BY a.priority desc, a.nextRun")
 	List<JobDefinition> findAllDue(LocalDateTime when);
 
+	@Query("FROM JobDefinition a "
+			+ " WHERE a.running=false and a.disabled=false and a.suspended=false "
+			+ "  and a.nextRun <= ?1 "
+			+ "  and not exists("
+			+ "    SELECT 1 FROM JobDefinition x"
+			+ "    WHERE x.runQueue = a.runQueue and x.running = true"
+			+ "  ) "
+			+ " ORDER BY a.priority desc, a.nextRun, a.name")
+	List<JobDefinition> findDueFirst(LocalDateTime when, Limit limit);
+
+	@Query("FROM JobDefinition a "
+			+ " WHERE a.running=false and a.disabled=false and a.suspended=false "
+			+ "  and a.nextRun <= ?1 "
+			+ "  and (a.priority < ?2 or (a.priority = ?2"
+			+ "    and (a.nextRun > ?3 or (a.nextRun = ?3 and a.name > ?4)))) "
+			+ "  and not exists("
+			+ "    SELECT 1 FROM JobDefinition x"
+			+ "    WHERE x.runQueue = a.runQueue and x.running = true"
+			+ "  ) "
+			+ " ORDER BY a.priority desc, a.nextRun, a.name")
+	List<JobDefinition> findDueAfter(LocalDateTime when, int afterPriority, LocalDateTime afterNextRun, String afterName, Limit limit);
+
+	@Override
+	default List<JobDefinition> findDue(LocalDateTime when, JobDefinition after, int limit) {
+		if (after == null) {
+			return findDueFirst(when, Limit.of(limit));
+		}
+		return findDueAfter(when, after.getPriority(), after.getNextRun(), after.getName(), Limit.of(limit));
+	}
+
+	@Query("FROM JobDefinition a "
+			+ " WHERE a.name in ?1 and a.running=false and a.disabled=false and a.suspended=false "
+			+ "  and a.nextRun <= ?2 "
+			+ "  and not exists("
+			+ "    SELECT 1 FROM JobDefinition x"
+			+ "    WHERE x.runQueue = a.runQueue and x.running = true"
+			+ "  ) "
+			+ " ORDER BY a.priority desc, a.nextRun, a.name")
+	List<JobDefinition> findDueByNames(Collection<String> names, LocalDateTime when);
+
+	@Query("SELECT MIN(nextRun) FROM JobDefinition WHERE running=false and disabled=false and suspended=false")
+	LocalDateTime findNextRun();
+
+	@Query("FROM JobDefinition WHERE disabled=false and nextRun is not null")
+	List<JobDefinition> findAllScheduled();
+
 	@Query("FROM JobDefinition WHERE name=?1")
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	JobDefinition lockJob(String name);
@@ -32,6 +92,40 @@ public interface JPAJobDefinitionDao extends CrudRepository<JobDefinition, Strin
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	List<JobDefinition> lockRunQueue(String queue);
 
+	@Query("FROM JobDefinition WHERE name=?1")
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = LOCK_TIMEOUT, value = SKIP_LOCKED))
+	JobDefinition tryLockJob(String name);
+
+	@Query("FROM JobDefinition WHERE runQueue=?1")
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = LOCK_TIMEOUT, value = NO_WAIT))
+	List<JobDefinition> tryLockRunQueue(String queue);
+
+	@Query("FROM JobDefinition WHERE name in ?1 and running=false and disabled=false and suspended=false and nextRun <= ?2")
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = LOCK_TIMEOUT, value = SKIP_LOCKED))
+	List<JobDefinition> lockDueJobs(Collection<String> names, LocalDateTime when);
+
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE JobDefinition SET running=true where name in ?1")
+	int markRunning(Collection<String> names);
+
+	@Override
+	@Transactional
+	default List<JobDefinition> claimDueJobs(Collection<String> names, LocalDateTime when) {
+		if (names.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<JobDefinition> jobs = lockDueJobs(names, when);
+		if (!jobs.isEmpty()) {
+			// entities are detached by the bulk update, so this does not cause further updates
+			markRunning(jobs.stream().map(JobDefinition::getName).collect(Collectors.toList()));
+			jobs.forEach(job -> job.setRunning(true));
+		}
+		return jobs;
+	}
+
 	@Modifying
 	@Transactional
 	@Query("UPDATE JobDefinition SET suspended=false, nextRun=current_timestamp WHERE name=?1")
@@ -52,6 +146,11 @@ public interface JPAJobDefinitionDao extends CrudRepository<JobDefinition, Strin
 	@Query("UPDATE JobDefinition SET running=false, nextRun=?2 where name=?1")
 	int updateForNextRun(String name, LocalDateTime nextRun);
 
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobDefinition SET running=false, nextRun=?2, lastExecution=?3 where name=?1")
+	int updateForNextRun(String name, LocalDateTime nextRun, JobExecution lastExecution);
+
 	@Modifying
 	@Transactional
 	@Query("UPDATE JobDefinition SET params=?2 where name=?1")
@@ -0,0 +1,27 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface JPAJobLeaseDao extends CrudRepository<JobLease, String>, JobLeaseDao {
+
+	@Modifying
+	@Transactional
+	@Query("INSERT INTO JobLease (name, owner, expires) VALUES (?1, ?2, ?3)")
+	int create(String name, String owner, LocalDateTime expires);
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobLease SET owner=?2, expires=?4 WHERE name=?1 and (owner=?2 or owner is null or expires < ?3)")
+	int acquire(String name, String owner, LocalDateTime now, LocalDateTime expires);
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobLease SET owner=null WHERE name=?1 and owner=?2")
+	int release(String name, String owner);
+}
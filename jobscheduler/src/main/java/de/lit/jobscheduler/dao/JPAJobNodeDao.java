@@ -0,0 +1,13 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobNode;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JPAJobNodeDao extends CrudRepository<JobNode, String>, JobNodeDao {
+
+	List<JobNode> findAllByHeartbeatAfterOrderByName(LocalDateTime after);
+
+}
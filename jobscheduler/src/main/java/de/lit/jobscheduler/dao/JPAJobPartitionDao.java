@@ -0,0 +1,45 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobPartition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JPAJobPartitionDao extends CrudRepository<JobPartition, Long>, JobPartitionDao {
+
+	List<JobPartition> findAllByExecutionId(Long executionId);
+
+	@Query("FROM JobPartition WHERE status=de.lit.jobscheduler.entity.JobPartition$Status.PENDING ORDER BY id")
+	List<JobPartition> findPendingFirst(Limit limit);
+
+	@Query("FROM JobPartition WHERE executionId=?1 and status=de.lit.jobscheduler.entity.JobPartition$Status.PENDING ORDER BY id")
+	List<JobPartition> findPendingOfExecution(Long executionId, Limit limit);
+
+	@Override
+	default List<JobPartition> findPending(Long executionId, int limit) {
+		if (executionId == null) {
+			return findPendingFirst(Limit.of(limit));
+		}
+		return findPendingOfExecution(executionId, Limit.of(limit));
+	}
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobPartition SET status=de.lit.jobscheduler.entity.JobPartition$Status.RUNNING, nodeName=?2, startTime=?3 WHERE id=?1 and status=de.lit.jobscheduler.entity.JobPartition$Status.PENDING")
+	int claim(Long id, String nodeName, LocalDateTime startTime);
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobPartition SET status=?2, endTime=?3, message=?4 WHERE id=?1 and status=de.lit.jobscheduler.entity.JobPartition$Status.RUNNING")
+	int finish(Long id, JobPartition.Status status, LocalDateTime endTime, String message);
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobPartition SET status=de.lit.jobscheduler.entity.JobPartition$Status.PENDING, nodeName=null, startTime=null WHERE status=de.lit.jobscheduler.entity.JobPartition$Status.RUNNING and nodeName=?1")
+	int resetRunning(String nodeName);
+}
@@ -0,0 +1,17 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobRateLimit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface JPAJobRateLimitDao extends CrudRepository<JobRateLimit, String>, JobRateLimitDao {
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE JobRateLimit SET tokens=?2, lastRefill=?3, version=version+1 WHERE name=?1 and version=?4")
+	int update(String name, int tokens, LocalDateTime lastRefill, long version);
+}
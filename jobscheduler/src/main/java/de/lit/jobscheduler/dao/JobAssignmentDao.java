@@ -0,0 +1,31 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobAssignment;
+
+import java.util.List;
+
+public interface JobAssignmentDao {
+
+	/**
+	 * @param entity new assignment
+	 * @return saved entity
+	 */
+	JobAssignment save(JobAssignment entity);
+
+	/**
+	 * {@code SELECT * FROM JobAssignment WHERE nodeName=?1}
+	 */
+	List<JobAssignment> findAllByNodeName(String nodeName);
+
+	/**
+	 * {@code SELECT * FROM JobAssignment ORDER BY assigned}
+	 */
+	List<JobAssignment> findAllByOrderByAssigned();
+
+	/**
+	 * {@code DELETE FROM JobAssignment WHERE jobName=?1 and nodeName=?2}
+	 *
+	 * @return 1 if the assignment was removed by this call
+	 */
+	int deleteAssignment(String jobName, String nodeName);
+}
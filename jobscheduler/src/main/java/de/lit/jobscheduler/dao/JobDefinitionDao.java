@@ -4,6 +4,7 @@ import de.lit.jobscheduler.entity.JobDefinition;
 import de.lit.jobscheduler.entity.JobExecution;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,12 +29,21 @@ public interface JobDefinitionDao {
 	 * SELECT * FROM JobDefinition
 	 * WHERE running=0 and disabled=0 and suspended=0
 	 *  and nextRun <= ?1
-	 * ORDER BY nextRun
+	 * ORDER BY priority desc, nextRun
 	 * </pre>
 	 * @return All due jobs
 	 */
 	List<JobDefinition> findAllDue(LocalDateTime when);
 
+	/**
+	 * <pre>
+	 * SELECT MIN(nextRun) FROM JobDefinition
+	 * WHERE running=0 and disabled=0 and suspended=0
+	 * </pre>
+	 * @return earliest next run of all jobs that are not running, {@code null} if no job is scheduled
+	 */
+	LocalDateTime findNextRun();
+
 	/**
 	 * All job due now, equals <code>findAllDue(LocalDateTime.now())</code>
 	 * @return All jobs with nextRun before now
@@ -43,6 +53,46 @@ public interface JobDefinitionDao {
 
 	}
 
+	/**
+	 * Keyset paginated variant of {@link #findAllDue(LocalDateTime)}, returns at most {@code limit} jobs.
+	 * <pre>
+	 * SELECT * FROM JobDefinition
+	 * WHERE running=0 and disabled=0 and suspended=0
+	 *  and nextRun <= ?1
+	 *  and (priority, nextRun, name) after ?2
+	 * ORDER BY priority desc, nextRun, name
+	 * </pre>
+	 * @param when   reference time for the due check
+	 * @param after  last job of the previous page, {@code null} for the first page
+	 * @param limit  max number of jobs to return, usually the remaining capacity of the job executor
+	 * @return next page of due jobs
+	 */
+	List<JobDefinition> findDue(LocalDateTime when, JobDefinition after, int limit);
+
+	/**
+	 * Variant of {@link #findAllDue(LocalDateTime)} restricted to the given jobs, e.g. the due jobs of the next run index.
+	 * <pre>
+	 * SELECT * FROM JobDefinition
+	 * WHERE name in ?1 and running=0 and disabled=0 and suspended=0
+	 *  and nextRun <= ?2
+	 * ORDER BY priority desc, nextRun, name
+	 * </pre>
+	 * @param names candidate jobs
+	 * @param when  reference time for the due check
+	 * @return the candidates that are due
+	 */
+	List<JobDefinition> findDueByNames(Collection<String> names, LocalDateTime when);
+
+	/**
+	 * <pre>
+	 * SELECT * FROM JobDefinition
+	 * WHERE disabled=0 and nextRun is not null
+	 * </pre>
+	 * Used to load the in-memory next run index of the event driven dispatcher.
+	 * @return All enabled jobs with a next run time
+	 */
+	List<JobDefinition> findAllScheduled();
+
 	/**
 	 * {@code SELECT * FROM JobDefinition WHERE name=?1 FOR UPDATE}
 	 */
@@ -56,6 +106,44 @@ public interface JobDefinitionDao {
 	 */
 	List<JobDefinition> lockRunQueue(String runQueue);
 
+	/**
+	 * Like {@link #lockJob(String)}, but does not wait for a lock held by another transaction.
+	 * {@code SELECT * FROM JobDefinition WHERE name=?1 FOR UPDATE SKIP LOCKED}
+	 * <p></p>
+	 * On databases without {@code SKIP LOCKED} support this waits for the lock like {@code lockJob}.
+	 * @return the locked job or {@code null} if it is locked by another transaction
+	 */
+	JobDefinition tryLockJob(String name);
+
+	/**
+	 * Like {@link #lockRunQueue(String)}, but fails immediately if a job of the queue is locked by another transaction.
+	 * {@code SELECT * FROM JobDefinition WHERE runQueue=?1 FOR UPDATE NOWAIT}
+	 * <p></p>
+	 * On databases without {@code NOWAIT} support this waits for the lock like {@code lockRunQueue}.
+	 * @param runQueue the queue to search for
+	 * @return all Jobs in queue
+	 * @throws org.springframework.dao.PessimisticLockingFailureException if a job of the queue is locked
+	 */
+	List<JobDefinition> tryLockRunQueue(String runQueue);
+
+	/**
+	 * Claim a batch of due jobs for execution in one transaction: lock all given jobs that are still due
+	 * and not running, then mark them as running with a single update. Jobs locked by another
+	 * transaction are skipped where the database supports {@code SKIP LOCKED}.
+	 * <pre>
+	 * SELECT * FROM JobDefinition
+	 * WHERE name in ?1 and running=0 and disabled=0 and suspended=0
+	 *  and nextRun <= ?2
+	 * FOR UPDATE SKIP LOCKED;
+	 * UPDATE JobDefinition SET running=1 WHERE name in (...)
+	 * </pre>
+	 * Jobs of a run queue must not be claimed this way, they need {@link #lockRunQueue(String)}.
+	 * @param names candidate jobs, usually from {@code findAllDue()}
+	 * @param when  reference time for the due check
+	 * @return claimed jobs, already marked as running
+	 */
+	List<JobDefinition> claimDueJobs(Collection<String> names, LocalDateTime when);
+
 	/**
 	 * {@code UPDATE JobDefinition SET suspended=0, nextRun=current_timestamp WHERE name=?}
 	 */
@@ -76,6 +164,12 @@ public interface JobDefinitionDao {
 	 */
 	int updateForNextRun(String name, LocalDateTime nextRun);
 
+	/**
+	 * Finish a coalesced lightweight job with one update instead of {@link #updateStartExecution} and {@link #updateForNextRun}.
+	 * {@code UPDATE JobDefinition SET running=0, nextRun=?2, lastExecution=?3 where name=?1}
+	 */
+	int updateForNextRun(String name, LocalDateTime nextRun, JobExecution lastExecution);
+
 	/**
 	 * {@code UPDATE JobDefinition SET params=?2 where name=?}
 	 */
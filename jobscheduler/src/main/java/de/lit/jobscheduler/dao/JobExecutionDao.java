@@ -24,6 +24,15 @@ public interface JobExecutionDao {
 	 */
 	JobExecution save(JobExecution entity);
 
+	/**
+	 * Saves all given entities, in one JDBC batch where the implementation supports it.
+	 * Used for the executions of coalesced lightweight jobs.
+	 *
+	 * @param entities to save
+	 * @return saved entities in the same order
+	 */
+	<S extends JobExecution> Iterable<S> saveAll(Iterable<S> entities);
+
 	/**
 	 * {@code SELECT * FROM JobExecution WHERE id=?1}
 	 */
@@ -38,4 +47,11 @@ public interface JobExecutionDao {
 	List<JobExecution> findAllByStatusAndSignOfLifeTimeBefore(JobExecution.Status status, Date before);
 
 	int updateSignOfLife(Long id, Date timestamp);
+
+	/**
+	 * Write all changes that an implementation with write-behind still holds back.
+	 * Called by the job executor on shutdown after the last job finished.
+	 */
+	default void flush() {
+	}
 }
@@ -0,0 +1,50 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobLease;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface JobLeaseDao {
+
+	/**
+	 * Insert or update the lease. Use {@link #create} to create the lease of a new cluster
+	 * and {@link #acquire} to take over an existing lease.
+	 *
+	 * @param entity lease to save
+	 * @return saved entity
+	 */
+	JobLease save(JobLease entity);
+
+	/**
+	 * {@code SELECT * FROM JobLease WHERE name=?1}
+	 */
+	Optional<JobLease> findById(String name);
+
+	/**
+	 * Create the lease, owned by the given owner.
+	 * <pre>
+	 * INSERT INTO JobLease (name, owner, expires) VALUES (?1, ?2, ?3)
+	 * </pre>
+	 *
+	 * @return 1 if the lease was created
+	 * @throws org.springframework.dao.DataIntegrityViolationException if the lease exists already
+	 */
+	int create(String name, String owner, LocalDateTime expires);
+
+	/**
+	 * Acquire or renew the lease if it is owned by the given owner, by nobody or has expired.
+	 * <pre>
+	 * UPDATE JobLease SET owner=?2, expires=?4
+	 * WHERE name=?1 and (owner=?2 or owner is null or expires &lt; ?3)
+	 * </pre>
+	 *
+	 * @return 1 if the lease is owned by {@code owner} now, 0 otherwise
+	 */
+	int acquire(String name, String owner, LocalDateTime now, LocalDateTime expires);
+
+	/**
+	 * {@code UPDATE JobLease SET owner=null WHERE name=?1 and owner=?2}
+	 */
+	int release(String name, String owner);
+}
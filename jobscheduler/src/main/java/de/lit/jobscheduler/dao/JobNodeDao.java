@@ -0,0 +1,29 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobNode;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JobNodeDao {
+
+	/**
+	 * Insert or update the node
+	 *
+	 * @param entity node with current heartbeat
+	 * @return saved entity
+	 */
+	JobNode save(JobNode entity);
+
+	/**
+	 * {@code SELECT * FROM JobNode WHERE heartbeat > ?1 ORDER BY name}
+	 *
+	 * @return all nodes alive since the given time
+	 */
+	List<JobNode> findAllByHeartbeatAfterOrderByName(LocalDateTime after);
+
+	/**
+	 * Unregister a node, e.g. on shutdown
+	 */
+	void deleteById(String name);
+}
@@ -0,0 +1,52 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobPartition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JobPartitionDao {
+
+	/**
+	 * Insert new partitions
+	 *
+	 * @param entities new partitions
+	 * @return saved entities
+	 */
+	<S extends JobPartition> Iterable<S> saveAll(Iterable<S> entities);
+
+	/**
+	 * {@code SELECT * FROM JobPartition WHERE executionId=?1}
+	 */
+	List<JobPartition> findAllByExecutionId(Long executionId);
+
+	/**
+	 * Pending partitions in insertion order
+	 *
+	 * @param executionId only partitions of this execution, {@code null} for all executions
+	 * @param limit       max number of partitions
+	 */
+	List<JobPartition> findPending(Long executionId, int limit);
+
+	/**
+	 * {@code UPDATE JobPartition SET status=RUNNING, nodeName=?2, startTime=?3 WHERE id=?1 and status=PENDING}
+	 *
+	 * @return 1 if the partition was claimed by this call
+	 */
+	int claim(Long id, String nodeName, LocalDateTime startTime);
+
+	/**
+	 * {@code UPDATE JobPartition SET status=?2, endTime=?3, message=?4 WHERE id=?1 and status=RUNNING}
+	 *
+	 * @return 1 if the partition was running
+	 */
+	int finish(Long id, JobPartition.Status status, LocalDateTime endTime, String message);
+
+	/**
+	 * Make the running partitions of a node available again, e.g. after a crash of the node.
+	 * {@code UPDATE JobPartition SET status=PENDING, nodeName=null, startTime=null WHERE status=RUNNING and nodeName=?1}
+	 *
+	 * @return number of reset partitions
+	 */
+	int resetRunning(String nodeName);
+}
@@ -0,0 +1,33 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobRateLimit;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface JobRateLimitDao {
+
+	/**
+	 * Insert or update the rate limit, e.g. to configure it. Use {@link #update} to take tokens.
+	 *
+	 * @param entity rate limit to save
+	 * @return saved entity
+	 */
+	JobRateLimit save(JobRateLimit entity);
+
+	/**
+	 * {@code SELECT * FROM JobRateLimit WHERE name=?1}
+	 */
+	Optional<JobRateLimit> findById(String name);
+
+	/**
+	 * Store the bucket if nobody else has changed it since it was read.
+	 * <pre>
+	 * UPDATE JobRateLimit SET tokens=?2, lastRefill=?3, version=version+1
+	 * WHERE name=?1 and version=?4
+	 * </pre>
+	 *
+	 * @return 1 if the bucket was updated, 0 if it was changed concurrently
+	 */
+	int update(String name, int tokens, LocalDateTime lastRefill, long version);
+}
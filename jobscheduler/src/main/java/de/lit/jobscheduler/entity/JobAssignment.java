@@ -0,0 +1,70 @@
+package de.lit.jobscheduler.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Job claimed by the leader and assigned to a node for execution. See {@code LeaderElection}
+ */
+@Entity
+@Table(name = "job_assignment", indexes = @Index(name = "idx_job_assignment_node", columnList = "nodeName"))
+public class JobAssignment {
+
+	@Id
+	@Column(length = 50)
+	private String jobName;
+
+	private String nodeName;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime assigned;
+
+	public JobAssignment() {
+	}
+
+	public JobAssignment(String jobName, String nodeName, LocalDateTime assigned) {
+		this.jobName = jobName;
+		this.nodeName = nodeName;
+		this.assigned = assigned;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JobAssignment)) return false;
+		if (jobName == null) return false;
+		JobAssignment that = (JobAssignment) o;
+		return jobName.equals(that.jobName);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(jobName);
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	public void setNodeName(String nodeName) {
+		this.nodeName = nodeName;
+	}
+
+	public LocalDateTime getAssigned() {
+		return assigned;
+	}
+
+	public void setAssigned(LocalDateTime assigned) {
+		this.assigned = assigned;
+	}
+}
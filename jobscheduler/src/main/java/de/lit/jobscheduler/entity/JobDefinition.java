@@ -1,14 +1,34 @@
 package de.lit.jobscheduler.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "job")
+@Table(name = "job", indexes = @Index(name = "idx_job_next_run", columnList = "priority desc, nextRun, name"))
 public class JobDefinition {
 
+    /**
+     * Handling of a job that missed its next run by more than the misfire threshold,
+     * e.g. after a downtime.
+     */
+    public enum MisfirePolicy {
+        /**
+         * Run once, then continue with the next run after now (default)
+         */
+        FIRE_ONCE,
+        /**
+         * Do not run, continue with the next run after now
+         */
+        SKIP,
+        /**
+         * Run once for every missed run (cron schedule only)
+         */
+        FIRE_ALL
+    }
+
     @Id
     @Column(length = 50)
     private String name;
@@ -49,6 +69,52 @@ public class JobDefinition {
 
     private String runQueue;
 
+    /**
+     * Optional group for fair share dispatching, see {@code FairSharePolicy}
+     */
+    private String jobGroup;
+
+    /**
+     * Optional name of the executor pool that runs the job, default is the default pool
+     */
+    private String executor;
+
+    /**
+     * Jobs with a higher priority are dispatched first, e.g. when the job executor has not
+     * enough capacity for all due jobs. Default is 0.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int priority;
+
+    /**
+     * Optional, default is {@link MisfirePolicy#FIRE_ONCE}
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private MisfirePolicy misfirePolicy;
+
+    /**
+     * Optional window in seconds: every run is delayed by a fixed offset within the window,
+     * derived from the job name. 0 disables the jitter, {@code null} uses the default window
+     * of the {@code CronSchedule}.
+     */
+    private Integer jitter;
+
+    /**
+     * Lightweight jobs finish within milliseconds. Several due lightweight jobs are claimed together,
+     * run back to back in one worker thread and their executions are written in one batch.
+     */
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean lightweight;
+
+    /**
+     * Optional resource units the job occupies while running, e.g. its CPU or memory class,
+     * counted against the node budget of the {@code ResourceBudget}. Default is 1.
+     */
+    private Integer weight;
+
     private String errorMailAddress;
 
     @ManyToOne
@@ -157,6 +223,62 @@ public class JobDefinition {
         this.runQueue = runQueue;
     }
 
+    public String getJobGroup() {
+        return jobGroup;
+    }
+
+    public void setJobGroup(String jobGroup) {
+        this.jobGroup = jobGroup;
+    }
+
+    public String getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(String executor) {
+        this.executor = executor;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public void setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy;
+    }
+
+    public Integer getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(Integer jitter) {
+        this.jitter = jitter;
+    }
+
+    public boolean isLightweight() {
+        return lightweight;
+    }
+
+    public void setLightweight(boolean lightweight) {
+        this.lightweight = lightweight;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     public String getErrorMailAddress() {
         return errorMailAddress;
     }
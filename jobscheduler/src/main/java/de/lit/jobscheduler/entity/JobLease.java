@@ -0,0 +1,70 @@
+package de.lit.jobscheduler.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Lease of the leader election, owned by one node until it expires. See {@code LeaderElection}
+ */
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+
+	@Id
+	@Column(length = 50)
+	private String name;
+
+	private String owner;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime expires;
+
+	public JobLease() {
+	}
+
+	public JobLease(String name, String owner, LocalDateTime expires) {
+		this.name = name;
+		this.owner = owner;
+		this.expires = expires;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JobLease)) return false;
+		if (name == null) return false;
+		JobLease that = (JobLease) o;
+		return name.equals(that.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public LocalDateTime getExpires() {
+		return expires;
+	}
+
+	public void setExpires(LocalDateTime expires) {
+		this.expires = expires;
+	}
+}
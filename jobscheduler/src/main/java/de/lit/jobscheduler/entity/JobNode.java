@@ -0,0 +1,58 @@
+package de.lit.jobscheduler.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Cluster node of the partitioned mode, see {@code PartitionMembership}
+ */
+@Entity
+@Table(name = "job_node")
+public class JobNode {
+
+	@Id
+	private String name;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime heartbeat;
+
+	public JobNode() {
+	}
+
+	public JobNode(String name, LocalDateTime heartbeat) {
+		this.name = name;
+		this.heartbeat = heartbeat;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JobNode)) return false;
+		if (name == null) return false;
+		JobNode that = (JobNode) o;
+		return name.equals(that.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public LocalDateTime getHeartbeat() {
+		return heartbeat;
+	}
+
+	public void setHeartbeat(LocalDateTime heartbeat) {
+		this.heartbeat = heartbeat;
+	}
+}
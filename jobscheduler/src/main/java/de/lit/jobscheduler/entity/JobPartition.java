@@ -0,0 +1,143 @@
+package de.lit.jobscheduler.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One partition of a {@code PartitionedJob} execution, see {@code PartitionManager}
+ */
+@Entity
+@Table(name = "job_partition", indexes = {
+		@Index(name = "idx_job_partition_status", columnList = "status, id"),
+		@Index(name = "idx_job_partition_execution", columnList = "executionId")})
+public class JobPartition {
+
+	public enum Status {
+		PENDING, RUNNING, SUCCESS, ERROR
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	private Long executionId;
+
+	@Column(length = 50)
+	private String jobName;
+
+	@Column(length = 1000)
+	private String partitionKey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 20)
+	private Status status;
+
+	private String nodeName;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime startTime;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime endTime;
+
+	@Column(length = 4000)
+	private String message;
+
+	public JobPartition() {
+	}
+
+	public JobPartition(Long executionId, String jobName, String partitionKey) {
+		this.executionId = executionId;
+		this.jobName = jobName;
+		this.partitionKey = partitionKey;
+		this.status = Status.PENDING;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JobPartition)) return false;
+		if (id == null) return false;
+		JobPartition that = (JobPartition) o;
+		return id.equals(that.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getExecutionId() {
+		return executionId;
+	}
+
+	public void setExecutionId(Long executionId) {
+		this.executionId = executionId;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public String getPartitionKey() {
+		return partitionKey;
+	}
+
+	public void setPartitionKey(String partitionKey) {
+		this.partitionKey = partitionKey;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	public void setNodeName(String nodeName) {
+		this.nodeName = nodeName;
+	}
+
+	public LocalDateTime getStartTime() {
+		return startTime;
+	}
+
+	public void setStartTime(LocalDateTime startTime) {
+		this.startTime = startTime;
+	}
+
+	public LocalDateTime getEndTime() {
+		return endTime;
+	}
+
+	public void setEndTime(LocalDateTime endTime) {
+		this.endTime = endTime;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
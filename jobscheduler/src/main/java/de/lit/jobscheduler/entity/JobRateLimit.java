@@ -0,0 +1,138 @@
+package de.lit.jobscheduler.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Token bucket of the cluster-wide rate limit of a job or run queue, see {@code RateLimiter}.
+ * The bucket holds up to {@code capacity} tokens and gains one token every {@code refillInterval} seconds.
+ * Concurrent updates are detected by {@code version}.
+ */
+@Entity
+@Table(name = "job_rate_limit")
+public class JobRateLimit {
+
+	@Id
+	private String name;
+
+	private int capacity;
+
+	private int refillInterval;
+
+	private int tokens;
+
+	@Column(columnDefinition = "TIMESTAMP(6)")
+	private LocalDateTime lastRefill;
+
+	private long version;
+
+	public JobRateLimit() {
+	}
+
+	public JobRateLimit(String name, int capacity, int refillInterval) {
+		this.name = name;
+		this.capacity = capacity;
+		this.refillInterval = refillInterval;
+		this.tokens = capacity;
+	}
+
+	/**
+	 * Add the tokens gained since the last refill and take up to {@code max} tokens.
+	 * Partial intervals are kept by advancing {@code lastRefill} by whole intervals only.
+	 *
+	 * @return number of tokens taken
+	 */
+	public int take(int max, LocalDateTime now) {
+		if (lastRefill == null || tokens >= capacity) {
+			tokens = Math.min(tokens, capacity);
+			lastRefill = now;
+		} else if (refillInterval > 0) {
+			long gained = Duration.between(lastRefill, now).getSeconds() / refillInterval;
+			if (gained > 0) {
+				tokens = (int) Math.min(capacity, tokens + gained);
+				lastRefill = tokens >= capacity ? now : lastRefill.plusSeconds(gained * refillInterval);
+			}
+		}
+		int taken = Math.max(0, Math.min(max, tokens));
+		tokens -= taken;
+		return taken;
+	}
+
+	/**
+	 * @return time when the next token is available, {@code null} if the bucket is never refilled
+	 */
+	public LocalDateTime nextToken(LocalDateTime now) {
+		if (tokens > 0) {
+			return now;
+		}
+		if (refillInterval <= 0 || lastRefill == null) {
+			return null;
+		}
+		return lastRefill.plusSeconds(refillInterval);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JobRateLimit)) return false;
+		if (name == null) return false;
+		JobRateLimit that = (JobRateLimit) o;
+		return name.equals(that.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getRefillInterval() {
+		return refillInterval;
+	}
+
+	public void setRefillInterval(int refillInterval) {
+		this.refillInterval = refillInterval;
+	}
+
+	public int getTokens() {
+		return tokens;
+	}
+
+	public void setTokens(int tokens) {
+		this.tokens = tokens;
+	}
+
+	public LocalDateTime getLastRefill() {
+		return lastRefill;
+	}
+
+	public void setLastRefill(LocalDateTime lastRefill) {
+		this.lastRefill = lastRefill;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+}
@@ -0,0 +1,125 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Trigger for {@link JobScheduler#run()} that adapts the poll interval to the job table:
+ * <ul>
+ *     <li>backlog (the last run stopped because the job executor was full): {@code minInterval}.
+ *     {@code run()} checks {@code remainingCapacity()} before querying, so polling a full executor is cheap</li>
+ *     <li>a job became due since the last run: {@code minInterval}</li>
+ *     <li>due jobs that could not be started, e.g. because of a running job in the same run queue:
+ *     {@code interval}</li>
+ *     <li>otherwise the time until the earliest next run ({@code findNextRun()}),
+ *     or {@code maxInterval} if no job is scheduled</li>
+ * </ul>
+ * The delay is always bounded by {@code minInterval} and {@code maxInterval}. Jobs added or changed by other
+ * applications are therefore noticed within {@code maxInterval}.
+ */
+public class AdaptivePollTrigger implements Trigger {
+	private final Logger logger = LoggerFactory.getLogger(AdaptivePollTrigger.class);
+
+	private final JobScheduler jobScheduler;
+
+	private final JobDefinitionDao jobDao;
+
+	private long initialDelay = 10000;
+
+	private long interval = 20000;
+
+	private long minInterval = 1000;
+
+	private long maxInterval = 60000;
+
+	public AdaptivePollTrigger(JobScheduler jobScheduler, JobDefinitionDao jobDao) {
+		this.jobScheduler = jobScheduler;
+		this.jobDao = jobDao;
+	}
+
+	@Override
+	public Instant nextExecution(TriggerContext triggerContext) {
+		Instant lastCompletion = triggerContext.lastCompletion();
+		if (lastCompletion == null) {
+			return triggerContext.getClock().instant().plusMillis(initialDelay);
+		}
+		return lastCompletion.plusMillis(nextDelay());
+	}
+
+	/**
+	 * @return delay in milliseconds until the next poll
+	 */
+	protected long nextDelay() {
+		if (jobScheduler.hasBacklog()) {
+			return minInterval;
+		}
+		LocalDateTime nextRun;
+		try {
+			nextRun = jobDao.findNextRun();
+		} catch (Exception e) {
+			logger.warn("Cannot evaluate next run: {}", e.getMessage());
+			return bounded(interval);
+		}
+		if (nextRun == null) {
+			return maxInterval;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		if (!nextRun.isAfter(now)) {
+			LocalDateTime lastPoll = jobScheduler.getLastPoll();
+			return lastPoll == null || nextRun.isAfter(lastPoll) ? minInterval : bounded(interval);
+		}
+		return bounded(Duration.between(now, nextRun).toMillis());
+	}
+
+	private long bounded(long delay) {
+		return Math.max(minInterval, Math.min(maxInterval, delay));
+	}
+
+	public long getInitialDelay() {
+		return initialDelay;
+	}
+
+	public void setInitialDelay(long initialDelay) {
+		this.initialDelay = initialDelay;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @param interval delay in milliseconds while due jobs wait for other jobs. Default is 20000
+	 */
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	public long getMinInterval() {
+		return minInterval;
+	}
+
+	/**
+	 * @param minInterval min delay in milliseconds between two polls. Default is 1000
+	 */
+	public void setMinInterval(long minInterval) {
+		this.minInterval = minInterval;
+	}
+
+	public long getMaxInterval() {
+		return maxInterval;
+	}
+
+	/**
+	 * @param maxInterval max delay in milliseconds between two polls. Default is 60000
+	 */
+	public void setMaxInterval(long maxInterval) {
+		this.maxInterval = maxInterval;
+	}
+}
@@ -0,0 +1,63 @@
+package de.lit.jobscheduler.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Assigns keys to nodes by consistent hashing. Every node is placed on the ring with a number
+ * of virtual nodes, a key belongs to the next node clockwise from its hash. If a node joins or
+ * leaves only the keys of its ring segments move, all other keys keep their owner.
+ */
+public class ConsistentHashRing {
+
+	private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+	private final Set<String> nodes;
+
+	/**
+	 * @param nodes        node names
+	 * @param virtualNodes number of positions of every node on the ring
+	 */
+	public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+		if (virtualNodes < 1) {
+			throw new IllegalArgumentException("virtualNodes must be positive");
+		}
+		this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+		for (String node : this.nodes) {
+			for (int i = 0; i < virtualNodes; i++) {
+				ring.put(hash(node + "#" + i), node);
+			}
+		}
+	}
+
+	/**
+	 * @return owner node of the key, {@code null} if the ring is empty
+	 */
+	public String ownerOf(String key) {
+		if (ring.isEmpty()) {
+			return null;
+		}
+		Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+		return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+	}
+
+	public Set<String> getNodes() {
+		return nodes;
+	}
+
+	static long hash(String key) {
+		try {
+			// same positions on every node and JVM, unlike String.hashCode() it spreads similar keys
+			byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+			long hash = 0;
+			for (int i = 0; i < 8; i++) {
+				hash = (hash << 8) | (digest[i] & 0xff);
+			}
+			return hash;
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
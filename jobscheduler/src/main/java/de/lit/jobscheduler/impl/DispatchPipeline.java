@@ -0,0 +1,201 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Dispatches due jobs in parallel lanes. Every lane has two stages with a single thread and
+ * a bounded queue each: the prepare stage (create instance, readiness check) and the submit
+ * stage (locking transaction, submit to the job executor). A slow {@code JobSchedule} or a slow
+ * lock therefore only delays the jobs of its own lane.
+ * <p></p>
+ * Jobs are assigned to lanes by run queue (or by name if they have none), so all jobs of a
+ * run queue pass the same lane in order and run queues keep their serialization.
+ */
+public class DispatchPipeline {
+	private final Logger logger = LoggerFactory.getLogger(DispatchPipeline.class);
+
+	/**
+	 * Dispatch steps, implemented by {@link JobScheduler}
+	 */
+	interface Stages {
+		/**
+		 * @return instance ready to submit, {@code null} if the job is not ready or failed
+		 */
+		JobInstance prepare(JobDefinition job);
+
+		/**
+		 * @return {@code false} if the job executor has no capacity left
+		 */
+		boolean submit(JobInstance instance);
+
+		/**
+		 * Give up a prepared instance that is not submitted, because the job executor is full or
+		 * the pipeline was shut down.
+		 */
+		void skip(JobInstance instance);
+	}
+
+	private final ThreadPoolExecutor[] prepareStages;
+	private final ThreadPoolExecutor[] submitStages;
+
+	/**
+	 * @param lanes         number of parallel lanes
+	 * @param queueCapacity max number of jobs waiting in each stage, callers block when it is full
+	 */
+	public DispatchPipeline(int lanes, int queueCapacity) {
+		if (lanes < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("lanes and queueCapacity must be positive");
+		}
+		prepareStages = new ThreadPoolExecutor[lanes];
+		submitStages = new ThreadPoolExecutor[lanes];
+		for (int i = 0; i < lanes; i++) {
+			prepareStages[i] = createStage("jobDispatch-" + i + "-prepare", queueCapacity);
+			submitStages[i] = createStage("jobDispatch-" + i + "-submit", queueCapacity);
+		}
+	}
+
+	private ThreadPoolExecutor createStage(String threadName, int queueCapacity) {
+		return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity),
+				r -> {
+					Thread t = new Thread(r, threadName);
+					t.setDaemon(true);
+					return t;
+				},
+				(r, executor) -> {
+					// back pressure: wait for free space instead of rejecting
+					if (executor.isShutdown()) {
+						throw new RejectedExecutionException(threadName + " is shut down");
+					}
+					try {
+						executor.getQueue().put(r);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException(e);
+					}
+					// shut down while waiting, the task would never run
+					if (executor.isShutdown() && executor.getQueue().remove(r)) {
+						throw new RejectedExecutionException(threadName + " is shut down");
+					}
+				});
+	}
+
+	/**
+	 * Run all jobs through the pipeline and wait until every job has passed all stages.
+	 * Once the job executor is full the remaining jobs are skipped.
+	 */
+	public void dispatch(Collection<JobDefinition> dueJobs, Stages stages) {
+		CountDownLatch done = new CountDownLatch(dueJobs.size());
+		AtomicBoolean full = new AtomicBoolean(false);
+		AtomicInteger skipped = new AtomicInteger();
+		for (JobDefinition job : dueJobs) {
+			int lane = laneOf(job);
+			try {
+				prepareStages[lane].execute(new StageTask(() -> {
+					boolean handedOver = false;
+					try {
+						if (full.get()) {
+							skipped.incrementAndGet();
+							return;
+						}
+						JobInstance instance = stages.prepare(job);
+						if (instance != null) {
+							try {
+								submitStages[lane].execute(new StageTask(() -> {
+									try {
+										if (full.get()) {
+											skipped.incrementAndGet();
+											stages.skip(instance);
+										} else if (!stages.submit(instance)) {
+											full.set(true);
+										}
+									} finally {
+										done.countDown();
+									}
+								}, () -> {
+									stages.skip(instance);
+									done.countDown();
+								}));
+								handedOver = true;
+							} catch (RejectedExecutionException e) {
+								logger.warn("Dispatch of job {} rejected: {}", job.getName(), e.getMessage());
+								stages.skip(instance);
+							}
+						}
+					} finally {
+						if (!handedOver) done.countDown();
+					}
+				}, done::countDown));
+			} catch (RejectedExecutionException e) {
+				logger.warn("Dispatch of job {} rejected: {}", job.getName(), e.getMessage());
+				done.countDown();
+			}
+		}
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (skipped.get() > 0) {
+			logger.warn("jobExecutor has no capacity left. {} jobs wait for next schedule cycle", skipped.get());
+		}
+	}
+
+	protected int laneOf(JobDefinition job) {
+		String key = isNotBlank(job.getRunQueue()) ? job.getRunQueue() : job.getName();
+		return Math.floorMod(Objects.hashCode(key), prepareStages.length);
+	}
+
+	public int getLanes() {
+		return prepareStages.length;
+	}
+
+	/**
+	 * Stop all stages. Jobs that are still waiting in a stage are skipped, so a running
+	 * {@link #dispatch} returns.
+	 */
+	public void shutdown() {
+		for (ThreadPoolExecutor stage : prepareStages) {
+			discard(stage.shutdownNow());
+		}
+		for (ThreadPoolExecutor stage : submitStages) {
+			discard(stage.shutdownNow());
+		}
+	}
+
+	private static void discard(List<Runnable> tasks) {
+		for (Runnable task : tasks) {
+			if (task instanceof StageTask) {
+				((StageTask) task).discard.run();
+			}
+		}
+	}
+
+	/**
+	 * Task of a stage with the action that releases its job if the stage drops it unexecuted.
+	 */
+	private static class StageTask implements Runnable {
+		private final Runnable task;
+		private final Runnable discard;
+
+		StageTask(Runnable task, Runnable discard) {
+			this.task = task;
+			this.discard = discard;
+		}
+
+		@Override
+		public void run() {
+			task.run();
+		}
+	}
+}
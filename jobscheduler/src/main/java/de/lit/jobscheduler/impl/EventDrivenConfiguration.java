@@ -0,0 +1,59 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the event driven scheduler mode with {@code application.jobscheduler.mode=event}.
+ * The fixed interval polling of {@link JobScheduler#run()} is then replaced by the
+ * {@link EventDrivenDispatcher}.
+ *
+ * @see PriorityNextRunIndex
+ * @see TimingWheelNextRunIndex
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.jobscheduler.mode", havingValue = "event")
+public class EventDrivenConfiguration {
+
+	@Value("${application.jobscheduler.initialDelay:10000}")
+	private long initialDelay = 10000;
+
+	@Value("${application.jobscheduler.runinterval:20000}")
+	private long recheckDelay = 20000;
+
+	@Value("${application.jobscheduler.event.resyncinterval:300000}")
+	private long resyncInterval = 300000;
+
+	@Value("${application.jobscheduler.event.timer:queue}")
+	private String timer = "queue";
+
+	@Value("${application.jobscheduler.event.tick:100}")
+	private long tick = 100;
+
+	@Value("${application.jobscheduler.event.wheelsize:512}")
+	private int wheelSize = 512;
+
+	/**
+	 * Next run index implementation selected by {@code application.jobscheduler.event.timer}:
+	 * {@code queue} (default) for a sorted index, {@code wheel} for a hierarchical timing wheel.
+	 */
+	@Bean
+	public NextRunIndex nextRunIndex() {
+		if ("wheel".equalsIgnoreCase(timer)) {
+			return new TimingWheelNextRunIndex(tick, wheelSize);
+		}
+		return new PriorityNextRunIndex();
+	}
+
+	@Bean
+	public EventDrivenDispatcher eventDrivenDispatcher(NextRunIndex nextRunIndex, JobScheduler jobScheduler, JobDefinitionDao jobDao) {
+		EventDrivenDispatcher dispatcher = new EventDrivenDispatcher(nextRunIndex, jobScheduler, jobDao);
+		dispatcher.setInitialDelay(initialDelay);
+		dispatcher.setRecheckDelay(recheckDelay);
+		dispatcher.setResyncInterval(resyncInterval);
+		return dispatcher;
+	}
+}
@@ -0,0 +1,159 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher thread for the event driven scheduler mode. Instead of polling the job
+ * table every {@code runinterval} it sleeps until the earliest next run time of the
+ * {@link NextRunIndex} and queries the database only when a job is actually due.
+ * <p></p>
+ * The index is reloaded completely every {@code resyncInterval} to pick up jobs that
+ * were changed directly in the database or by other cluster nodes. Jobs that were due
+ * but could not be started (running on another node, run queue busy, no capacity left)
+ * are checked again after {@code recheckDelay}.
+ */
+public class EventDrivenDispatcher implements SmartLifecycle, Runnable {
+	private final Logger logger = LoggerFactory.getLogger(EventDrivenDispatcher.class);
+
+	private final NextRunIndex index;
+	private final JobScheduler jobScheduler;
+	private final JobDefinitionDao jobDao;
+
+	private long initialDelay = 10000;
+	private long resyncInterval = 300000;
+	private long recheckDelay = 20000;
+
+	private volatile boolean running = false;
+	private Thread thread;
+
+	public EventDrivenDispatcher(NextRunIndex index, JobScheduler jobScheduler, JobDefinitionDao jobDao) {
+		this.index = index;
+		this.jobScheduler = jobScheduler;
+		this.jobDao = jobDao;
+	}
+
+	@Override
+	public synchronized void start() {
+		running = true;
+		thread = new Thread(this, "jobDispatcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public synchronized void stop() {
+		running = false;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join(10000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			thread = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public void run() {
+		try {
+			Thread.sleep(initialDelay);
+			logger.info("Event driven job dispatcher started");
+			long nextResync = 0;
+			while (running) {
+				if (System.currentTimeMillis() >= nextResync) {
+					resync();
+					nextResync = System.currentTimeMillis() + resyncInterval;
+				}
+				long wait = Math.max(0, nextResync - System.currentTimeMillis());
+				List<String> due = index.awaitDue(wait, TimeUnit.MILLISECONDS);
+				if (!due.isEmpty()) {
+					dispatch(due);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		logger.info("Event driven job dispatcher stopped");
+	}
+
+	/**
+	 * Reload the whole index from the job table.
+	 */
+	public void resync() {
+		try {
+			index.reload(jobDao.findAllScheduled());
+			logger.debug("Next run index reloaded with {} jobs, next run at {}", index.size(), index.peekNextRun());
+		} catch (Exception e) {
+			logger.error("Cannot reload next run index", e);
+		}
+	}
+
+	/**
+	 * Start the due jobs of the index, at most as many as the job executor can run. Only these
+	 * jobs are read, with one query, and only the ones that are still due are dispatched; the
+	 * index is just a hint when to look. Jobs without run queue are claimed together with one
+	 * {@code claimDueJobs()} call. Jobs that were not started are checked again after
+	 * {@code recheckDelay}, started jobs update the index when they finish.
+	 *
+	 * @param dueNames names of jobs that are due according to the index
+	 */
+	protected void dispatch(List<String> dueNames) {
+		try {
+			List<String> names = dueNames.subList(0, Math.min(jobScheduler.dueLimit(), dueNames.size()));
+			if (!names.isEmpty()) {
+				jobScheduler.dispatch(jobDao.findDueByNames(names, LocalDateTime.now()));
+			}
+		} catch (Exception e) {
+			logger.error("Cannot dispatch due jobs", e);
+		}
+		LocalDateTime recheck = LocalDateTime.now().plus(recheckDelay, ChronoUnit.MILLIS);
+		dueNames.forEach(name -> index.updateIfAbsent(name, recheck));
+	}
+
+	public long getInitialDelay() {
+		return initialDelay;
+	}
+
+	/**
+	 * @param initialDelay Delay in milliseconds until the dispatcher starts. Default is 10000.
+	 */
+	public void setInitialDelay(long initialDelay) {
+		this.initialDelay = initialDelay;
+	}
+
+	public long getResyncInterval() {
+		return resyncInterval;
+	}
+
+	/**
+	 * @param resyncInterval Interval in milliseconds for reloading the complete index. Default is 300000.
+	 */
+	public void setResyncInterval(long resyncInterval) {
+		this.resyncInterval = resyncInterval;
+	}
+
+	public long getRecheckDelay() {
+		return recheckDelay;
+	}
+
+	/**
+	 * @param recheckDelay Delay in milliseconds for checking due jobs again that could not be started. Default is 20000.
+	 */
+	public void setRecheckDelay(long recheckDelay) {
+		this.recheckDelay = recheckDelay;
+	}
+}
@@ -0,0 +1,27 @@
+package de.lit.jobscheduler.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables fair share dispatching between job groups with {@code application.jobscheduler.fairshare.enable=true}.
+ *
+ * @see FairSharePolicy
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.jobscheduler.fairshare.enable", havingValue = "true")
+public class FairShareConfiguration {
+
+	@Value("${application.jobscheduler.fairshare.weights:}")
+	private String weights = "";
+
+	@Value("${application.jobscheduler.fairshare.minslots:}")
+	private String minSlots = "";
+
+	@Bean
+	public FairSharePolicy fairSharePolicy() {
+		return new FairSharePolicy(FairSharePolicy.parse(weights), FairSharePolicy.parse(minSlots));
+	}
+}
@@ -0,0 +1,130 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.trim;
+
+/**
+ * Weighted fair share of the job executor capacity between job groups. The group of a job
+ * is its {@code jobGroup}, or its {@code runQueue} if no group is set. Jobs without both
+ * belong to the default group {@code ""}.
+ * <p></p>
+ * Every group that has running or due jobs gets a share of all slots proportional to its
+ * weight (default weight 1), but at least its configured minimum. Due jobs that fill the
+ * minimum slots of their group are dispatched first, then the other due jobs within the share
+ * of their group. Idle capacity can then be borrowed by the remaining
+ * due jobs, except for the minimum slots of groups that are not using them.
+ */
+public class FairSharePolicy {
+
+	private final Map<String, Integer> weights;
+
+	private final Map<String, Integer> minSlots;
+
+	public FairSharePolicy(Map<String, Integer> weights, Map<String, Integer> minSlots) {
+		this.weights = new HashMap<>(weights);
+		this.minSlots = new HashMap<>(minSlots);
+	}
+
+	/**
+	 * Parse {@code "group1:3, group2:1"}
+	 */
+	public static Map<String, Integer> parse(String value) {
+		Map<String, Integer> map = new HashMap<>();
+		for (String entry : split(value, ',')) {
+			String[] pair = split(entry, ':');
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("Expected group:number but found '" + entry + "'");
+			}
+			map.put(trim(pair[0]), Integer.parseInt(trim(pair[1])));
+		}
+		return map;
+	}
+
+	public static String groupOf(JobDefinition job) {
+		if (isNotBlank(job.getJobGroup())) return job.getJobGroup();
+		if (isNotBlank(job.getRunQueue())) return job.getRunQueue();
+		return "";
+	}
+
+	/**
+	 * Select and order the due jobs for dispatch: jobs on the minimum slots of their group first,
+	 * then jobs within the share of their group, then jobs that borrow idle capacity. Jobs that exceed the share of their group and cannot
+	 * borrow are left for the next cycle.
+	 *
+	 * @param dueJobs    due jobs in dispatch order
+	 * @param running    number of running jobs by group
+	 * @param totalSlots capacity of the job executor, running jobs included
+	 * @param freeSlots  remaining capacity of the job executor
+	 * @return jobs to dispatch
+	 */
+	public List<JobDefinition> select(Collection<JobDefinition> dueJobs, Map<String, Integer> running,
+									  int totalSlots, int freeSlots) {
+		Set<String> active = new HashSet<>();
+		running.forEach((group, count) -> {
+			if (count > 0) active.add(group);
+		});
+		dueJobs.forEach(job -> active.add(groupOf(job)));
+		int totalWeight = active.stream().mapToInt(this::weightOf).sum();
+		// minimum slots of idle groups are not shared
+		int idleMinSlots = minSlots.entrySet().stream()
+				.filter(min -> !active.contains(min.getKey()))
+				.mapToInt(Map.Entry::getValue)
+				.sum();
+		int sharedSlots = Math.max(0, totalSlots - idleMinSlots);
+
+		Map<String, Integer> used = new HashMap<>(running);
+		List<JobDefinition> guaranteed = new ArrayList<>();
+		List<JobDefinition> withinShare = new ArrayList<>();
+		List<JobDefinition> exceeding = new ArrayList<>();
+		for (JobDefinition job : dueJobs) {
+			String group = groupOf(job);
+			int count = used.getOrDefault(group, 0);
+			int share = Math.max(minSlotsOf(group), (int) Math.ceil((double) sharedSlots * weightOf(group) / totalWeight));
+			if (count < minSlotsOf(group)) {
+				used.merge(group, 1, Integer::sum);
+				guaranteed.add(job);
+			} else if (count < share) {
+				used.merge(group, 1, Integer::sum);
+				withinShare.add(job);
+			} else {
+				exceeding.add(job);
+			}
+		}
+
+		// the minimum slots not taken by running jobs are kept free for their groups
+		int reserved = 0;
+		for (Map.Entry<String, Integer> min : minSlots.entrySet()) {
+			reserved += Math.max(0, min.getValue() - running.getOrDefault(min.getKey(), 0));
+		}
+		List<JobDefinition> selected = new ArrayList<>(guaranteed.subList(0, Math.min(freeSlots, guaranteed.size())));
+		int limit = selected.size() + Math.max(0, freeSlots - reserved);
+		for (int i = 0; i < withinShare.size() && selected.size() < limit; i++) {
+			selected.add(withinShare.get(i));
+		}
+		for (int i = 0; i < exceeding.size() && selected.size() < limit; i++) {
+			selected.add(exceeding.get(i));
+		}
+		return selected;
+	}
+
+	private int weightOf(String group) {
+		return Math.max(1, weights.getOrDefault(group, 1));
+	}
+
+	private int minSlotsOf(String group) {
+		return minSlots.getOrDefault(group, 0);
+	}
+
+	public Map<String, Integer> getWeights() {
+		return Collections.unmodifiableMap(weights);
+	}
+
+	public Map<String, Integer> getMinSlots() {
+		return Collections.unmodifiableMap(minSlots);
+	}
+}
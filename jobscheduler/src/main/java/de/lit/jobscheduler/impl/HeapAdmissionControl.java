@@ -0,0 +1,143 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heap-aware admission control, enabled with {@code application.jobexecutor.heap.admission=true}.
+ * The job executor defers new jobs while the old generation of the heap is filled above
+ * {@code heap.threshold}, so several memory-heavy jobs do not start on one node at the same time.
+ * Deferred jobs are neither locked nor claimed, other nodes pick them up or they run in a later cycle.
+ * <p></p>
+ * The usage after the last collection of the old generation is used where the garbage collector
+ * reports it, otherwise its current usage. With {@code heap.estimate=true} the growth of the old
+ * generation during previous runs of a job is added as its expected demand. The estimate is rough,
+ * concurrently running jobs and collections during the run blur it.
+ */
+@Component
+@ConditionalOnProperty(name = "application.jobexecutor.heap.admission", havingValue = "true")
+public class HeapAdmissionControl {
+	private final Logger logger = LoggerFactory.getLogger(HeapAdmissionControl.class);
+
+	@Value("${application.jobexecutor.heap.threshold:0.85}")
+	private double threshold = 0.85;
+
+	@Value("${application.jobexecutor.heap.estimate:false}")
+	private boolean learnEstimates = false;
+
+	private final MemoryPoolMXBean tenuredPool = findTenuredPool();
+
+	// learned demand in bytes by job name
+	private final Map<String, Long> estimates = new ConcurrentHashMap<>();
+
+	// old generation usage at the start of running jobs
+	private final Map<JobInstance, Long> startUsage = new ConcurrentHashMap<>();
+
+	/**
+	 * @return false if the node is under memory pressure and the job should be deferred
+	 */
+	public boolean admit(JobDefinition job) {
+		MemoryUsage usage = currentUsage();
+		long max = usage.getMax() > 0 ? usage.getMax() : usage.getCommitted();
+		long expected = usage.getUsed() + estimateOf(job.getName());
+		if (expected <= threshold * max) {
+			return true;
+		}
+		logger.debug("Memory pressure: {} MB used of {} MB, Job {} expects {} MB", usage.getUsed() >> 20, max >> 20,
+				job.getName(), estimateOf(job.getName()) >> 20);
+		return false;
+	}
+
+	public void jobStarted(JobInstance instance) {
+		if (learnEstimates) {
+			startUsage.put(instance, tenuredUsed());
+		}
+	}
+
+	public void jobFinished(JobInstance instance) {
+		Long start = startUsage.remove(instance);
+		if (start != null) {
+			learn(instance.getJob().getName(), tenuredUsed() - start);
+		}
+	}
+
+	/**
+	 * Moving average over the previous runs, a collection during the run counts as no growth.
+	 */
+	void learn(String name, long growth) {
+		long sample = Math.max(0, growth);
+		estimates.merge(name, sample, (previous, current) -> (previous + current) / 2);
+	}
+
+	/**
+	 * @return learned demand of the job in bytes, 0 if unknown
+	 */
+	public long estimateOf(String name) {
+		return estimates.getOrDefault(name, 0L);
+	}
+
+	/**
+	 * Usage of the old generation after its last collection, or its current usage if the collector
+	 * does not report it (e.g. G1 on Java 17). Usage of the whole heap if there is no such pool.
+	 */
+	MemoryUsage currentUsage() {
+		if (tenuredPool != null) {
+			MemoryUsage afterCollection = tenuredPool.getCollectionUsage();
+			if (afterCollection != null && afterCollection.getUsed() > 0) {
+				return afterCollection;
+			}
+			return tenuredPool.getUsage();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+	}
+
+	private long tenuredUsed() {
+		return tenuredPool != null ? tenuredPool.getUsage().getUsed()
+				: ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * The old generation is the only heap pool that supports a usage threshold.
+	 */
+	private static MemoryPoolMXBean findTenuredPool() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()) {
+				return pool;
+			}
+		}
+		return null;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param threshold max used fraction of the old generation for admitting new jobs. Default is 0.85
+	 */
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+
+	public boolean isLearnEstimates() {
+		return learnEstimates;
+	}
+
+	/**
+	 * @param learnEstimates add the growth of the old generation during previous runs to the expected usage. Default is false
+	 */
+	public void setLearnEstimates(boolean learnEstimates) {
+		this.learnEstimates = learnEstimates;
+	}
+}
@@ -0,0 +1,62 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.JobSchedulerMetrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link LatencyHistogram} per latency for all jobs and per job in memory, e.g. for a
+ * status page or for tests. Enable with {@code application.jobscheduler.metrics.type=memory}.
+ */
+public class InMemoryJobSchedulerMetrics implements JobSchedulerMetrics {
+
+	private final Map<Latency, LatencyHistogram> global = new EnumMap<>(Latency.class);
+
+	private final Map<String, Map<Latency, LatencyHistogram>> byJob = new ConcurrentHashMap<>();
+
+	public InMemoryJobSchedulerMetrics() {
+		for (Latency latency : Latency.values()) {
+			global.put(latency, new LatencyHistogram());
+		}
+	}
+
+	@Override
+	public void record(Latency latency, String jobName, long millis) {
+		global.get(latency).record(millis);
+		byJob.computeIfAbsent(jobName, k -> {
+			Map<Latency, LatencyHistogram> histograms = new EnumMap<>(Latency.class);
+			for (Latency l : Latency.values()) {
+				histograms.put(l, new LatencyHistogram());
+			}
+			return histograms;
+		}).get(latency).record(millis);
+	}
+
+	/**
+	 * @return histogram of all jobs
+	 */
+	public LatencyHistogram getHistogram(Latency latency) {
+		return global.get(latency);
+	}
+
+	/**
+	 * @return histogram of the job, {@code null} if nothing was recorded for it
+	 */
+	public LatencyHistogram getHistogram(Latency latency, String jobName) {
+		Map<Latency, LatencyHistogram> histograms = byJob.get(jobName);
+		return histograms != null ? histograms.get(latency) : null;
+	}
+
+	public Set<String> getJobNames() {
+		return Collections.unmodifiableSet(byJob.keySet());
+	}
+
+	public void reset() {
+		global.values().forEach(LatencyHistogram::reset);
+		byJob.clear();
+	}
+}
@@ -0,0 +1,105 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.Job;
+import de.lit.jobscheduler.JobSchedule;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Cache for the job implementation and schedule beans resolved by {@link JobScheduler#createJobInstance}.
+ * Singleton beans are cached by bean name, so the bean factory is only asked once per name.
+ * <p></p>
+ * Prototype job implementations can optionally be pooled: instances are released after
+ * execution and reused for the next run of a job with the same implementation. Only enable this
+ * if the prototype beans do not keep state between runs.
+ */
+public class JobBeanCache {
+
+	private final BeanFactory beanFactory;
+
+	private final Map<String, JobSchedule> schedules = new ConcurrentHashMap<>();
+
+	private final Map<String, Job> implementations = new ConcurrentHashMap<>();
+
+	private final Map<String, BlockingDeque<Job>> prototypePools = new ConcurrentHashMap<>();
+
+	private int prototypePoolSize = 0;
+
+	public JobBeanCache(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * {@code beanFactory.getBean(name, JobSchedule.class)}, cached for singleton beans
+	 */
+	public JobSchedule getSchedule(String name) throws BeansException {
+		JobSchedule schedule = schedules.get(name);
+		if (schedule == null) {
+			schedule = beanFactory.getBean(name, JobSchedule.class);
+			if (beanFactory.isSingleton(name)) {
+				schedules.put(name, schedule);
+			}
+		}
+		return schedule;
+	}
+
+	/**
+	 * {@code beanFactory.getBean(name, Job.class)}, cached for singleton beans. Prototype beans
+	 * are taken from the pool if pooling is enabled and an idle instance is available.
+	 */
+	public Job acquireImplementation(String name) throws BeansException {
+		Job implementation = implementations.get(name);
+		if (implementation != null) {
+			return implementation;
+		}
+		BlockingDeque<Job> pool = prototypePools.get(name);
+		if (pool != null && (implementation = pool.pollFirst()) != null) {
+			return implementation;
+		}
+		implementation = beanFactory.getBean(name, Job.class);
+		if (beanFactory.isSingleton(name)) {
+			implementations.put(name, implementation);
+		} else if (prototypePoolSize > 0 && pool == null && beanFactory.isPrototype(name)) {
+			prototypePools.computeIfAbsent(name, k -> new LinkedBlockingDeque<>(prototypePoolSize));
+		}
+		return implementation;
+	}
+
+	/**
+	 * Return a prototype instance to the pool after execution. Does nothing for singleton beans,
+	 * if pooling is disabled or the pool is full.
+	 */
+	public void releaseImplementation(String name, Job implementation) {
+		BlockingDeque<Job> pool = prototypePools.get(name);
+		if (pool != null) {
+			pool.offerFirst(implementation);
+		}
+	}
+
+	/**
+	 * Remove all cached beans, e.g. after a context refresh.
+	 */
+	public void clear() {
+		schedules.clear();
+		implementations.clear();
+		prototypePools.clear();
+	}
+
+	public int getPrototypePoolSize() {
+		return prototypePoolSize;
+	}
+
+	/**
+	 * @param prototypePoolSize max number of idle instances kept per prototype job implementation.
+	 *                          Default is 0 (no pooling)
+	 */
+	public void setPrototypePoolSize(int prototypePoolSize) {
+		this.prototypePoolSize = prototypePoolSize;
+		prototypePools.clear();
+	}
+}
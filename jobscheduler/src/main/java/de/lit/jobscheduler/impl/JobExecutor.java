@@ -4,6 +4,7 @@
 package de.lit.jobscheduler.impl;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 
 import de.lit.jobscheduler.entity.JobDefinition;
@@ -23,7 +24,30 @@ public interface JobExecutor {
 	void submitJob(JobInstance instance) throws RejectedExecutionException;
 
 	/**
-	 * Provides a list with all currently running job instances.
+	 * Execute a job that has already been claimed (marked as running) with
+	 * {@code JobDefinitionDao.claimDueJobs()}. No further locking is done. If
+	 * the job is rejected then its running flag is reset.
+	 *
+	 * @param instance Job to run
+	 * @throws RejectedExecutionException
+	 *             thrown if all workers are occupied and queue is full
+	 */
+	void submitClaimedJob(JobInstance instance) throws RejectedExecutionException;
+
+	/**
+	 * Execute several claimed lightweight jobs back to back in one worker thread. Their
+	 * {@code JobExecution}s are created and updated together in one batch. If the batch is
+	 * rejected then the running flags of all its jobs are reset.
+	 *
+	 * @param instances Jobs to run, all for the same executor pool
+	 * @throws RejectedExecutionException
+	 *             thrown if all workers are occupied and queue is full
+	 */
+	void submitClaimedBatch(List<JobInstance> instances) throws RejectedExecutionException;
+
+	/**
+	 * Provides a list with all currently running job instances. The collection may be a live
+	 * view that can be iterated while jobs start and finish, but it is read only.
 	 * 
 	 * @return Collection of JobInstance
 	 */
@@ -84,6 +108,49 @@ public interface JobExecutor {
 	 */
 	int remainingCapacity();
 
+	/**
+	 * Number of jobs that can still be accepted by the executor pool of the given name,
+	 * see {@code JobDefinition.executor}. Without named pools the same as {@link #remainingCapacity()}.
+	 *
+	 * @param executor name of the executor pool, {@code null} for the default pool
+	 * @return integer
+	 */
+	default int remainingCapacity(String executor) {
+		return remainingCapacity();
+	}
+
+	/**
+	 * Check if the weight of the job fits into the remaining resource budget of the node and
+	 * the node is not under memory pressure. Without budget and admission control every job fits,
+	 * only the capacity limits the number of jobs.
+	 *
+	 * @param job JobDefinition
+	 * @return false if the job would be rejected or deferred
+	 * @see ResourceBudget
+	 * @see HeapAdmissionControl
+	 */
+	default boolean fits(JobDefinition job) {
+		return true;
+	}
+
+	/**
+	 * Number of worker threads of all pools that are idle right now and not needed
+	 * for queued jobs.
+	 *
+	 * @return integer
+	 */
+	int idleThreads();
+
+	/**
+	 * Run a task that is not a job, like a partition of a {@code PartitionedJob}, in a worker
+	 * thread of the pool with the most idle threads. No {@code JobExecution} is created.
+	 *
+	 * @param task task to run
+	 * @throws RejectedExecutionException
+	 *             thrown if all workers are occupied and queue is full
+	 */
+	void execute(Runnable task) throws RejectedExecutionException;
+
 	/**
 	 * Try to abort/interrupt all running instances for a job. Sets job
 	 * execution status to {@code ABORTED}. Does nothing if there are no running
@@ -5,13 +5,20 @@ package de.lit.jobscheduler.impl;
 
 import de.lit.jobscheduler.JobLifecycleCallback;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.*;
 
+import static org.apache.commons.lang3.StringUtils.split;
+
 @Configuration
 public class JobExecutorFactoryBean extends ExecutorConfigurationSupport {
 
@@ -25,40 +32,131 @@ public class JobExecutorFactoryBean extends ExecutorConfigurationSupport {
 
 	private boolean allowCoreThreadTimeOut = false;
 
+	@Value("${application.jobexecutor.queuecapacity:0}")
 	private int queueCapacity = 0;
 
+	@Value("${application.jobexecutor.virtualthreads:false}")
+	private boolean virtualThreads = false;
+
+	@Value("${application.jobexecutor.concurrency:100}")
+	private int concurrency = 100;
+
+	/**
+	 * Names of additional executor pools, configured by {@code application.jobexecutor.pool.<name>.*}
+	 */
+	@Value("${application.jobexecutor.pools:}")
+	private String poolNames = "";
+
+	/**
+	 * Resource units of this node shared by all pools, 0 if every job only costs a thread
+	 */
+	@Value("${application.jobexecutor.budget:0}")
+	private int budget = 0;
+
+	@Autowired(required = false)
+	private AutowireCapableBeanFactory beanFactory;
+
+	@Autowired(required = false)
+	private Environment environment;
+
 	private JobExecutorImpl instance = null;
 
+	private final Map<String, JobExecutorImpl> pools = new LinkedHashMap<>();
+
 	private JobLifecycleCallback lifecycleCallback;
 
 	@Override
 	protected synchronized ExecutorService initializeExecutor(ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
-		BlockingQueue<Runnable> queue = createQueue(this.queueCapacity);
-		instance = new JobExecutorImpl(corePoolSize, maxPoolSize,
-				keepAliveSeconds, TimeUnit.SECONDS, queue, threadFactory, rejectedExecutionHandler);
+		instance = createExecutor(getThreadNamePrefix(), corePoolSize, maxPoolSize, queueCapacity,
+				virtualThreads, concurrency, threadFactory, rejectedExecutionHandler);
+		pools.clear();
+		for (String name : split(poolNames, ", ")) {
+			String prefix = "application.jobexecutor.pool." + name + ".";
+			String threadNamePrefix = "jobExecutor-" + name + "-";
+			pools.put(name, createExecutor(threadNamePrefix,
+					poolProperty(prefix + "corepoolsize", Integer.class, 1),
+					poolProperty(prefix + "maxpoolsize", Integer.class, 4),
+					poolProperty(prefix + "queuecapacity", Integer.class, 0),
+					poolProperty(prefix + "virtualthreads", Boolean.class, false),
+					poolProperty(prefix + "concurrency", Integer.class, 100),
+					new CustomizableThreadFactory(threadNamePrefix), rejectedExecutionHandler));
+		}
+		if (budget > 0) {
+			ResourceBudget resourceBudget = new ResourceBudget(budget);
+			instance.setResourceBudget(resourceBudget);
+			pools.values().forEach(pool -> pool.setResourceBudget(resourceBudget));
+		}
+		return instance;
+	}
+
+	private JobExecutorImpl createExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize, int queueCapacity,
+										   boolean virtualThreads, int concurrency,
+										   ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+		JobExecutorImpl executor;
+		BlockingQueue<Runnable> queue = createQueue(queueCapacity);
+		ThreadFactory virtualThreadFactory = virtualThreads ? createVirtualThreadFactory(threadNamePrefix) : null;
+		if (virtualThreadFactory != null) {
+			// every job gets its own virtual thread, the pool size only limits the concurrency. The core
+			// size has to be the concurrency too, otherwise a queue is only used by a single thread
+			executor = new JobExecutorImpl(concurrency, concurrency,
+					Math.max(1, keepAliveSeconds), TimeUnit.SECONDS, queue, virtualThreadFactory, rejectedExecutionHandler);
+			executor.allowCoreThreadTimeOut(true);
+		} else {
+			executor = new JobExecutorImpl(corePoolSize, maxPoolSize,
+					keepAliveSeconds, TimeUnit.SECONDS, queue, threadFactory, rejectedExecutionHandler);
+		}
 		if (this.allowCoreThreadTimeOut) {
-			instance.allowCoreThreadTimeOut(true);
+			executor.allowCoreThreadTimeOut(true);
 		}
 		if (lifecycleCallback != null) {
-			instance.setLifecycleCallback(lifecycleCallback);
+			executor.setLifecycleCallback(lifecycleCallback);
 		}
-		return instance;
+		return executor;
+	}
+
+	private <T> T poolProperty(String key, Class<T> type, T defaultValue) {
+		return environment != null ? environment.getProperty(key, type, defaultValue) : defaultValue;
 	}
 
 	private BlockingQueue<Runnable> createQueue(int queueCapacity) {
 		if (queueCapacity > 0) {
-			return new LinkedBlockingQueue<>(queueCapacity);
+			return new PriorityJobQueue(queueCapacity);
 		} else {
 			return new SynchronousQueue<>();
 		}
 	}
 
+	/**
+	 * {@code Thread.ofVirtual().name(prefix, 0).factory()}, called by reflection to run on Java 17.
+	 *
+	 * @return {@code null} if the JVM does not support virtual threads
+	 */
+	ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("Virtual threads are not supported by this JVM, using platform threads: " + e);
+			return null;
+		}
+	}
+
 	@Bean
 	public JobExecutor jobExecutor() {
 		if (getThreadNamePrefix().startsWith(JobExecutorFactoryBean.class.getName())) {
 			setThreadNamePrefix("jobExecutor-");
 		}
-		return instance;
+		if (pools.isEmpty()) {
+			return instance;
+		}
+		// the pools are no beans, the routing executor is
+		if (beanFactory != null) {
+			beanFactory.autowireBean(instance);
+			pools.values().forEach(beanFactory::autowireBean);
+		}
+		return new RoutingJobExecutor(instance, pools);
 	}
 
 	@Override
@@ -108,15 +206,60 @@ public class JobExecutorFactoryBean extends ExecutorConfigurationSupport {
 	 * they are queued and waiting. If the job executor is occupied then further jobs
 	 * will be rejected to run but may be executed on a different node or at a later
 	 * time.
+	 * <p>
+	 * Queued jobs are taken by priority, see {@link PriorityJobQueue}.
 	 *
 	 * @param queueCapacity capacity Default is {@code 0}.
-	 * @see java.util.concurrent.LinkedBlockingQueue
+	 * @see PriorityJobQueue
 	 * @see java.util.concurrent.SynchronousQueue
 	 */
 	public void setQueueCapacity(int queueCapacity) {
 		this.queueCapacity = queueCapacity;
 	}
 
+	/**
+	 * Run every job on its own virtual thread instead of a pool of platform threads, for I/O bound jobs.
+	 * Requires Java 21, older JVMs fall back to the platform thread pool. The number of concurrently
+	 * running jobs is then limited by {@link #setConcurrency(int)} instead of the pool size.
+	 *
+	 * @param virtualThreads Boolean. Default is "false".
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * @param concurrency max number of concurrently running jobs with virtual threads. Default is 100.
+	 */
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Additional executor pools, selected per job by {@code JobDefinition.executor}. Jobs without
+	 * executor or with an unknown one run in the default pool. Every pool is configured by
+	 * {@code application.jobexecutor.pool.<name>.corepoolsize}, {@code maxpoolsize}, {@code queuecapacity},
+	 * {@code virtualthreads} and {@code concurrency} with the same defaults as the default pool.
+	 *
+	 * @param poolNames comma separated pool names. Default is none.
+	 * @see RoutingJobExecutor
+	 */
+	public void setPoolNames(String poolNames) {
+		this.poolNames = poolNames;
+	}
+
+	/**
+	 * Resource budget of the node in abstract units, e.g. CPU or memory classes. Every running job
+	 * occupies its {@code JobDefinition.weight} (default 1) of the budget in addition to a thread,
+	 * in all pools together.
+	 *
+	 * @param budget units. Default is 0 (no budget, jobs are only limited by the threads)
+	 * @see ResourceBudget
+	 */
+	public void setBudget(int budget) {
+		this.budget = budget;
+	}
+
 	public JobLifecycleCallback getLifecycleCallback() {
 		return lifecycleCallback;
 	}
@@ -5,6 +5,7 @@ package de.lit.jobscheduler.impl;
 
 import de.lit.jobscheduler.JobLifecycleCallback;
 import de.lit.jobscheduler.JobSchedule;
+import de.lit.jobscheduler.JobSchedulerMetrics;
 import de.lit.jobscheduler.dao.JobDefinitionDao;
 import de.lit.jobscheduler.dao.JobExecutionDao;
 import de.lit.jobscheduler.entity.JobDefinition;
@@ -19,9 +20,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.*;
 
+import static de.lit.jobscheduler.JobSchedulerMetrics.Latency.*;
 import static de.lit.jobscheduler.entity.JobExecution.Status.*;
 import static org.apache.commons.lang3.StringUtils.*;
 
@@ -41,9 +44,23 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 	// needed as dependency for proper shutdown
 	private PlatformTransactionManager txManager;
 
+	@Autowired(required = false)
+	private NextRunIndex nextRunIndex;
+
+	@Autowired(required = false)
+	private JobSchedulerMetrics metrics;
+
+	@Autowired(required = false)
+	private HeapAdmissionControl admissionControl;
+
 	private JobLifecycleCallback lifecycleCallback;
 
-	private final Map<Long, JobInstance> runningJobs = Collections.synchronizedMap(new HashMap<>());
+	/**
+	 * Node budget shared by all pools, {@code null} if every job only costs a thread.
+	 */
+	private ResourceBudget resourceBudget;
+
+	private final RunningJobRegistry runningJobs = new RunningJobRegistry();
 
 	public JobExecutorImpl(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue,
 						   ThreadFactory threadFactory, RejectedExecutionHandler handler) {
@@ -54,23 +71,138 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 	@Override
 	@Transactional
 	public void submitJob(JobInstance instance) throws RejectedExecutionException {
+		if (!admit(instance.getJob())) {
+			logger.debug("Job {} deferred because the node is under memory pressure", instance.getJob().getName());
+			return;
+		}
 		if (!checkQueueIdle(instance.getJob().getRunQueue())) {
 			logger.debug("Job {} not executed because queue {} has running job",
 					instance.getJob().getName(), instance.getJob().getRunQueue());
 			return;
 		}
-		JobDefinition job = jobDao.lockJob(instance.getJob().getName());
+		JobDefinition job = jobDao.tryLockJob(instance.getJob().getName());
+		if (job == null) {
+			logger.debug("Job {} is locked by another node", instance.getJob().getName());
+			return;
+		}
 		if (job.isRunning() || (job.getNextRun() != null && job.getNextRun().isAfter(LocalDateTime.now()))) {
 			logger.debug("Job {} not executed by this thread", job.getName());
 			return;
 		}
-		JobExecutorImpl.this.execute(instance);
+		handOver(instance);
 		job.setRunning(true);
 	}
 
+	@Override
+	public void submitClaimedJob(JobInstance instance) throws RejectedExecutionException {
+		try {
+			handOver(instance);
+		} catch (RejectedExecutionException e) {
+			jobDao.updateRunning(instance.getJob().getName(), false);
+			throw e;
+		}
+	}
+
+	@Override
+	public void submitClaimedBatch(List<JobInstance> instances) throws RejectedExecutionException {
+		long now = System.currentTimeMillis();
+		List<JobInstance> batch = new ArrayList<>(instances);
+		batch.forEach(instance -> instance.setSubmittedTime(now));
+		// the jobs run one after the other, so the heaviest one determines the weight of the batch
+		int weight = batch.stream().mapToInt(instance -> ResourceBudget.weightOf(instance.getJob())).max().orElse(1);
+		try {
+			acquire(weight);
+			try {
+				execute(() -> {
+					try {
+						runBatch(batch);
+					} finally {
+						release(weight);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				release(weight);
+				throw e;
+			}
+		} catch (RejectedExecutionException e) {
+			batch.forEach(instance -> jobDao.updateRunning(instance.getJob().getName(), false));
+			throw e;
+		}
+		if (metrics != null) {
+			for (JobInstance instance : batch) {
+				if (instance.getJob().getNextRun() != null) {
+					metrics.record(DISPATCH_LAG, instance.getJob().getName(), now - toMillis(instance.getJob().getNextRun()));
+				}
+			}
+		}
+	}
+
+	private void handOver(JobInstance instance) {
+		long now = System.currentTimeMillis();
+		instance.setSubmittedTime(now);
+		execute(instance);
+		if (metrics != null && instance.getJob().getNextRun() != null) {
+			metrics.record(DISPATCH_LAG, instance.getJob().getName(), now - toMillis(instance.getJob().getNextRun()));
+		}
+	}
+
+	/**
+	 * Jobs occupy their weight of the resource budget from here until {@link #afterExecute}.
+	 */
+	@Override
+	public void execute(Runnable command) {
+		if (!(command instanceof JobInstance)) {
+			super.execute(command);
+			return;
+		}
+		int weight = ResourceBudget.weightOf(((JobInstance) command).getJob());
+		acquire(weight);
+		try {
+			super.execute(command);
+		} catch (RejectedExecutionException e) {
+			release(weight);
+			throw e;
+		}
+	}
+
+	/**
+	 * An idle node always admits a job, deferring cannot relieve memory pressure that it did not cause.
+	 */
+	private boolean admit(JobDefinition job) {
+		return admissionControl == null || runningJobs.isEmpty() || admissionControl.admit(job);
+	}
+
+	private void acquire(int weight) throws RejectedExecutionException {
+		if (resourceBudget != null && !resourceBudget.tryAcquire(weight)) {
+			throw new RejectedExecutionException("Resource budget exhausted: " + resourceBudget.getUsed()
+					+ " of " + resourceBudget.getCapacity() + " units in use, job needs " + weight);
+		}
+	}
+
+	private void release(int weight) {
+		if (resourceBudget != null) resourceBudget.release(weight);
+	}
+
+	private void recordStart(JobInstance jobInst) {
+		if (metrics == null || jobInst.getSubmittedTime() == 0) {
+			return;
+		}
+		String name = jobInst.getJob().getName();
+		metrics.record(QUEUED, name, jobInst.getStartedTime() - jobInst.getSubmittedTime());
+		if (jobInst.getJob().getNextRun() != null) {
+			metrics.record(START_LAG, name, jobInst.getStartedTime() - toMillis(jobInst.getJob().getNextRun()));
+		}
+	}
+
+	private static long toMillis(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
 	private boolean checkQueueIdle(String runQueue) {
 		if (isBlank(runQueue)) return true;
-		List<JobDefinition> queue = jobDao.lockRunQueue(runQueue);
+		// no need to lock the run queue if one of its jobs is running on this node
+		if (runningJobs.isRunQueueBusy(runQueue)) return false;
+		List<JobDefinition> queue = jobDao.tryLockRunQueue(runQueue);
 		return queue.stream().noneMatch(JobDefinition::isRunning);
 	}
 
@@ -86,83 +218,239 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 	protected void afterExecute(Runnable r, Throwable t) {
 		super.afterExecute(r, t);
 		if (r instanceof JobInstance) {
+			((JobInstance) r).markFinished();
+			// an abort that came too late for the job must not hit the next job of this thread
+			Thread.interrupted();
 			// JobInstance::run never throws an exception but stores it
-			afterJobExecute((JobInstance) r);
+			try {
+				afterJobExecute((JobInstance) r);
+			} finally {
+				((JobInstance) r).release();
+				release(ResourceBudget.weightOf(((JobInstance) r).getJob()));
+				if (admissionControl != null) admissionControl.jobFinished((JobInstance) r);
+			}
 		}
 	}
 
 	protected void beforeJobExecute(Thread t, JobInstance jobInst) {
-		synchronized (runningJobs) {
-			try {
-				logger.info("Starting Job \"{}\"", jobInst.getJob().getName());
-				JobExecution jobExec = jobExecutionDao.create();
-				jobExec.setJobDefinition(jobInst.getJob());
-				jobExec.setStartTime(new Date());
-				jobExec.setStatus(RUNNING);
-				jobExec.setNodeName(nodeName);
-				jobExec.setSignOfLifeTime(new Date());
-				jobExec = jobExecutionDao.save(jobExec);
-				jobInst.setJobExecution(jobExec);
-				jobInst.setThread(t);
-				jobInst.setStartedTime(System.currentTimeMillis());
-				runningJobs.put(jobExec.getId(), jobInst);
-				jobDao.updateStartExecution(jobInst.getJob().getName(), jobExec);
-				if (lifecycleCallback != null) lifecycleCallback.jobStarted(jobInst);
-			} catch (Throwable e) {
-				logger.error(jobInst.getJob().getName(), e);
-				jobInst.setError(e);
-				prepareForNextRun(jobInst);
-				if (lifecycleCallback != null) lifecycleCallback.jobError(jobInst);
-			}
+		jobInst.markRunning(t);
+		if (admissionControl != null) admissionControl.jobStarted(jobInst);
+		try {
+			logger.info("Starting Job \"{}\"", jobInst.getJob().getName());
+			JobExecution jobExec = jobExecutionDao.create();
+			jobExec.setJobDefinition(jobInst.getJob());
+			jobExec.setStartTime(new Date());
+			jobExec.setStatus(RUNNING);
+			jobExec.setNodeName(nodeName);
+			jobExec.setSignOfLifeTime(new Date());
+			jobExec = jobExecutionDao.save(jobExec);
+			jobInst.setJobExecution(jobExec);
+			jobInst.setStartedTime(System.currentTimeMillis());
+			recordStart(jobInst);
+			runningJobs.register(jobExec.getId(), jobInst);
+			jobDao.updateStartExecution(jobInst.getJob().getName(), jobExec);
+			if (lifecycleCallback != null) lifecycleCallback.jobStarted(jobInst);
+		} catch (Throwable e) {
+			logger.error(jobInst.getJob().getName(), e);
+			jobInst.setError(e);
+			prepareForNextRun(jobInst);
+			if (lifecycleCallback != null) lifecycleCallback.jobError(jobInst);
 		}
 	}
 
 	protected void afterJobExecute(JobInstance jobInst) {
-		synchronized (runningJobs) {
-			JobExecution jobExec = jobExecutionDao.findById(jobInst.getJobExecution().getId())
-					.orElseThrow(IllegalArgumentException::new);
-			JobDefinition job = jobExec.getJobDefinition();
-			try {
-				jobExec.setEndTime(new Date());
-				long t = System.currentTimeMillis() - jobInst.getStartedTime();
-				logger.info("Job \"{}\" completed in {} seconds", job.getName(), t / 1000.0);
-				Throwable error = jobInst.getError();
-				if (error != null) {
-					logger.error("job " + jobExec.getJobDefinition().getName(), error);
-					if (error instanceof InterruptedException) {
-						jobExec.setStatus(ABORTED);
-					} else {
-						jobExec.setStatus(ERROR);
-					}
+		JobExecution jobExec = jobExecutionDao.findById(jobInst.getJobExecution().getId())
+				.orElseThrow(IllegalArgumentException::new);
+		JobDefinition job = jobExec.getJobDefinition();
+		try {
+			jobExec.setEndTime(new Date());
+			long t = System.currentTimeMillis() - jobInst.getStartedTime();
+			logger.info("Job \"{}\" completed in {} seconds", job.getName(), t / 1000.0);
+			Throwable error = jobInst.getError();
+			if (error != null) {
+				logger.error("job " + jobExec.getJobDefinition().getName(), error);
+				if (error instanceof InterruptedException) {
+					jobExec.setStatus(ABORTED);
+				} else {
+					jobExec.setStatus(ERROR);
+				}
 
-					jobExec.setMessage(formatErrorMessage(jobExec, error));
+				jobExec.setMessage(formatErrorMessage(jobExec, error));
 
-					if (lifecycleCallback != null) lifecycleCallback.jobError(jobInst);
-				} else {
-					if (jobExec.getStatus() == null || !jobExec.getStatus().equals(PARTIAL_SUCCESS)) {
-						jobExec.setStatus(SUCCESS);
-					}
+				if (lifecycleCallback != null) lifecycleCallback.jobError(jobInst);
+			} else {
+				if (jobExec.getStatus() == null || !jobExec.getStatus().equals(PARTIAL_SUCCESS)) {
+					jobExec.setStatus(SUCCESS);
+				}
+			}
+			jobExec = jobExecutionDao.save(jobExec);
+		} catch (Throwable e) {
+			logger.error(jobInst.getJob().getName(), e);
+			jobExec = jobExecutionDao.save(jobExec);
+			jobDao.updateRunning(job.getName(), false);
+		} finally {
+			runningJobs.unregister(jobExec.getId());
+		}
+
+		try {
+			if (lifecycleCallback != null) lifecycleCallback.jobFinished(jobInst);
+		} catch (Exception e) {
+			logger.error("lifecycleCallback.jobFinished for Job " + job.getName(), e);
+		}
+
+		try {
+			prepareForNextRun(jobInst);
+		} catch (Exception e) {
+			logger.error("Error calculating next run time for Job " + job.getName(), e);
+			jobDao.updateForNextRun(job.getName(), null);
+			if (nextRunIndex != null) nextRunIndex.update(job.getName(), null);
+		}
+	}
+
+	/**
+	 * Run coalesced lightweight jobs back to back in the current worker thread. All executions
+	 * are inserted with one {@code saveAll()} before the first job starts and updated with one
+	 * {@code saveAll()} after the last job finished. Every job is then released with a single
+	 * update of its job row.
+	 * <p></p>
+	 * The jobs are registered as running right away, so a job that is aborted while it waits for
+	 * its turn is not started anymore.
+	 */
+	private void runBatch(List<JobInstance> batch) {
+		List<JobExecution> executions = new ArrayList<>(batch.size());
+		for (JobInstance jobInst : batch) {
+			JobExecution jobExec = jobExecutionDao.create();
+			jobExec.setJobDefinition(jobInst.getJob());
+			jobExec.setStartTime(new Date());
+			jobExec.setStatus(RUNNING);
+			jobExec.setNodeName(nodeName);
+			jobExec.setSignOfLifeTime(new Date());
+			executions.add(jobExec);
+		}
+		try {
+			executions = saveAll(executions);
+		} catch (Throwable e) {
+			logger.error("Cannot start lightweight jobs", e);
+			for (JobInstance jobInst : batch) {
+				try {
+					prepareForNextRun(jobInst);
+				} catch (Exception ex) {
+					jobDao.updateRunning(jobInst.getJob().getName(), false);
+				} finally {
+					jobInst.release();
 				}
-				jobExec = jobExecutionDao.save(jobExec);
+			}
+			return;
+		}
+		logger.info("Starting {} lightweight jobs", batch.size());
+		for (int i = 0; i < batch.size(); i++) {
+			batch.get(i).setJobExecution(executions.get(i));
+			runningJobs.register(executions.get(i).getId(), batch.get(i));
+		}
+
+		try {
+			for (int i = 0; i < batch.size(); i++) {
+				runLightweight(batch.get(i), executions.get(i));
+			}
+		} finally {
+			try {
+				executions = saveAll(executions);
 			} catch (Throwable e) {
-				logger.error(jobInst.getJob().getName(), e);
-				jobExec = jobExecutionDao.save(jobExec);
-				jobDao.updateRunning(job.getName(), false);
-			} finally {
-				runningJobs.remove(jobExec.getId());
+				logger.error("Cannot save executions of lightweight jobs", e);
 			}
+			for (int i = 0; i < batch.size(); i++) {
+				releaseLightweight(batch.get(i), executions.get(i));
+			}
+		}
+	}
+
+	private List<JobExecution> saveAll(List<JobExecution> executions) {
+		List<JobExecution> saved = new ArrayList<>(executions.size());
+		jobExecutionDao.saveAll(executions).forEach(saved::add);
+		return saved;
+	}
 
+	/**
+	 * Run one job of a batch like {@link #beforeJobExecute} and {@link #afterJobExecute}, but
+	 * without database access. The execution is updated in memory only.
+	 */
+	private void runLightweight(JobInstance jobInst, JobExecution jobExec) {
+		String name = jobInst.getJob().getName();
+		try {
+			jobInst.markRunning(Thread.currentThread());
+			if (admissionControl != null) admissionControl.jobStarted(jobInst);
+			// an abort before markRunning() cannot interrupt the thread, but is seen here
+			if (jobInst.isAborted()) {
+				logger.info("Job \"{}\" aborted before it started", name);
+				jobInst.markFinished();
+				jobExec.setEndTime(new Date());
+				jobExec.setStatus(ABORTED);
+				return;
+			}
+			jobExec.setStartTime(new Date());
+			jobExec.setSignOfLifeTime(jobExec.getStartTime());
+			jobInst.setStartedTime(jobExec.getStartTime().getTime());
+			recordStart(jobInst);
 			try {
-				if (lifecycleCallback != null) lifecycleCallback.jobFinished(jobInst);
-			} catch (Exception e) {
-				logger.error("lifecycleCallback.jobFinished for Job " + job.getName(), e);
+				if (lifecycleCallback != null) lifecycleCallback.jobStarted(jobInst);
+				jobInst.run();
+			} catch (Throwable e) {
+				jobInst.setError(e);
+			} finally {
+				jobInst.markFinished();
+				// an abort that came too late must not hit the next job of the batch
+				Thread.interrupted();
+			}
+			jobExec.setEndTime(new Date());
+			logger.debug("Job \"{}\" completed in {} seconds", name,
+					(System.currentTimeMillis() - jobInst.getStartedTime()) / 1000.0);
+			Throwable error = jobInst.getError();
+			if (error != null) {
+				logger.error("job " + name, error);
+				jobExec.setStatus(error instanceof InterruptedException || jobInst.isAborted() ? ABORTED : ERROR);
+				jobExec.setMessage(formatErrorMessage(jobExec, error));
+				if (lifecycleCallback != null) lifecycleCallback.jobError(jobInst);
+			} else if (jobInst.isAborted()) {
+				// the job ignored the interrupt, the abort is kept anyway
+				jobExec.setStatus(ABORTED);
+			} else if (jobExec.getStatus() != PARTIAL_SUCCESS) {
+				jobExec.setStatus(SUCCESS);
 			}
+			if (lifecycleCallback != null) lifecycleCallback.jobFinished(jobInst);
+		} catch (Throwable e) {
+			logger.error("lifecycleCallback for Job " + name, e);
+		} finally {
+			if (jobExec.getStatus() == RUNNING) {
+				jobExec.setEndTime(new Date());
+				jobExec.setStatus(ERROR);
+			}
+			runningJobs.unregister(jobExec.getId());
+			jobInst.release();
+			if (admissionControl != null) admissionControl.jobFinished(jobInst);
+		}
+	}
 
+	/**
+	 * Store the next run of one job of a batch together with its last execution. A failure only
+	 * affects this job, the remaining jobs of the batch are released anyway.
+	 */
+	private void releaseLightweight(JobInstance jobInst, JobExecution jobExec) {
+		String name = jobInst.getJob().getName();
+		LocalDateTime nextRun = null;
+		try {
+			nextRun = jobInst.getSchedule().evalNextRun(jobInst.getJob());
+		} catch (Exception e) {
+			logger.error("Error calculating next run time for Job " + name, e);
+		}
+		try {
+			jobDao.updateForNextRun(name, nextRun, jobExec);
+			if (nextRunIndex != null) nextRunIndex.update(name, nextRun);
+		} catch (Exception e) {
+			logger.error("Cannot update next run of Job " + name, e);
 			try {
-				prepareForNextRun(jobInst);
-			} catch (Exception e) {
-				logger.error("Error calculating next run time for Job " + job.getName(), e);
-				jobDao.updateForNextRun(job.getName(), null);
+				jobDao.updateRunning(name, false);
+			} catch (Exception ex) {
+				logger.error("Cannot release Job " + name, ex);
 			}
 		}
 	}
@@ -172,6 +460,7 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 		JobSchedule schedule = jobInstance.getSchedule();
 		LocalDateTime nextRun = schedule.evalNextRun(job);
 		jobDao.updateForNextRun(job.getName(), nextRun);
+		if (nextRunIndex != null) nextRunIndex.update(job.getName(), nextRun);
 	}
 
 	private String formatErrorMessage(JobExecution jobExec, Throwable error) {
@@ -211,17 +500,33 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 
 	@Override
 	public JobInstance findJobInstance(final JobDefinition job) {
-		synchronized (runningJobs) {
-			Optional<JobInstance> found = runningJobs.values().stream()
-					.filter(inst -> inst.getJob().equals(job))
-					.findFirst();
-			return found.orElse(null);
-		}
+		return runningJobs.findByName(job.getName());
 	}
 
+	/**
+	 * @return running instances indexed by execution id, job name and run queue
+	 */
+	public RunningJobRegistry getRunningJobs() {
+		return runningJobs;
+	}
+
+	/**
+	 * With a resource budget at most the remaining units, as every job weighs at least 1.
+	 */
 	@Override
 	public int remainingCapacity() {
-		return getMaximumPoolSize() - getActiveCount() + getQueue().remainingCapacity();
+		int capacity = getMaximumPoolSize() - getActiveCount() + getQueue().remainingCapacity();
+		return resourceBudget != null ? Math.min(capacity, resourceBudget.remaining()) : capacity;
+	}
+
+	@Override
+	public boolean fits(JobDefinition job) {
+		return (resourceBudget == null || resourceBudget.fits(ResourceBudget.weightOf(job))) && admit(job);
+	}
+
+	@Override
+	public int idleThreads() {
+		return Math.max(0, getMaximumPoolSize() - getActiveCount() - getQueue().size());
 	}
 
 	@Override
@@ -229,7 +534,7 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 		for (JobExecution jobExec : jobExecutionDao.findAllByJobDefinitionAndStatus(job, RUNNING)) {
 			JobInstance jobInst = getJobInstance(jobExec.getId());
 			if (jobInst != null) {
-				jobInst.getThread().interrupt();
+				jobInst.interrupt();
 			}
 			jobExec.setStatus(ABORTED);
 			jobExecutionDao.save(jobExec);
@@ -271,6 +576,23 @@ public class JobExecutorImpl extends ThreadPoolExecutor implements JobExecutor,
 			}
 		}
 		runningJobs.clear();
+		if (jobExecutionDao != null) jobExecutionDao.flush();
+	}
+
+	public HeapAdmissionControl getAdmissionControl() {
+		return admissionControl;
+	}
+
+	public void setAdmissionControl(HeapAdmissionControl admissionControl) {
+		this.admissionControl = admissionControl;
+	}
+
+	public ResourceBudget getResourceBudget() {
+		return resourceBudget;
+	}
+
+	public void setResourceBudget(ResourceBudget resourceBudget) {
+		this.resourceBudget = resourceBudget;
 	}
 
 	public JobLifecycleCallback getLifecycleCallback() {
@@ -8,7 +8,12 @@ import de.lit.jobscheduler.JobSchedule;
 import de.lit.jobscheduler.entity.JobDefinition;
 import de.lit.jobscheduler.entity.JobExecution;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 public class JobInstance implements Runnable {
+
+	public enum State {NEW, RUNNING, FINISHED}
+
 	private JobDefinition job;
 	private JobExecution jobExecution;
 	private Job implementation;
@@ -16,6 +21,12 @@ public class JobInstance implements Runnable {
 	private Thread thread;
 	private Throwable error;
 	private long startedTime;
+	private long submittedTime;
+	private Runnable releaseAction;
+	private volatile State state = State.NEW;
+	private volatile boolean aborted;
+	// guards state and thread, so an abort never interrupts the thread once it runs the next job
+	private final ReentrantLock stateLock = new ReentrantLock();
 
 	public JobInstance(JobDefinition job) {
 		this.job = job;
@@ -70,6 +81,64 @@ public class JobInstance implements Runnable {
 		this.thread = thread;
 	}
 
+	/**
+	 * Called by the job thread before the job runs.
+	 */
+	public void markRunning(Thread thread) {
+		stateLock.lock();
+		try {
+			this.thread = thread;
+			state = State.RUNNING;
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	/**
+	 * Called by the job thread after the job ran. {@link #interrupt()} does nothing afterwards.
+	 */
+	public void markFinished() {
+		stateLock.lock();
+		try {
+			state = State.FINISHED;
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	/**
+	 * Interrupt the job thread if the job is still running. A job that did not start yet is marked
+	 * as {@link #isAborted() aborted} and must not be started anymore.
+	 *
+	 * @return {@code false} if the job is not running (anymore)
+	 */
+	public boolean interrupt() {
+		stateLock.lock();
+		try {
+			if (state != State.FINISHED) {
+				aborted = true;
+			}
+			if (state != State.RUNNING || thread == null) {
+				return false;
+			}
+			thread.interrupt();
+			return true;
+		} finally {
+			stateLock.unlock();
+		}
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return {@code true} if the job was interrupted before it finished
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
 	public Throwable getError() {
 		return error;
 	}
@@ -86,6 +155,19 @@ public class JobInstance implements Runnable {
 		this.jobSchedule = jobSchedule;
 	}
 
+	/**
+	 * Called by the job executor after execution, returns a pooled implementation instance.
+	 */
+	public void release() {
+		Runnable action = releaseAction;
+		releaseAction = null;
+		if (action != null) action.run();
+	}
+
+	public void setReleaseAction(Runnable releaseAction) {
+		this.releaseAction = releaseAction;
+	}
+
 	public long getStartedTime() {
 		return startedTime;
 	}
@@ -94,4 +176,15 @@ public class JobInstance implements Runnable {
 		this.startedTime = startedTime;
 	}
 
+	/**
+	 * @return time in milliseconds when the job was handed over to the job executor, 0 if not yet
+	 */
+	public long getSubmittedTime() {
+		return submittedTime;
+	}
+
+	public void setSubmittedTime(long submittedTime) {
+		this.submittedTime = submittedTime;
+	}
+
 }
\ No newline at end of file
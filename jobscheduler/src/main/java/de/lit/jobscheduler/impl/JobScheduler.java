@@ -7,24 +7,46 @@ import de.lit.jobscheduler.CronSchedule;
 import de.lit.jobscheduler.Job;
 import de.lit.jobscheduler.JobImplementationProvider;
 import de.lit.jobscheduler.JobSchedule;
+import de.lit.jobscheduler.JobSchedulerMetrics;
+import de.lit.jobscheduler.JobSchedulerMetrics.Latency;
+import de.lit.jobscheduler.PartitionedJob;
 import de.lit.jobscheduler.dao.JobDefinitionDao;
 import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobDefinition.MisfirePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 @Component
-public class JobScheduler implements ApplicationContextAware {
+public class JobScheduler implements ApplicationContextAware, DisposableBean {
 	protected final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
 
 	private final JobDefinitionDao jobDao;
@@ -33,46 +55,599 @@ public class JobScheduler implements ApplicationContextAware {
 
 	private ApplicationContext appContext;
 
+	/**
+	 * Resolved implementation and schedule beans
+	 */
+	private JobBeanCache beanCache;
+
+	@Value("${application.jobscheduler.prototypepool:0}")
+	private int prototypePoolSize = 0;
+
 	/**
 	 * Optional provider for Job implementation beans/instances.
 	 * Default behaviour is {@code appContext.getBean(job.getImplementation(), Job.class)}
 	 */
 	private JobImplementationProvider jobImplementationProvider;
 
+	/**
+	 * Next run index of the event driven mode, {@code null} in polling mode.
+	 */
+	private NextRunIndex nextRunIndex;
+
+	/**
+	 * Optional fair share between job groups, {@code null} if not enabled.
+	 */
+	private FairSharePolicy fairSharePolicy;
+
+	/**
+	 * Partitioned mode: only jobs of this node's partition are dispatched, {@code null} if not enabled.
+	 */
+	private PartitionMembership partitionMembership;
+
+	/**
+	 * Leader election: only the leader queries due jobs and assigns them to the nodes, {@code null} if not enabled.
+	 */
+	private LeaderElection leaderElection;
+
+	/**
+	 * Runs {@link PartitionedJob}s partitioned across threads and nodes, {@code null} if not enabled.
+	 */
+	private PartitionManager partitionManager;
+
+	/**
+	 * Optional receiver of the scheduling latencies, {@code null} if not enabled.
+	 */
+	private JobSchedulerMetrics metrics;
+
+	/**
+	 * Optional cluster-wide rate limits per job and run queue, {@code null} if not enabled.
+	 */
+	private RateLimiter rateLimiter;
+
+	/**
+	 * Max number of due jobs claimed with one {@code claimDueJobs()} call, 0 locks every job separately.
+	 */
+	@Value("${application.jobscheduler.claim.batchsize:0}")
+	private int claimBatchSize = 0;
+
+	/**
+	 * Max number of lightweight jobs run back to back in one worker turn, 0 or 1 submits every job separately.
+	 */
+	@Value("${application.jobscheduler.lightweight.batchsize:20}")
+	private int lightweightBatchSize = 20;
+
+	/**
+	 * Max number of due jobs fetched with one query, further limited by the remaining capacity of the job executor.
+	 */
+	@Value("${application.jobscheduler.pagesize:100}")
+	private int pageSize = 100;
+
+	/**
+	 * Number of parallel dispatch lanes, 0 or 1 dispatches all jobs from the scheduler thread.
+	 */
+	@Value("${application.jobscheduler.dispatch.lanes:0}")
+	private int dispatchLanes = 0;
+
+	private DispatchPipeline dispatchPipeline;
+
+	/**
+	 * Milliseconds a job may be late until it is considered misfired
+	 */
+	@Value("${application.jobscheduler.misfire.threshold:60000}")
+	private long misfireThreshold = 60000;
+
+	/**
+	 * Max number of misfired jobs started per poll cycle, 0 for no limit
+	 */
+	@Value("${application.jobscheduler.misfire.catchup:0}")
+	private int misfireCatchUp = 0;
+
+	private final AtomicInteger misfiresReleased = new AtomicInteger();
+
+	/**
+	 * Start time of the last {@link #run()}
+	 */
+	private volatile LocalDateTime lastPoll;
+
+	/**
+	 * {@code true} if the last {@link #run()} stopped because the job executor was full
+	 */
+	private volatile boolean backlog;
+
 	@Autowired
 	public JobScheduler(JobDefinitionDao jobDao, JobExecutor jobExecutor) {
 		this.jobDao = jobDao;
 		this.jobExecutor = jobExecutor;
 	}
 
-	@Scheduled(fixedDelayString = "${application.jobscheduler.runinterval:20000}", initialDelayString = "${application.jobscheduler.initialDelay:10000}")
+	/**
+	 * Poll the job table for due jobs and start them. Called periodically, see {@link JobSchedulerPollConfiguration}.
+	 */
 	public void run() {
-		for (JobDefinition job : jobDao.findAllDue()) {
+		LocalDateTime now = LocalDateTime.now();
+		lastPoll = now;
+		backlog = false;
+		misfiresReleased.set(0);
+		if (nextRunIndex != null) {
+			// event driven mode: due jobs are dispatched by EventDrivenDispatcher
+			return;
+		}
+		if (leaderElection != null) {
+			if (leaderElection.isLeader()) {
+				assignDueJobs();
+			}
+			runAssignedJobs();
+			return;
+		}
+		JobDefinition last = null;
+		int limit;
+		// continue after the last page as long as capacity is left because some jobs may not have been started
+		while ((limit = dueLimit()) > 0) {
+			List<JobDefinition> dueJobs = jobDao.findDue(now, last, limit);
+			if (dueJobs.isEmpty()) {
+				return;
+			}
+			dispatchJobs(dueJobs, claimBatchSize);
+			if (dueJobs.size() < limit) {
+				return;
+			}
+			last = dueJobs.get(dueJobs.size() - 1);
+		}
+		backlog = true;
+		logger.debug("jobExecutor has no capacity left");
+	}
+
+	/**
+	 * Max number of due jobs worth fetching for one dispatch: only as many as this node can run.
+	 * Fair share needs to see more due jobs than the free capacity to choose between groups,
+	 * in partitioned mode most due jobs belong to other nodes, so both get a whole page.
+	 *
+	 * @return 0 if the job executor has no capacity left
+	 */
+	public int dueLimit() {
+		int capacity = jobExecutor.remainingCapacity();
+		if (capacity <= 0) {
+			return 0;
+		}
+		return fairSharePolicy != null || partitionMembership != null ? pageSize : Math.min(capacity, pageSize);
+	}
+
+	/**
+	 * Try to start the given due jobs until the job executor has no capacity left.
+	 * Jobs without run queue are claimed together with one {@code claimDueJobs()} call, in
+	 * batches of {@code claimBatchSize} if set. Lightweight jobs without run queue are claimed
+	 * in batches of {@code lightweightBatchSize} and every batch runs in one worker turn. Jobs that do not fit into the resource budget are skipped, lighter jobs
+	 * after them are still started. With more than one {@code dispatchLanes} the jobs are
+	 * dispatched in parallel by the {@link DispatchPipeline}. In partitioned mode jobs of other
+	 * nodes are skipped. Every call is a new cycle for the misfire catch-up limit.
+	 *
+	 * @param dueJobs jobs to start, e.g. from {@code findDueByNames()}
+	 */
+	public void dispatch(Collection<JobDefinition> dueJobs) {
+		misfiresReleased.set(0);
+		dispatchJobs(dueJobs, claimBatchSize > 0 ? claimBatchSize : Math.max(1, dueJobs.size()));
+	}
+
+	/**
+	 * @param batchSize max number of jobs claimed in one transaction, 0 locks every job separately
+	 */
+	private void dispatchJobs(Collection<JobDefinition> dueJobs, int batchSize) {
+		if (partitionMembership != null) {
+			dueJobs = dueJobs.stream().filter(partitionMembership::owns).collect(Collectors.toList());
+		}
+		if (fairSharePolicy != null) {
+			dueJobs = applyFairShare(dueJobs);
+		}
+		if (dispatchLanes > 1) {
+			getDispatchPipeline().dispatch(dueJobs, pipelineStages);
+			return;
+		}
+		Map<String, JobInstance> claimable = new LinkedHashMap<>();
+		Map<String, List<JobInstance>> microBatches = new HashMap<>();
+		for (JobDefinition job : dueJobs) {
+			if (!claimable.isEmpty() && jobExecutor.remainingCapacity(job.getExecutor()) <= countPending(claimable, job)
+					&& !submitClaimed(claimable)) {
+				break;
+			}
 			if (jobExecutor.remainingCapacity() == 0) {
 				logger.warn("jobExecutor has no capacity left. Job {} cannot run", job.getName());
 				break;
 			}
+			if (jobExecutor.remainingCapacity(job.getExecutor()) == 0) {
+				logger.debug("Executor pool {} has no capacity left. Job {} waits for next schedule cycle", job.getExecutor(), job.getName());
+				continue;
+			}
+			if (!jobExecutor.fits(job)) {
+				// lighter jobs may still fit
+				logger.debug("Job {} does not fit into the free resources of this node. It waits for next schedule cycle", job.getName());
+				continue;
+			}
+			JobInstance instance = prepare(job);
+			if (instance == null) {
+				continue;
+			}
+			if (lightweightBatchSize > 1 && job.isLightweight() && isBlank(job.getRunQueue())) {
+				List<JobInstance> batch = microBatches.computeIfAbsent(poolOf(job), pool -> new ArrayList<>());
+				batch.add(instance);
+				if (batch.size() >= lightweightBatchSize && !submitBatch(microBatches.remove(poolOf(job)))) {
+					break;
+				}
+			} else if (batchSize > 0 && isBlank(job.getRunQueue())) {
+				claimable.put(job.getName(), instance);
+				if (claimable.size() >= batchSize && !submitClaimed(claimable)) {
+					break;
+				}
+			} else if (!submit(instance) && jobExecutor.remainingCapacity() == 0) {
+				break;
+			}
+		}
+		if (!claimable.isEmpty()) {
+			submitClaimed(claimable);
+		}
+		for (List<JobInstance> batch : microBatches.values()) {
+			submitBatch(batch);
+		}
+	}
+
+	/**
+	 * Key of the executor pool of the job, {@code ""} for the default pool
+	 */
+	private static String poolOf(JobDefinition job) {
+		return Objects.toString(job.getExecutor(), "");
+	}
+
+	/**
+	 * Number of claimable jobs waiting for the same executor pool as the given job
+	 */
+	private static int countPending(Map<String, JobInstance> claimable, JobDefinition job) {
+		int count = 0;
+		for (JobInstance instance : claimable.values()) {
+			if (poolOf(instance.getJob()).equals(poolOf(job))) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Leader: claim up to {@code pageSize} due jobs and assign them to the live nodes.
+	 * At most one job per run queue is claimed.
+	 */
+	private void assignDueJobs() {
+		try {
+			for (String name : leaderElection.reclaimStaleAssignments()) {
+				jobDao.updateRunning(name, false);
+			}
+			LocalDateTime now = LocalDateTime.now();
+			Set<String> runQueues = new HashSet<>();
+			Map<String, JobDefinition> candidates = new LinkedHashMap<>();
+			for (JobDefinition job : jobDao.findDue(now, null, pageSize)) {
+				if (isNotBlank(job.getRunQueue()) && !runQueues.add(job.getRunQueue())) {
+					continue;
+				}
+				JobInstance instance = prepare(job);
+				if (instance != null) {
+					instance.release();
+					candidates.put(job.getName(), job);
+				}
+			}
+			if (!candidates.isEmpty()) {
+				List<JobDefinition> claimed = jobDao.claimDueJobs(candidates.keySet(), now);
+				leaderElection.assign(claimed);
+				claimed.forEach(job -> candidates.remove(job.getName()));
+				candidates.values().forEach(this::refund);
+			}
+		} catch (Exception e) {
+			logger.error("Cannot assign due jobs", e);
+		}
+	}
+
+	/**
+	 * Submit the jobs the leader assigned to this node. Jobs that do not fit into the job
+	 * executor are released for the next cycle.
+	 */
+	private void runAssignedJobs() {
+		Set<String> fullPools = new HashSet<>();
+		for (String name : leaderElection.takeAssignments()) {
+			JobDefinition job = null;
+			JobInstance instance = null;
 			try {
-				JobInstance instance = createJobInstance(job);
-				JobSchedule schedule = instance.getJobSchedule();
-				if (schedule.testJobReady(job)) {
-					jobExecutor.submitJob(instance);
-				} else {
-					LocalDateTime nextRun = schedule.evalNextRun(job);
-					jobDao.updateForNextRun(job.getName(), nextRun);
+				job = jobDao.findById(name).orElse(null);
+				if (job == null) {
+					continue;
+				}
+				if (fullPools.contains(poolOf(job)) || !jobExecutor.fits(job)) {
+					jobDao.updateRunning(name, false);
+					refund(job);
+					continue;
 				}
+				instance = createJobInstance(job);
+				jobExecutor.submitClaimedJob(instance);
 			} catch (RejectedExecutionException e) {
-				logger.warn("jobExecutor is full. wait for next schedule cycle for Job {}", job.getName());
-				break;
+				logger.warn("jobExecutor is full. wait for next schedule cycle for Job {}", name);
+				fullPools.add(poolOf(job));
+				decline(instance);
 			} catch (Exception e) {
-				logger.error("Cannot submit job " + job.getName(), e);
+				logger.error("Cannot submit job " + name, e);
+				jobDao.updateRunning(name, false);
+				if (instance != null) {
+					decline(instance);
+				} else if (job != null) {
+					refund(job);
+				}
+			}
+		}
+	}
+
+	private List<JobDefinition> applyFairShare(Collection<JobDefinition> dueJobs) {
+		Map<String, Integer> running = new HashMap<>();
+		int runningCount = 0;
+		for (JobInstance instance : jobExecutor.listRunningJobs()) {
+			running.merge(FairSharePolicy.groupOf(instance.getJob()), 1, Integer::sum);
+			runningCount++;
+		}
+		int free = jobExecutor.remainingCapacity();
+		List<JobDefinition> selected = fairSharePolicy.select(dueJobs, running, runningCount + free, free);
+		if (selected.size() < dueJobs.size()) {
+			logger.debug("Fair share: {} of {} due jobs wait for next schedule cycle", dueJobs.size() - selected.size(), dueJobs.size());
+		}
+		return selected;
+	}
+
+	/**
+	 * Create the job instance and check if the job is ready. Jobs that are not ready are
+	 * rescheduled, misfired jobs are handled according to their {@link MisfirePolicy}.
+	 *
+	 * @return instance ready to submit or {@code null}
+	 */
+	private JobInstance prepare(JobDefinition job) {
+		try {
+			JobInstance instance = createJobInstance(job);
+			JobSchedule schedule = instance.getJobSchedule();
+			if (isMisfired(job, schedule)) {
+				if (job.getMisfirePolicy() == MisfirePolicy.SKIP) {
+					logger.info("Job {} misfired at {}, skipped", job.getName(), job.getNextRun());
+					instance.release();
+					updateForNextRun(job.getName(), schedule.evalNextRun(job));
+					return null;
+				}
+				if (misfireCatchUp > 0 && misfiresReleased.incrementAndGet() > misfireCatchUp) {
+					logger.debug("Job {} misfired at {}, deferred by catch-up limit", job.getName(), job.getNextRun());
+					instance.release();
+					return null;
+				}
+			}
+			if (schedule.testJobReady(job)) {
+				if (rateLimiter != null && !rateLimiter.tryAcquire(job)) {
+					logger.debug("Job {} deferred by rate limit", job.getName());
+					instance.release();
+					return null;
+				}
+				return instance;
+			}
+			instance.release();
+			updateForNextRun(job.getName(), schedule.evalNextRun(job));
+		} catch (Exception e) {
+			logger.error("Cannot submit job " + job.getName(), e);
+		}
+		return null;
+	}
+
+	/**
+	 * A job misfired if a regular run before {@code now - misfireThreshold} was missed, i.e. the
+	 * previous run time of its schedule is not before its {@code nextRun}. For schedules without
+	 * previous run times, if its {@code nextRun} is older than the threshold.
+	 */
+	private boolean isMisfired(JobDefinition job, JobSchedule schedule) {
+		if (job.getNextRun() == null) {
+			return false;
+		}
+		LocalDateTime deadline = LocalDateTime.now().minus(misfireThreshold, ChronoUnit.MILLIS);
+		if (!job.getNextRun().isBefore(deadline)) {
+			return false;
+		}
+		LocalDateTime previousRun = schedule.evalPreviousRun(job, deadline);
+		return previousRun == null || !previousRun.isBefore(job.getNextRun());
+	}
+
+	/**
+	 * Lock and submit a single job.
+	 *
+	 * @return false if the job executor has no capacity left
+	 */
+	private boolean submit(JobInstance instance) {
+		JobDefinition job = instance.getJob();
+		try {
+			long start = System.currentTimeMillis();
+			jobExecutor.submitJob(instance);
+			if (instance.getSubmittedTime() == 0) {
+				decline(instance);
+			} else if (metrics != null) {
+				metrics.record(Latency.CLAIM, job.getName(), System.currentTimeMillis() - start);
 			}
+		} catch (RejectedExecutionException e) {
+			logger.warn("jobExecutor is full. wait for next schedule cycle for Job {}", job.getName());
+			decline(instance);
+			return false;
+		} catch (PessimisticLockingFailureException e) {
+			logger.debug("Job {} not executed because queue {} is locked by another node", job.getName(), job.getRunQueue());
+			decline(instance);
+		} catch (Exception e) {
+			logger.error("Cannot submit job " + job.getName(), e);
+			// a job handed over to the job executor is released by its worker thread
+			if (instance.getSubmittedTime() == 0) {
+				decline(instance);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return the rate limit tokens of a job that was not started after all.
+	 */
+	private void refund(JobDefinition job) {
+		if (rateLimiter != null) {
+			rateLimiter.refund(job);
+		}
+	}
+
+	/**
+	 * Give up a prepared instance that was not handed over to the job executor: return its rate
+	 * limit tokens and its pooled job implementation.
+	 */
+	private void decline(JobInstance instance) {
+		refund(instance.getJob());
+		instance.release();
+	}
+
+	private final DispatchPipeline.Stages pipelineStages = new DispatchPipeline.Stages() {
+		@Override
+		public JobInstance prepare(JobDefinition job) {
+			return JobScheduler.this.prepare(job);
+		}
+
+		@Override
+		public boolean submit(JobInstance instance) {
+			if (jobExecutor.remainingCapacity() == 0) {
+				decline(instance);
+				return false;
+			}
+			if (jobExecutor.remainingCapacity(instance.getJob().getExecutor()) == 0 || !jobExecutor.fits(instance.getJob())) {
+				decline(instance);
+				return true;
+			}
+			return JobScheduler.this.submit(instance) || jobExecutor.remainingCapacity() > 0;
+		}
+
+		@Override
+		public void skip(JobInstance instance) {
+			decline(instance);
+		}
+	};
+
+	private synchronized DispatchPipeline getDispatchPipeline() {
+		if (dispatchPipeline == null || dispatchPipeline.getLanes() != dispatchLanes) {
+			if (dispatchPipeline != null) {
+				dispatchPipeline.shutdown();
+			}
+			dispatchPipeline = new DispatchPipeline(dispatchLanes, Math.max(1, pageSize));
+		}
+		return dispatchPipeline;
+	}
+
+	/**
+	 * Claim the candidate jobs with one {@code claimDueJobs()} call and submit all claimed jobs.
+	 * Candidates that are running on another node or are no longer due are skipped.
+	 *
+	 * @param candidates job instances by name, cleared afterwards
+	 * @return false if an executor pool rejected a job and no capacity is left
+	 */
+	private boolean submitClaimed(Map<String, JobInstance> candidates) {
+		List<String> names = new ArrayList<>(candidates.keySet());
+		List<JobDefinition> claimed;
+		long start = System.currentTimeMillis();
+		try {
+			claimed = jobDao.claimDueJobs(names, LocalDateTime.now());
+		} catch (Exception e) {
+			logger.error("Cannot claim jobs " + names, e);
+			candidates.values().forEach(this::decline);
+			candidates.clear();
+			return true;
+		}
+		long claimMillis = System.currentTimeMillis() - start;
+		logger.debug("Claimed {} of {} due jobs", claimed.size(), names.size());
+		Set<String> fullPools = new HashSet<>();
+		for (JobDefinition job : claimed) {
+			JobInstance instance = candidates.remove(job.getName());
+			if (fullPools.contains(poolOf(job))) {
+				jobDao.updateRunning(job.getName(), false);
+				decline(instance);
+				continue;
+			}
+			instance.setJob(job);
+			try {
+				jobExecutor.submitClaimedJob(instance);
+				if (metrics != null) metrics.record(Latency.CLAIM, job.getName(), claimMillis);
+			} catch (RejectedExecutionException e) {
+				logger.warn("jobExecutor is full. wait for next schedule cycle for Job {}", job.getName());
+				fullPools.add(poolOf(job));
+				decline(instance);
+			}
+		}
+		candidates.values().forEach(this::decline);
+		candidates.clear();
+		return fullPools.isEmpty() || jobExecutor.remainingCapacity() > 0;
+	}
+
+	/**
+	 * Claim a batch of lightweight jobs with one {@code claimDueJobs()} call and run all claimed
+	 * jobs back to back in one worker turn. Candidates that are running on another node or are
+	 * no longer due are skipped.
+	 *
+	 * @param batch job instances of the same executor pool
+	 * @return false if the executor pool rejected the batch and no capacity is left
+	 */
+	private boolean submitBatch(List<JobInstance> batch) {
+		Map<String, JobInstance> candidates = new LinkedHashMap<>();
+		batch.forEach(instance -> candidates.put(instance.getJob().getName(), instance));
+		List<JobDefinition> claimed;
+		long start = System.currentTimeMillis();
+		try {
+			claimed = jobDao.claimDueJobs(new ArrayList<>(candidates.keySet()), LocalDateTime.now());
+		} catch (Exception e) {
+			logger.error("Cannot claim jobs " + candidates.keySet(), e);
+			batch.forEach(this::decline);
+			return true;
+		}
+		long claimMillis = System.currentTimeMillis() - start;
+		List<JobInstance> instances = new ArrayList<>(claimed.size());
+		for (JobDefinition job : claimed) {
+			JobInstance instance = candidates.remove(job.getName());
+			instance.setJob(job);
+			instances.add(instance);
+		}
+		candidates.values().forEach(this::decline);
+		logger.debug("Claimed {} of {} lightweight jobs", instances.size(), batch.size());
+		if (instances.isEmpty()) {
+			return true;
+		}
+		try {
+			jobExecutor.submitClaimedBatch(instances);
+		} catch (RejectedExecutionException e) {
+			logger.warn("jobExecutor is full. wait for next schedule cycle for {} lightweight jobs", instances.size());
+			instances.forEach(this::decline);
+			return jobExecutor.remainingCapacity() > 0;
+		}
+		if (metrics != null) {
+			instances.forEach(instance -> metrics.record(Latency.CLAIM, instance.getJob().getName(), claimMillis));
+		}
+		return true;
+	}
+
+	/**
+	 * Run job as soon as possible. Use this instead of {@code JobDefinitionDao.runJobNow()}
+	 * to notify the event driven dispatcher immediately.
+	 *
+	 * @param name job name
+	 * @return number of updated jobs
+	 */
+	public int runJobNow(String name) {
+		int count = jobDao.runJobNow(name);
+		if (count > 0 && nextRunIndex != null) {
+			nextRunIndex.update(name, LocalDateTime.now());
+		}
+		return count;
+	}
+
+	private void updateForNextRun(String name, LocalDateTime nextRun) {
+		jobDao.updateForNextRun(name, nextRun);
+		if (nextRunIndex != null) {
+			nextRunIndex.update(name, nextRun);
 		}
 	}
 
 	/**
 	 * Create {@link JobInstance} from job definition. Retrieves implementation and schedule bean
-	 * from application context. If job schedule is empty then the default {@link CronSchedule} is used.
+	 * from application context, singleton beans are cached in the {@link JobBeanCache}.
+	 * If job schedule is empty then the default {@link CronSchedule} is used.
 	 *
 	 * @param job Definition from Job Table
 	 * @return JobInstance
@@ -81,19 +656,43 @@ public class JobScheduler implements ApplicationContextAware {
 	public JobInstance createJobInstance(JobDefinition job) throws BeansException {
 		JobInstance instance = new JobInstance(job);
 		String scheduleBean = isNotEmpty(job.getSchedule()) ? job.getSchedule() : "cronSchedule";
-		JobSchedule schedule = appContext.getBean(scheduleBean, JobSchedule.class);
+		JobSchedule schedule = beanCache.getSchedule(scheduleBean);
 		if (jobImplementationProvider != null) {
 			instance.setImplementation(jobImplementationProvider.getImplementation(job));
 		} else {
-			instance.setImplementation(appContext.getBean(job.getImplementation(), Job.class));
+			String implementationBean = job.getImplementation();
+			Job implementation = beanCache.acquireImplementation(implementationBean);
+			instance.setImplementation(implementation);
+			instance.setReleaseAction(() -> beanCache.releaseImplementation(implementationBean, implementation));
+		}
+		if (partitionManager != null && instance.getImplementation() instanceof PartitionedJob) {
+			instance.setImplementation(partitionManager.coordinator((PartitionedJob) instance.getImplementation()));
 		}
 		instance.setSchedule(schedule);
 		return instance;
 	}
 
+	@Override
+	public synchronized void destroy() {
+		if (dispatchPipeline != null) {
+			dispatchPipeline.shutdown();
+			dispatchPipeline = null;
+		}
+	}
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 		this.appContext = applicationContext;
+		this.beanCache = new JobBeanCache(applicationContext);
+		this.beanCache.setPrototypePoolSize(prototypePoolSize);
+	}
+
+	/**
+	 * Beans may have been replaced, resolve them again.
+	 */
+	@EventListener(ContextRefreshedEvent.class)
+	public void clearBeanCache() {
+		beanCache.clear();
 	}
 
 	public JobImplementationProvider getJobImplementationProvider() {
@@ -104,4 +703,154 @@ public class JobScheduler implements ApplicationContextAware {
 	public void setJobImplementationProvider(JobImplementationProvider jobImplementationProvider) {
 		this.jobImplementationProvider = jobImplementationProvider;
 	}
+
+	public LocalDateTime getLastPoll() {
+		return lastPoll;
+	}
+
+	public boolean hasBacklog() {
+		return backlog;
+	}
+
+	public long getMisfireThreshold() {
+		return misfireThreshold;
+	}
+
+	/**
+	 * @param misfireThreshold milliseconds a job may be late until it is considered misfired. Default is 60000
+	 */
+	public void setMisfireThreshold(long misfireThreshold) {
+		this.misfireThreshold = misfireThreshold;
+	}
+
+	public int getMisfireCatchUp() {
+		return misfireCatchUp;
+	}
+
+	/**
+	 * @param misfireCatchUp max number of misfired jobs started per poll cycle. Default is 0 (no limit)
+	 */
+	public void setMisfireCatchUp(int misfireCatchUp) {
+		this.misfireCatchUp = misfireCatchUp;
+	}
+
+	public int getClaimBatchSize() {
+		return claimBatchSize;
+	}
+
+	/**
+	 * @param claimBatchSize max number of due jobs claimed in one transaction. Default is 0 (lock every job separately)
+	 */
+	public void setClaimBatchSize(int claimBatchSize) {
+		this.claimBatchSize = claimBatchSize;
+	}
+
+	public int getLightweightBatchSize() {
+		return lightweightBatchSize;
+	}
+
+	/**
+	 * @param lightweightBatchSize max number of lightweight jobs run in one worker turn. Default is 20, 0 or 1 disables coalescing
+	 */
+	public void setLightweightBatchSize(int lightweightBatchSize) {
+		this.lightweightBatchSize = lightweightBatchSize;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize max number of due jobs fetched with one query. Default is 100
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	public int getDispatchLanes() {
+		return dispatchLanes;
+	}
+
+	/**
+	 * @param dispatchLanes number of parallel dispatch lanes. Default is 0 (dispatch from the scheduler thread)
+	 */
+	public void setDispatchLanes(int dispatchLanes) {
+		this.dispatchLanes = dispatchLanes;
+	}
+
+	public int getPrototypePoolSize() {
+		return prototypePoolSize;
+	}
+
+	/**
+	 * @param prototypePoolSize max number of idle instances kept per prototype job implementation. Default is 0 (no pooling)
+	 * @see JobBeanCache
+	 */
+	public void setPrototypePoolSize(int prototypePoolSize) {
+		this.prototypePoolSize = prototypePoolSize;
+		if (beanCache != null) beanCache.setPrototypePoolSize(prototypePoolSize);
+	}
+
+	public FairSharePolicy getFairSharePolicy() {
+		return fairSharePolicy;
+	}
+
+	@Autowired(required = false)
+	public void setFairSharePolicy(FairSharePolicy fairSharePolicy) {
+		this.fairSharePolicy = fairSharePolicy;
+	}
+
+	public PartitionMembership getPartitionMembership() {
+		return partitionMembership;
+	}
+
+	@Autowired(required = false)
+	public void setPartitionMembership(PartitionMembership partitionMembership) {
+		this.partitionMembership = partitionMembership;
+	}
+
+	public PartitionManager getPartitionManager() {
+		return partitionManager;
+	}
+
+	@Autowired(required = false)
+	public void setPartitionManager(PartitionManager partitionManager) {
+		this.partitionManager = partitionManager;
+	}
+
+	public LeaderElection getLeaderElection() {
+		return leaderElection;
+	}
+
+	@Autowired(required = false)
+	public void setLeaderElection(LeaderElection leaderElection) {
+		this.leaderElection = leaderElection;
+	}
+
+	public NextRunIndex getNextRunIndex() {
+		return nextRunIndex;
+	}
+
+	@Autowired(required = false)
+	public void setNextRunIndex(NextRunIndex nextRunIndex) {
+		this.nextRunIndex = nextRunIndex;
+	}
+
+	public JobSchedulerMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Autowired(required = false)
+	public void setMetrics(JobSchedulerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	@Autowired(required = false)
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
 }
@@ -0,0 +1,43 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.JobSchedulerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.trim;
+
+/**
+ * Records the scheduling latencies with {@code application.jobscheduler.metrics.type=memory}
+ * ({@link InMemoryJobSchedulerMetrics}) or {@code micrometer} ({@link MicrometerJobSchedulerMetrics}).
+ */
+@Configuration
+public class JobSchedulerMetricsConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "application.jobscheduler.metrics.type", havingValue = "memory")
+	public InMemoryJobSchedulerMetrics inMemoryJobSchedulerMetrics() {
+		return new InMemoryJobSchedulerMetrics();
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+	@ConditionalOnProperty(name = "application.jobscheduler.metrics.type", havingValue = "micrometer")
+	static class Micrometer {
+
+		@Value("${application.jobscheduler.metrics.percentiles:0.5,0.95,0.99}")
+		private String percentiles = "0.5,0.95,0.99";
+
+		@Bean
+		public JobSchedulerMetrics micrometerJobSchedulerMetrics(MeterRegistry registry) {
+			return new MicrometerJobSchedulerMetrics(registry,
+					Arrays.stream(split(percentiles, ',')).mapToDouble(p -> Double.parseDouble(trim(p))).toArray());
+		}
+	}
+}
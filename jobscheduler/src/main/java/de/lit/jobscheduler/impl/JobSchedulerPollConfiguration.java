@@ -0,0 +1,59 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/**
+ * Schedules {@link JobScheduler#run()}: with a fixed delay of {@code application.jobscheduler.runinterval}
+ * or, with {@code application.jobscheduler.poll.adaptive=true}, with the {@link AdaptivePollTrigger}.
+ */
+@Configuration
+public class JobSchedulerPollConfiguration implements SchedulingConfigurer {
+
+	private final JobScheduler jobScheduler;
+
+	private final JobDefinitionDao jobDao;
+
+	@Value("${application.jobscheduler.initialDelay:10000}")
+	private long initialDelay = 10000;
+
+	@Value("${application.jobscheduler.runinterval:20000}")
+	private long runInterval = 20000;
+
+	@Value("${application.jobscheduler.poll.adaptive:false}")
+	private boolean adaptive = false;
+
+	@Value("${application.jobscheduler.poll.mininterval:1000}")
+	private long minInterval = 1000;
+
+	@Value("${application.jobscheduler.poll.maxinterval:60000}")
+	private long maxInterval = 60000;
+
+	@Autowired
+	public JobSchedulerPollConfiguration(JobScheduler jobScheduler, JobDefinitionDao jobDao) {
+		this.jobScheduler = jobScheduler;
+		this.jobDao = jobDao;
+	}
+
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		if (adaptive) {
+			AdaptivePollTrigger trigger = new AdaptivePollTrigger(jobScheduler, jobDao);
+			trigger.setInitialDelay(initialDelay);
+			trigger.setInterval(runInterval);
+			trigger.setMinInterval(minInterval);
+			trigger.setMaxInterval(maxInterval);
+			taskRegistrar.addTriggerTask(jobScheduler::run, trigger);
+		} else {
+			taskRegistrar.addFixedDelayTask(new FixedDelayTask(jobScheduler::run,
+					Duration.ofMillis(runInterval), Duration.ofMillis(initialDelay)));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package de.lit.jobscheduler.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies in milliseconds with log-linear buckets: values below 16 are
+ * counted exactly, larger values in 8 buckets per power of two. Percentiles are therefore
+ * accurate to 12.5%, with constant memory for any range of values.
+ */
+public class LatencyHistogram {
+
+	private static final int LINEAR = 16;
+	private static final int SUB_BUCKETS = 8;
+	private static final int SUB_BITS = 3;
+
+	private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (63 - 4) * SUB_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long millis) {
+		long value = Math.max(0, millis);
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * @param quantile between 0 and 1, e.g. 0.99
+	 * @return upper bound of the bucket containing the quantile, at most the max value. 0 if empty
+	 */
+	public long percentile(double quantile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long total = count.get();
+		return total == 0 ? 0 : (double) sum.get() / total;
+	}
+
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	static int indexOf(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR + (magnitude - 4) * SUB_BUCKETS + sub;
+	}
+
+	static long upperBoundOf(int index) {
+		if (index < LINEAR) {
+			return index;
+		}
+		int magnitude = (index - LINEAR) / SUB_BUCKETS + 4;
+		int sub = (index - LINEAR) % SUB_BUCKETS;
+		long width = 1L << (magnitude - SUB_BITS);
+		return (1L << magnitude) + (sub + 1) * width - 1;
+	}
+}
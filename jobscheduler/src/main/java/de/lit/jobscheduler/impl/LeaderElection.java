@@ -0,0 +1,211 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobAssignmentDao;
+import de.lit.jobscheduler.dao.JobLeaseDao;
+import de.lit.jobscheduler.dao.JobNodeDao;
+import de.lit.jobscheduler.entity.JobAssignment;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Leader election, enabled with {@code application.jobscheduler.leader.enable=true}.
+ * Every node updates its heartbeat in the {@code JOB_NODE} table and tries to acquire the
+ * lease row in {@code JOB_LEASE}. Only the node owning the lease queries the due jobs, claims
+ * them and assigns them to the live nodes in {@code JOB_ASSIGNMENT}. All nodes, the leader
+ * included, poll their assignments by node name and run the assigned jobs.
+ * <p></p>
+ * The lease is renewed every {@code leader.renewinterval} and expires after {@code leader.ttl}.
+ * The leader stops assigning jobs after half of the ttl without successful renewal, so another
+ * node can only take over when the old leader has already stepped back. The node name
+ * ({@link JobExecutor#getNodeName()}) has to be unique in the cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "application.jobscheduler.leader.enable", havingValue = "true")
+public class LeaderElection implements DisposableBean {
+	private final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+	static final String LEASE_NAME = "jobscheduler";
+
+	private final JobLeaseDao leaseDao;
+
+	private final JobAssignmentDao assignmentDao;
+
+	private final JobNodeDao jobNodeDao;
+
+	private final JobExecutor jobExecutor;
+
+	@Value("${application.jobscheduler.leader.ttl:30000}")
+	private long ttl = 30000;
+
+	private String nodeName;
+
+	private volatile List<String> liveNodes = Collections.emptyList();
+
+	private volatile LocalDateTime leaderUntil;
+
+	@Autowired
+	public LeaderElection(JobLeaseDao leaseDao, JobAssignmentDao assignmentDao, JobNodeDao jobNodeDao, JobExecutor jobExecutor) {
+		this.leaseDao = leaseDao;
+		this.assignmentDao = assignmentDao;
+		this.jobNodeDao = jobNodeDao;
+		this.jobExecutor = jobExecutor;
+	}
+
+	/**
+	 * Update the heartbeat of this node, the list of live nodes and acquire or renew the lease.
+	 */
+	@Scheduled(fixedDelayString = "${application.jobscheduler.leader.renewinterval:10000}")
+	public synchronized void renew() {
+		if (nodeName == null) {
+			nodeName = jobExecutor.getNodeName();
+		}
+		LocalDateTime now = LocalDateTime.now();
+		jobNodeDao.save(new JobNode(nodeName, now));
+		Set<String> nodes = new TreeSet<>();
+		for (JobNode node : jobNodeDao.findAllByHeartbeatAfterOrderByName(now.minus(ttl, ChronoUnit.MILLIS))) {
+			nodes.add(node.getName());
+		}
+		nodes.add(nodeName);
+		liveNodes = new ArrayList<>(nodes);
+
+		boolean wasLeader = isLeader();
+		boolean leader = acquireLease(now);
+		leaderUntil = leader ? now.plus(ttl / 2, ChronoUnit.MILLIS) : null;
+		if (leader != wasLeader) {
+			logger.info(leader ? "Node {} is leader now" : "Node {} is no longer leader", nodeName);
+		}
+	}
+
+	private boolean acquireLease(LocalDateTime now) {
+		LocalDateTime expires = now.plus(ttl, ChronoUnit.MILLIS);
+		if (leaseDao.acquire(LEASE_NAME, nodeName, now, expires) > 0) {
+			return true;
+		}
+		if (leaseDao.findById(LEASE_NAME).isPresent()) {
+			return false;
+		}
+		try {
+			// the first node of a new cluster creates the lease, the insert fails if another node was faster
+			return leaseDao.create(LEASE_NAME, nodeName, expires) > 0;
+		} catch (DataAccessException e) {
+			logger.debug("Lease created by another node: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * @return {@code true} if this node holds the lease
+	 */
+	public boolean isLeader() {
+		LocalDateTime until = leaderUntil;
+		return until != null && LocalDateTime.now().isBefore(until);
+	}
+
+	/**
+	 * Leader: assign claimed jobs to the live nodes, every job to the node with the fewest
+	 * outstanding assignments.
+	 */
+	public void assign(Collection<JobDefinition> claimedJobs) {
+		Map<String, Integer> load = new LinkedHashMap<>();
+		liveNodes.forEach(node -> load.put(node, 0));
+		if (load.isEmpty()) {
+			load.put(getNodeName(), 0);
+		}
+		for (JobAssignment assignment : assignmentDao.findAllByOrderByAssigned()) {
+			load.computeIfPresent(assignment.getNodeName(), (node, count) -> count + 1);
+		}
+		LocalDateTime now = LocalDateTime.now();
+		for (JobDefinition job : claimedJobs) {
+			String node = Collections.min(load.entrySet(), Map.Entry.comparingByValue()).getKey();
+			assignmentDao.save(new JobAssignment(job.getName(), node, now));
+			load.merge(node, 1, Integer::sum);
+		}
+		logger.debug("Assigned {} jobs to {} nodes", claimedJobs.size(), load.size());
+	}
+
+	/**
+	 * Leader: remove assignments of nodes that are dead or did not pick them up within the ttl.
+	 *
+	 * @return names of the removed jobs, still marked as running
+	 */
+	public List<String> reclaimStaleAssignments() {
+		LocalDateTime stale = LocalDateTime.now().minus(ttl, ChronoUnit.MILLIS);
+		List<String> reclaimed = new ArrayList<>();
+		for (JobAssignment assignment : assignmentDao.findAllByOrderByAssigned()) {
+			if ((!liveNodes.contains(assignment.getNodeName()) || assignment.getAssigned().isBefore(stale))
+					&& assignmentDao.deleteAssignment(assignment.getJobName(), assignment.getNodeName()) > 0) {
+				logger.warn("Job {} not picked up by node {}, reassigning", assignment.getJobName(), assignment.getNodeName());
+				reclaimed.add(assignment.getJobName());
+			}
+		}
+		return reclaimed;
+	}
+
+	/**
+	 * Remove and return the jobs assigned to this node.
+	 *
+	 * @return names of the assigned jobs, marked as running by the leader
+	 */
+	public List<String> takeAssignments() {
+		List<String> names = new ArrayList<>();
+		for (JobAssignment assignment : assignmentDao.findAllByNodeName(getNodeName())) {
+			// the leader may have reclaimed it meanwhile
+			if (assignmentDao.deleteAssignment(assignment.getJobName(), nodeName) > 0) {
+				names.add(assignment.getJobName());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Give up the lease and leave the cluster, so another node takes over without waiting for the ttl.
+	 */
+	@Override
+	public synchronized void destroy() {
+		if (nodeName == null) {
+			return;
+		}
+		leaderUntil = null;
+		try {
+			leaseDao.release(LEASE_NAME, nodeName);
+			jobNodeDao.deleteById(nodeName);
+		} catch (Exception e) {
+			logger.warn("Cannot release lease of node {}: {}", nodeName, e.getMessage());
+		}
+	}
+
+	public synchronized String getNodeName() {
+		if (nodeName == null) {
+			nodeName = jobExecutor.getNodeName();
+		}
+		return nodeName;
+	}
+
+	public List<String> getLiveNodes() {
+		return liveNodes;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * @param ttl lease duration in milliseconds, has to be more than twice the renew interval. Default is 30000
+	 */
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+}
@@ -0,0 +1,48 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.JobSchedulerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the latencies as Micrometer timers with client side percentiles: {@code jobscheduler.latency}
+ * for all jobs and {@code jobscheduler.job.latency} per job, both tagged with the latency {@code type}.
+ * Enable with {@code application.jobscheduler.metrics.type=micrometer}, requires {@code micrometer-core}.
+ */
+public class MicrometerJobSchedulerMetrics implements JobSchedulerMetrics {
+
+	private final MeterRegistry registry;
+
+	private final double[] percentiles;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	/**
+	 * @param percentiles published percentiles, e.g. {@code 0.5, 0.95, 0.99}
+	 */
+	public MicrometerJobSchedulerMetrics(MeterRegistry registry, double... percentiles) {
+		this.registry = registry;
+		this.percentiles = percentiles.clone();
+	}
+
+	@Override
+	public void record(Latency latency, String jobName, long millis) {
+		String type = latency.name().toLowerCase(Locale.ROOT);
+		timers.computeIfAbsent(type, k -> Timer.builder("jobscheduler.latency")
+						.tag("type", type)
+						.publishPercentiles(percentiles)
+						.register(registry))
+				.record(millis, TimeUnit.MILLISECONDS);
+		timers.computeIfAbsent(type + ':' + jobName, k -> Timer.builder("jobscheduler.job.latency")
+						.tag("type", type)
+						.tag("job", jobName)
+						.publishPercentiles(percentiles)
+						.register(registry))
+				.record(millis, TimeUnit.MILLISECONDS);
+	}
+}
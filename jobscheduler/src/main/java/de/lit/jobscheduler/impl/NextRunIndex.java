@@ -0,0 +1,63 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of the next run times of all scheduled jobs. Used by the
+ * {@link EventDrivenDispatcher} to sleep until the next job is due instead of
+ * polling the job table in a fixed interval.
+ * <p></p>
+ * The index is loaded at startup and kept current by {@link JobScheduler} and
+ * {@link JobExecutorImpl} whenever they change the next run time of a job.
+ */
+public interface NextRunIndex {
+
+	/**
+	 * Replace the whole index content with the next run times of the given jobs.
+	 *
+	 * @param jobs scheduled jobs, usually from {@code JobDefinitionDao.findAllScheduled()}
+	 */
+	void reload(Collection<JobDefinition> jobs);
+
+	/**
+	 * Set the next run time of a job. A {@code null} value removes the job from the index.
+	 *
+	 * @param name    job name
+	 * @param nextRun next run time or null
+	 */
+	void update(String name, LocalDateTime nextRun);
+
+	/**
+	 * Set the next run time of a job only if the job is not already part of the index.
+	 *
+	 * @param name    job name
+	 * @param nextRun next run time, not null
+	 */
+	void updateIfAbsent(String name, LocalDateTime nextRun);
+
+	/**
+	 * Wait until at least one job is due or the timeout elapsed. All due jobs are
+	 * removed from the index.
+	 *
+	 * @param timeout maximum time to wait
+	 * @param unit    unit of timeout
+	 * @return names of due jobs, empty if timeout elapsed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	List<String> awaitDue(long timeout, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * @return earliest next run time in index or null if index is empty
+	 */
+	LocalDateTime peekNextRun();
+
+	/**
+	 * @return number of jobs in index
+	 */
+	int size();
+}
@@ -0,0 +1,221 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.Job;
+import de.lit.jobscheduler.PartitionedJob;
+import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.dao.JobPartitionDao;
+import de.lit.jobscheduler.entity.JobExecution;
+import de.lit.jobscheduler.entity.JobPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.lit.jobscheduler.entity.JobPartition.Status.*;
+import static org.apache.commons.lang3.StringUtils.left;
+
+/**
+ * Partitioned execution of {@link PartitionedJob}s, enabled with {@code application.jobscheduler.partitionedjob.enable=true}.
+ * The thread that runs the job writes the partitions to the {@code JOB_PARTITION} table, processes them
+ * itself and waits until all are finished. Meanwhile idle worker threads of all nodes steal pending
+ * partitions every {@code partitionedjob.interval}: a partition is claimed by a conditional update, so
+ * every partition is processed exactly once.
+ * <p></p>
+ * Partitions of an execution that is not running anymore are marked as failed instead of processed.
+ * Partitions that were running on a crashed node are reset when the node polls for the first time
+ * after its restart, so the node name has to be stable.
+ */
+@Component
+@ConditionalOnProperty(name = "application.jobscheduler.partitionedjob.enable", havingValue = "true")
+public class PartitionManager {
+	private final Logger logger = LoggerFactory.getLogger(PartitionManager.class);
+
+	private static final int CLAIM_CANDIDATES = 10;
+
+	private final JobPartitionDao partitionDao;
+
+	private final JobExecutionDao jobExecutionDao;
+
+	private final JobExecutor jobExecutor;
+
+	private final ObjectProvider<JobScheduler> jobScheduler;
+
+	@Value("${application.jobscheduler.partitionedjob.interval:1000}")
+	private long pollInterval = 1000;
+
+	// steal tasks submitted to the job executor that did not start yet
+	private final AtomicInteger stealing = new AtomicInteger();
+
+	private volatile boolean recovered;
+
+	@Autowired
+	public PartitionManager(JobPartitionDao partitionDao, JobExecutionDao jobExecutionDao, JobExecutor jobExecutor,
+							ObjectProvider<JobScheduler> jobScheduler) {
+		this.partitionDao = partitionDao;
+		this.jobExecutionDao = jobExecutionDao;
+		this.jobExecutor = jobExecutor;
+		this.jobScheduler = jobScheduler;
+	}
+
+	/**
+	 * @return job implementation that runs the given job partitioned
+	 */
+	public Job coordinator(PartitionedJob job) {
+		return new Coordinator(job);
+	}
+
+	/**
+	 * Start one steal task per idle worker thread, as long as there are pending partitions.
+	 */
+	@Scheduled(fixedDelayString = "${application.jobscheduler.partitionedjob.interval:1000}")
+	public void stealPartitions() {
+		if (!recovered) {
+			recovered = true;
+			int reset = partitionDao.resetRunning(jobExecutor.getNodeName());
+			if (reset > 0) {
+				logger.warn("Reset {} partitions left running by a previous run of node {}", reset, jobExecutor.getNodeName());
+			}
+		}
+		int idle = jobExecutor.idleThreads() - stealing.get();
+		if (idle <= 0) {
+			return;
+		}
+		int pending = partitionDao.findPending(null, idle).size();
+		for (int i = 0; i < pending; i++) {
+			stealing.incrementAndGet();
+			try {
+				jobExecutor.execute(this::stealPartition);
+			} catch (RejectedExecutionException e) {
+				stealing.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	private void stealPartition() {
+		stealing.decrementAndGet();
+		JobPartition partition = claimNext(null);
+		if (partition == null) {
+			return;
+		}
+		JobInstance instance = null;
+		try {
+			JobExecution execution = jobExecutionDao.findById(partition.getExecutionId()).orElse(null);
+			if (execution == null || execution.getStatus() != JobExecution.Status.RUNNING) {
+				partitionDao.finish(partition.getId(), ERROR, LocalDateTime.now(), "Execution is not running anymore");
+				return;
+			}
+			instance = jobScheduler.getObject().createJobInstance(execution.getJobDefinition());
+			Job implementation = instance.getImplementation();
+			if (implementation instanceof Coordinator) {
+				implementation = ((Coordinator) implementation).job;
+			}
+			if (!(implementation instanceof PartitionedJob)) {
+				partitionDao.finish(partition.getId(), ERROR, LocalDateTime.now(), "Job is not a PartitionedJob");
+				return;
+			}
+			runPartition((PartitionedJob) implementation, execution, partition);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			logger.error("Cannot run partition " + partition.getPartitionKey() + " of Job " + partition.getJobName(), e);
+			partitionDao.finish(partition.getId(), ERROR, LocalDateTime.now(), left(e.toString(), 4000));
+		} finally {
+			if (instance != null) instance.release();
+		}
+	}
+
+	void coordinate(PartitionedJob job, JobExecution execution) throws Exception {
+		String jobName = execution.getJobDefinition().getName();
+		List<JobPartition> partitions = new ArrayList<>();
+		for (String key : job.partition(execution)) {
+			partitions.add(new JobPartition(execution.getId(), jobName, key));
+		}
+		if (partitions.isEmpty()) {
+			return;
+		}
+		partitionDao.saveAll(partitions);
+		logger.info("Job \"{}\" split into {} partitions", jobName, partitions.size());
+
+		while (true) {
+			JobPartition partition = claimNext(execution.getId());
+			if (partition != null) {
+				runPartition(job, execution, partition);
+				continue;
+			}
+			partitions = partitionDao.findAllByExecutionId(execution.getId());
+			if (partitions.stream().noneMatch(p -> p.getStatus() == PENDING || p.getStatus() == RUNNING)) {
+				break;
+			}
+			// partitions stolen by other threads are still running
+			Thread.sleep(pollInterval);
+		}
+
+		List<JobPartition> failed = partitions.stream().filter(p -> p.getStatus() == ERROR).toList();
+		if (failed.isEmpty()) {
+			return;
+		}
+		String message = failed.size() + " of " + partitions.size() + " partitions failed, first: "
+				+ failed.get(0).getPartitionKey() + ": " + failed.get(0).getMessage();
+		if (failed.size() == partitions.size()) {
+			throw new IllegalStateException(left(message, 4000));
+		}
+		execution.setStatus(JobExecution.Status.PARTIAL_SUCCESS);
+		execution.setMessage(left(message, 4000));
+		jobExecutionDao.save(execution);
+	}
+
+	private JobPartition claimNext(Long executionId) {
+		String nodeName = jobExecutor.getNodeName();
+		for (JobPartition partition : partitionDao.findPending(executionId, CLAIM_CANDIDATES)) {
+			if (partitionDao.claim(partition.getId(), nodeName, LocalDateTime.now()) > 0) {
+				return partition;
+			}
+		}
+		return null;
+	}
+
+	private void runPartition(PartitionedJob job, JobExecution execution, JobPartition partition) throws InterruptedException {
+		try {
+			job.runPartition(execution, partition.getPartitionKey());
+			partitionDao.finish(partition.getId(), SUCCESS, LocalDateTime.now(), null);
+		} catch (InterruptedException e) {
+			partitionDao.finish(partition.getId(), ERROR, LocalDateTime.now(), "Aborted");
+			throw e;
+		} catch (Exception e) {
+			logger.error("Partition " + partition.getPartitionKey() + " of Job " + partition.getJobName(), e);
+			partitionDao.finish(partition.getId(), ERROR, LocalDateTime.now(), left(e.toString(), 4000));
+		}
+	}
+
+	public long getPollInterval() {
+		return pollInterval;
+	}
+
+	public void setPollInterval(long pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	private class Coordinator implements Job {
+		private final PartitionedJob job;
+
+		Coordinator(PartitionedJob job) {
+			this.job = job;
+		}
+
+		@Override
+		public void run(JobExecution execution) throws Exception {
+			coordinate(job, execution);
+		}
+	}
+}
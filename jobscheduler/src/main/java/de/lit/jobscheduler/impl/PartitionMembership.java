@@ -0,0 +1,137 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobNodeDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Partitioned mode, enabled with {@code application.jobscheduler.partition.enable=true}.
+ * Every node registers in the {@code JOB_NODE} table and updates its heartbeat periodically.
+ * Jobs are assigned to the live nodes by a {@link ConsistentHashRing}, so every node only
+ * dispatches its own partition instead of competing with all other nodes for the same rows.
+ * Nodes without heartbeat within {@code partition.timeout} are dropped from the ring and their
+ * jobs are taken over by the remaining nodes.
+ * <p></p>
+ * Jobs of a run queue are assigned by run queue, so the whole queue belongs to one node.
+ * The node name is {@link JobExecutor#getNodeName()} and has to be unique in the cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "application.jobscheduler.partition.enable", havingValue = "true")
+public class PartitionMembership implements DisposableBean {
+	private final Logger logger = LoggerFactory.getLogger(PartitionMembership.class);
+
+	private final JobNodeDao jobNodeDao;
+
+	private final JobExecutor jobExecutor;
+
+	@Value("${application.jobscheduler.partition.timeout:30000}")
+	private long timeout = 30000;
+
+	@Value("${application.jobscheduler.partition.vnodes:100}")
+	private int virtualNodes = 100;
+
+	private String nodeName;
+
+	private volatile ConsistentHashRing ring;
+
+	@Autowired
+	public PartitionMembership(JobNodeDao jobNodeDao, JobExecutor jobExecutor) {
+		this.jobNodeDao = jobNodeDao;
+		this.jobExecutor = jobExecutor;
+	}
+
+	/**
+	 * Update the heartbeat of this node and rebuild the ring if nodes joined or left.
+	 */
+	@Scheduled(fixedDelayString = "${application.jobscheduler.partition.heartbeat:10000}")
+	public synchronized void heartbeat() {
+		if (nodeName == null) {
+			nodeName = jobExecutor.getNodeName();
+		}
+		LocalDateTime now = LocalDateTime.now();
+		jobNodeDao.save(new JobNode(nodeName, now));
+		Set<String> alive = new TreeSet<>();
+		for (JobNode node : jobNodeDao.findAllByHeartbeatAfterOrderByName(now.minus(timeout, ChronoUnit.MILLIS))) {
+			alive.add(node.getName());
+		}
+		alive.add(nodeName);
+		if (ring == null || !ring.getNodes().equals(alive)) {
+			logger.info("Partition membership changed, live nodes: {}", alive);
+			ring = new ConsistentHashRing(alive, virtualNodes);
+		}
+	}
+
+	/**
+	 * @return {@code true} if the job belongs to the partition of this node
+	 */
+	public boolean owns(JobDefinition job) {
+		if (ring == null) {
+			heartbeat();
+		}
+		return nodeName.equals(ring.ownerOf(partitionKey(job)));
+	}
+
+	protected String partitionKey(JobDefinition job) {
+		return isNotBlank(job.getRunQueue()) ? job.getRunQueue() : job.getName();
+	}
+
+	/**
+	 * Leave the cluster, so the other nodes take over without waiting for the timeout.
+	 */
+	@Override
+	public synchronized void destroy() {
+		if (nodeName != null) {
+			try {
+				jobNodeDao.deleteById(nodeName);
+			} catch (Exception e) {
+				logger.warn("Cannot unregister node {}: {}", nodeName, e.getMessage());
+			}
+		}
+	}
+
+	public String getNodeName() {
+		return nodeName;
+	}
+
+	public ConsistentHashRing getRing() {
+		return ring;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout milliseconds without heartbeat until a node is considered dead. Default is 30000
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getVirtualNodes() {
+		return virtualNodes;
+	}
+
+	/**
+	 * @param virtualNodes number of ring positions per node. Default is 100
+	 */
+	public void setVirtualNodes(int virtualNodes) {
+		this.virtualNodes = virtualNodes;
+		this.ring = null;
+	}
+}
@@ -0,0 +1,82 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded work queue of the job executor. Waiting jobs are taken by priority (highest first),
+ * then by next run time. Other tasks than {@link JobInstance} have priority 0.
+ * <p></p>
+ * {@link PriorityBlockingQueue} is unbounded, so {@code offer} is limited here to the capacity:
+ * a full queue lets the executor start more threads up to {@code maxPoolSize} or reject the job,
+ * just like a bounded {@code LinkedBlockingQueue}.
+ */
+public class PriorityJobQueue extends PriorityBlockingQueue<Runnable> {
+
+	static final Comparator<Runnable> JOB_ORDER = Comparator
+			.comparingInt(PriorityJobQueue::priorityOf).reversed()
+			.thenComparing(PriorityJobQueue::nextRunOf, Comparator.nullsLast(Comparator.naturalOrder()));
+
+	private final int capacity;
+
+	private final ReentrantLock offerLock = new ReentrantLock();
+
+	public PriorityJobQueue(int capacity) {
+		super(Math.min(capacity, 64), JOB_ORDER);
+		this.capacity = capacity;
+	}
+
+	@Override
+	public boolean offer(Runnable r) {
+		// offer(timeout) delegates here
+		offerLock.lock();
+		try {
+			if (size() >= capacity) {
+				return false;
+			}
+			return super.offer(r);
+		} finally {
+			offerLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean add(Runnable r) {
+		if (!offer(r)) {
+			throw new IllegalStateException("Queue full");
+		}
+		return true;
+	}
+
+	/**
+	 * Does not block, fails if the queue is full.
+	 */
+	@Override
+	public void put(Runnable r) {
+		add(r);
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Math.max(0, capacity - size());
+	}
+
+	private static int priorityOf(Runnable r) {
+		if (r instanceof JobInstance) {
+			return ((JobInstance) r).getJob().getPriority();
+		}
+		return 0;
+	}
+
+	private static LocalDateTime nextRunOf(Runnable r) {
+		if (r instanceof JobInstance) {
+			JobDefinition job = ((JobInstance) r).getJob();
+			return job.getNextRun();
+		}
+		return null;
+	}
+}
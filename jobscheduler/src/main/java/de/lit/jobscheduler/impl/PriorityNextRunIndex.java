@@ -0,0 +1,133 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link NextRunIndex} backed by a sorted set ordered by next run time.
+ * Insert, update and removal are {@code O(log n)}.
+ */
+public class PriorityNextRunIndex implements NextRunIndex {
+
+	private record Entry(LocalDateTime nextRun, String name) implements Comparable<Entry> {
+		@Override
+		public int compareTo(Entry o) {
+			int c = nextRun.compareTo(o.nextRun);
+			return c != 0 ? c : name.compareTo(o.name);
+		}
+	}
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final TreeSet<Entry> queue = new TreeSet<>();
+
+	@Override
+	public void reload(Collection<JobDefinition> jobs) {
+		lock.lock();
+		try {
+			entries.clear();
+			queue.clear();
+			for (JobDefinition job : jobs) {
+				if (job.getNextRun() != null) {
+					put(job.getName(), job.getNextRun());
+				}
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void update(String name, LocalDateTime nextRun) {
+		lock.lock();
+		try {
+			Entry old = entries.remove(name);
+			if (old != null) {
+				queue.remove(old);
+			}
+			if (nextRun != null) {
+				put(name, nextRun);
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void updateIfAbsent(String name, LocalDateTime nextRun) {
+		lock.lock();
+		try {
+			if (!entries.containsKey(name)) {
+				put(name, nextRun);
+				changed.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void put(String name, LocalDateTime nextRun) {
+		Entry entry = new Entry(nextRun, name);
+		entries.put(name, entry);
+		queue.add(entry);
+	}
+
+	@Override
+	public List<String> awaitDue(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (true) {
+				LocalDateTime now = LocalDateTime.now();
+				if (!queue.isEmpty() && !queue.first().nextRun().isAfter(now)) {
+					List<String> due = new ArrayList<>();
+					while (!queue.isEmpty() && !queue.first().nextRun().isAfter(now)) {
+						Entry entry = queue.pollFirst();
+						entries.remove(entry.name());
+						due.add(entry.name());
+					}
+					return due;
+				}
+				long wait = deadline - System.nanoTime();
+				if (wait <= 0) {
+					return Collections.emptyList();
+				}
+				if (!queue.isEmpty()) {
+					wait = Math.min(wait, Duration.between(now, queue.first().nextRun()).toNanos());
+				}
+				changed.awaitNanos(wait);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public LocalDateTime peekNextRun() {
+		lock.lock();
+		try {
+			return queue.isEmpty() ? null : queue.first().nextRun();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
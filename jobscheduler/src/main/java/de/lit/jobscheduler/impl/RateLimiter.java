@@ -0,0 +1,182 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobRateLimitDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobRateLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Cluster-wide rate limits, enabled with {@code application.jobscheduler.ratelimit.enable=true}.
+ * A row in the {@code JOB_RATE_LIMIT} table is a token bucket for the job of the same name, or
+ * for all jobs of a run queue if named {@code queue:<RUN_QUEUE>}. The job scheduler takes a token
+ * of both buckets before it claims a job, a job without tokens stays due and is deferred.
+ * <p></p>
+ * Tokens are taken by a conditional update on the version of the bucket, up to {@code ratelimit.prefetch}
+ * at once. They are cached locally until used, so a burst may exceed the bucket by the prefetched tokens
+ * of each node. Empty buckets are not asked again before their next token is due, and names without a
+ * bucket not for {@code ratelimit.cachettl} milliseconds.
+ */
+@Component
+@ConditionalOnProperty(name = "application.jobscheduler.ratelimit.enable", havingValue = "true")
+public class RateLimiter {
+	private final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+	public static final String QUEUE_PREFIX = "queue:";
+
+	private static final int MAX_RETRIES = 3;
+
+	private final JobRateLimitDao rateLimitDao;
+
+	@Value("${application.jobscheduler.ratelimit.prefetch:1}")
+	private int prefetch = 1;
+
+	@Value("${application.jobscheduler.ratelimit.cachettl:10000}")
+	private long cacheTtl = 10000;
+
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+	@Autowired
+	public RateLimiter(JobRateLimitDao rateLimitDao) {
+		this.rateLimitDao = rateLimitDao;
+	}
+
+	/**
+	 * Take a token of the job's bucket and of its run queue's bucket.
+	 *
+	 * @return false if the job has to be deferred
+	 */
+	public boolean tryAcquire(JobDefinition job) {
+		if (!tryAcquire(job.getName())) {
+			return false;
+		}
+		if (isNotBlank(job.getRunQueue()) && !tryAcquire(QUEUE_PREFIX + job.getRunQueue())) {
+			refund(job.getName());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return the tokens of a job that was not started after all, e.g. because another node claimed it.
+	 * The tokens are kept locally for the next job of the buckets.
+	 */
+	public void refund(JobDefinition job) {
+		refund(job.getName());
+		if (isNotBlank(job.getRunQueue())) {
+			refund(QUEUE_PREFIX + job.getRunQueue());
+		}
+	}
+
+	/**
+	 * @return false if the bucket of the given name has no token left
+	 */
+	public boolean tryAcquire(String name) {
+		Bucket bucket = buckets.computeIfAbsent(name, key -> new Bucket());
+		synchronized (bucket) {
+			if (bucket.tokens > 0) {
+				bucket.tokens--;
+				return true;
+			}
+			long now = System.currentTimeMillis();
+			if (now < bucket.checkAfter) {
+				return !bucket.limited;
+			}
+			fetch(name, bucket, now);
+			if (bucket.tokens > 0) {
+				bucket.tokens--;
+				return true;
+			}
+			return !bucket.limited;
+		}
+	}
+
+	private void refund(String name) {
+		Bucket bucket = buckets.get(name);
+		if (bucket != null) {
+			synchronized (bucket) {
+				if (bucket.limited) bucket.tokens++;
+			}
+		}
+	}
+
+	private void fetch(String name, Bucket bucket, long now) {
+		try {
+			for (int i = 0; i < MAX_RETRIES; i++) {
+				JobRateLimit rateLimit = rateLimitDao.findById(name).orElse(null);
+				if (rateLimit == null) {
+					bucket.limited = false;
+					bucket.checkAfter = now + cacheTtl;
+					return;
+				}
+				bucket.limited = true;
+				LocalDateTime time = LocalDateTime.now();
+				long version = rateLimit.getVersion();
+				int taken = rateLimit.take(Math.max(1, prefetch), time);
+				if (taken == 0) {
+					LocalDateTime nextToken = rateLimit.nextToken(time);
+					long wait = nextToken != null ? Duration.between(time, nextToken).toMillis() : cacheTtl;
+					bucket.checkAfter = now + Math.max(0, Math.min(wait, cacheTtl));
+					logger.debug("Rate limit {} exhausted, next token at {}", name, nextToken);
+					return;
+				}
+				if (rateLimitDao.update(name, rateLimit.getTokens(), rateLimit.getLastRefill(), version) > 0) {
+					bucket.tokens += taken;
+					return;
+				}
+			}
+			logger.debug("Rate limit {} is contended, retry in next schedule cycle", name);
+		} catch (Exception e) {
+			logger.error("Cannot take tokens of rate limit " + name, e);
+			bucket.limited = true;
+			bucket.checkAfter = now + cacheTtl;
+		}
+	}
+
+	/**
+	 * @return number of tokens cached locally for the bucket of the given name
+	 */
+	public int cachedTokens(String name) {
+		Bucket bucket = buckets.get(name);
+		return bucket != null ? bucket.tokens : 0;
+	}
+
+	public int getPrefetch() {
+		return prefetch;
+	}
+
+	/**
+	 * @param prefetch max number of tokens taken from a bucket with one update. Default is 1
+	 */
+	public void setPrefetch(int prefetch) {
+		this.prefetch = prefetch;
+	}
+
+	public long getCacheTtl() {
+		return cacheTtl;
+	}
+
+	/**
+	 * @param cacheTtl time in milliseconds until a name without bucket or an empty bucket is looked up again. Default is 10000
+	 */
+	public void setCacheTtl(long cacheTtl) {
+		this.cacheTtl = cacheTtl;
+	}
+
+	private static class Bucket {
+		private int tokens;
+		private boolean limited;
+		private long checkAfter;
+	}
+}
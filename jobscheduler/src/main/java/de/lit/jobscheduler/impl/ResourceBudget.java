@@ -0,0 +1,76 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Budget of abstract resource units of a node, e.g. CPU or memory classes, shared by all executor
+ * pools. Every running job occupies the {@code WEIGHT} of its job definition, so a few heavy jobs
+ * can fill the node while many light jobs still fit. Created by {@link JobExecutorFactoryBean}
+ * if {@code application.jobexecutor.budget} is set.
+ * <p></p>
+ * A job that is heavier than the whole budget is admitted if nothing else is running, so it
+ * cannot starve.
+ */
+public class ResourceBudget {
+
+	private final int capacity;
+
+	private final AtomicInteger used = new AtomicInteger();
+
+	public ResourceBudget(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return weight of the job, at least 1
+	 */
+	public static int weightOf(JobDefinition job) {
+		return job.getWeight() != null ? Math.max(1, job.getWeight()) : 1;
+	}
+
+	/**
+	 * @return true if the weight fits into the remaining budget right now
+	 */
+	public boolean fits(int weight) {
+		int current = used.get();
+		return current == 0 || current + weight <= capacity;
+	}
+
+	/**
+	 * Occupy the weight if it fits.
+	 *
+	 * @return false if the weight does not fit
+	 */
+	public boolean tryAcquire(int weight) {
+		while (true) {
+			int current = used.get();
+			if (current > 0 && current + weight > capacity) {
+				return false;
+			}
+			if (used.compareAndSet(current, current + weight)) {
+				return true;
+			}
+		}
+	}
+
+	public void release(int weight) {
+		used.addAndGet(-weight);
+	}
+
+	/**
+	 * @return number of units that are not occupied, 0 if the budget is exceeded by a heavy job
+	 */
+	public int remaining() {
+		return Math.max(0, capacity - used.get());
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getUsed() {
+		return used.get();
+	}
+}
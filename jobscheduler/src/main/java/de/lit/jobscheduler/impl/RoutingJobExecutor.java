@@ -0,0 +1,181 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Job executor with named executor pools (bulkheads). Every job runs in the pool named by its
+ * {@code executor} column, or in the default pool if it has none or the pool does not exist,
+ * so a burst of long running jobs in one pool cannot occupy the threads of the others.
+ * Created by {@link JobExecutorFactoryBean} if {@code application.jobexecutor.pools} is set.
+ */
+public class RoutingJobExecutor implements JobExecutor, DisposableBean {
+
+	private final JobExecutorImpl defaultExecutor;
+
+	private final Map<String, JobExecutorImpl> pools;
+
+	public RoutingJobExecutor(JobExecutorImpl defaultExecutor, Map<String, JobExecutorImpl> pools) {
+		this.defaultExecutor = defaultExecutor;
+		this.pools = new LinkedHashMap<>(pools);
+	}
+
+	/**
+	 * @return pool of the given name or the default pool
+	 */
+	public JobExecutorImpl executorFor(String executor) {
+		if (isBlank(executor)) {
+			return defaultExecutor;
+		}
+		return pools.getOrDefault(executor, defaultExecutor);
+	}
+
+	private Collection<JobExecutorImpl> allExecutors() {
+		List<JobExecutorImpl> all = new ArrayList<>(pools.size() + 1);
+		all.add(defaultExecutor);
+		all.addAll(pools.values());
+		return all;
+	}
+
+	@Override
+	@Transactional
+	public void submitJob(JobInstance instance) throws RejectedExecutionException {
+		executorFor(instance.getJob().getExecutor()).submitJob(instance);
+	}
+
+	@Override
+	public void submitClaimedJob(JobInstance instance) throws RejectedExecutionException {
+		executorFor(instance.getJob().getExecutor()).submitClaimedJob(instance);
+	}
+
+	@Override
+	public void submitClaimedBatch(List<JobInstance> instances) throws RejectedExecutionException {
+		if (!instances.isEmpty()) {
+			executorFor(instances.get(0).getJob().getExecutor()).submitClaimedBatch(instances);
+		}
+	}
+
+	@Override
+	public Collection<JobInstance> listRunningJobs() {
+		List<JobInstance> running = new ArrayList<>();
+		for (JobExecutorImpl executor : allExecutors()) {
+			running.addAll(executor.listRunningJobs());
+		}
+		return running;
+	}
+
+	@Override
+	public void prepareForNextRun(JobInstance jobInstance) {
+		defaultExecutor.prepareForNextRun(jobInstance);
+	}
+
+	@Override
+	public JobInstance getJobInstance(Long jobExecutionId) {
+		for (JobExecutorImpl executor : allExecutors()) {
+			JobInstance instance = executor.getJobInstance(jobExecutionId);
+			if (instance != null) return instance;
+		}
+		return null;
+	}
+
+	@Override
+	public String getNodeName() {
+		return defaultExecutor.getNodeName();
+	}
+
+	@Override
+	public void setNodeName(String nodeName) {
+		allExecutors().forEach(executor -> executor.setNodeName(nodeName));
+	}
+
+	@Override
+	public JobInstance findJobInstance(JobDefinition job) {
+		// the executor of a job may have changed while it is running
+		for (JobExecutorImpl executor : allExecutors()) {
+			JobInstance instance = executor.findJobInstance(job);
+			if (instance != null) return instance;
+		}
+		return null;
+	}
+
+	/**
+	 * Sum of the remaining capacity of all pools, limited by the remaining units of the shared resource budget
+	 */
+	@Override
+	public int remainingCapacity() {
+		int capacity = 0;
+		for (JobExecutorImpl executor : allExecutors()) {
+			capacity += executor.remainingCapacity();
+		}
+		ResourceBudget budget = defaultExecutor.getResourceBudget();
+		return budget != null ? Math.min(capacity, budget.remaining()) : capacity;
+	}
+
+	@Override
+	public int remainingCapacity(String executor) {
+		return executorFor(executor).remainingCapacity();
+	}
+
+	@Override
+	public boolean fits(JobDefinition job) {
+		return executorFor(job.getExecutor()).fits(job);
+	}
+
+	/**
+	 * Sum of the idle threads of all pools
+	 */
+	@Override
+	public int idleThreads() {
+		int idle = 0;
+		for (JobExecutorImpl executor : allExecutors()) {
+			idle += executor.idleThreads();
+		}
+		return idle;
+	}
+
+	/**
+	 * Run the task in the pool with the most idle threads, the default pool if none is idle
+	 */
+	@Override
+	public void execute(Runnable task) throws RejectedExecutionException {
+		JobExecutorImpl target = defaultExecutor;
+		for (JobExecutorImpl executor : allExecutors()) {
+			if (executor.idleThreads() > target.idleThreads()) {
+				target = executor;
+			}
+		}
+		target.execute(task);
+	}
+
+	@Override
+	public void abortJobIfRunning(JobDefinition job) {
+		JobInstance instance = findJobInstance(job);
+		JobExecutorImpl executor = instance != null ? pools.values().stream()
+				.filter(pool -> pool.listRunningJobs().contains(instance))
+				.findFirst().orElse(defaultExecutor) : executorFor(job.getExecutor());
+		executor.abortJobIfRunning(job);
+	}
+
+	public JobExecutorImpl getDefaultExecutor() {
+		return defaultExecutor;
+	}
+
+	public Map<String, JobExecutorImpl> getPools() {
+		return Collections.unmodifiableMap(pools);
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		// stop accepting jobs in all pools first, so the running jobs finish in parallel
+		allExecutors().forEach(JobExecutorImpl::shutdown);
+		for (JobExecutorImpl executor : allExecutors()) {
+			executor.destroy();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package de.lit.jobscheduler.impl;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Running job instances of a {@link JobExecutorImpl}, indexed by execution id, job name and run queue.
+ * All lookups are O(1) and lock free, so job threads can register and unregister concurrently
+ * without blocking each other.
+ * <p></p>
+ * {@link #values()} is a live, read only view that can be iterated while jobs start and finish
+ * (weakly consistent, no {@code ConcurrentModificationException}). Use {@link #snapshot()} for a
+ * copy that does not change anymore.
+ */
+public class RunningJobRegistry {
+
+	private final Map<Long, JobInstance> byExecutionId = new ConcurrentHashMap<>();
+
+	private final Map<String, Set<JobInstance>> byName = new ConcurrentHashMap<>();
+
+	private final Map<String, Set<JobInstance>> byRunQueue = new ConcurrentHashMap<>();
+
+	private final Collection<JobInstance> values = Collections.unmodifiableCollection(byExecutionId.values());
+
+	public void register(Long executionId, JobInstance instance) {
+		JobInstance previous = byExecutionId.put(executionId, instance);
+		if (previous != null) {
+			removeFromIndex(previous);
+		}
+		addToIndex(byName, instance.getJob().getName(), instance);
+		addToIndex(byRunQueue, instance.getJob().getRunQueue(), instance);
+	}
+
+	/**
+	 * @return removed instance or {@code null}
+	 */
+	public JobInstance unregister(Long executionId) {
+		JobInstance instance = byExecutionId.remove(executionId);
+		if (instance != null) {
+			removeFromIndex(instance);
+		}
+		return instance;
+	}
+
+	public JobInstance get(Long executionId) {
+		return byExecutionId.get(executionId);
+	}
+
+	/**
+	 * @return one running instance of the job or {@code null}
+	 */
+	public JobInstance findByName(String name) {
+		Set<JobInstance> instances = name != null ? byName.get(name) : null;
+		if (instances == null) {
+			return null;
+		}
+		Iterator<JobInstance> it = instances.iterator();
+		return it.hasNext() ? it.next() : null;
+	}
+
+	/**
+	 * @return {@code true} if a job of the run queue is running
+	 */
+	public boolean isRunQueueBusy(String runQueue) {
+		Set<JobInstance> instances = !isBlank(runQueue) ? byRunQueue.get(runQueue) : null;
+		return instances != null && !instances.isEmpty();
+	}
+
+	/**
+	 * @return live read only view of all running instances
+	 */
+	public Collection<JobInstance> values() {
+		return values;
+	}
+
+	/**
+	 * @return copy of all running instances
+	 */
+	public List<JobInstance> snapshot() {
+		return new ArrayList<>(byExecutionId.values());
+	}
+
+	public int size() {
+		return byExecutionId.size();
+	}
+
+	public boolean isEmpty() {
+		return byExecutionId.isEmpty();
+	}
+
+	public void clear() {
+		byExecutionId.clear();
+		byName.clear();
+		byRunQueue.clear();
+	}
+
+	private static void addToIndex(Map<String, Set<JobInstance>> index, String key, JobInstance instance) {
+		if (isBlank(key)) {
+			return;
+		}
+		index.compute(key, (k, instances) -> {
+			if (instances == null) {
+				instances = ConcurrentHashMap.newKeySet();
+			}
+			instances.add(instance);
+			return instances;
+		});
+	}
+
+	private void removeFromIndex(JobInstance instance) {
+		removeFromIndex(byName, instance.getJob().getName(), instance);
+		removeFromIndex(byRunQueue, instance.getJob().getRunQueue(), instance);
+	}
+
+	private static void removeFromIndex(Map<String, Set<JobInstance>> index, String key, JobInstance instance) {
+		if (isBlank(key)) {
+			return;
+		}
+		// atomic per key, so a concurrent register cannot add to a set that is being dropped
+		index.computeIfPresent(key, (k, instances) -> {
+			instances.remove(instance);
+			return instances.isEmpty() ? null : instances;
+		});
+	}
+}
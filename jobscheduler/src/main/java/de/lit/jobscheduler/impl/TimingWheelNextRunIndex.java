@@ -0,0 +1,296 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link NextRunIndex} based on a hierarchical timing wheel. Insert, update, removal
+ * and expiration of a job are {@code O(1)}, independent of the number of jobs in the index.
+ * <p></p>
+ * The lowest wheel has {@code wheelSize} buckets of one tick each. Jobs that are due
+ * beyond the range of a wheel are placed in the next (overflow) wheel which has a tick
+ * of the whole range of the wheel below. Overflow wheels are created on demand, and their
+ * buckets are cascaded down when the clock reaches them. Next run times are rounded up
+ * to the tick resolution, so a job fires at most one tick late.
+ */
+public class TimingWheelNextRunIndex implements NextRunIndex {
+
+	private static final class Timer {
+		final String name;
+		final long expiration;
+		Bucket bucket;
+		Timer prev, next;
+
+		Timer(String name, long expiration) {
+			this.name = name;
+			this.expiration = expiration;
+		}
+	}
+
+	/**
+	 * Intrusive doubly linked list, add and remove are {@code O(1)}
+	 */
+	private static final class Bucket {
+		final Timer root = new Timer(null, 0);
+		int size;
+
+		Bucket() {
+			root.prev = root.next = root;
+		}
+
+		void add(Timer timer) {
+			timer.bucket = this;
+			timer.prev = root.prev;
+			timer.next = root;
+			root.prev.next = timer;
+			root.prev = timer;
+			size++;
+		}
+
+		void remove(Timer timer) {
+			timer.prev.next = timer.next;
+			timer.next.prev = timer.prev;
+			timer.prev = timer.next = null;
+			timer.bucket = null;
+			size--;
+		}
+
+		List<Timer> removeAll() {
+			List<Timer> timers = new ArrayList<>(size);
+			while (root.next != root) {
+				Timer timer = root.next;
+				remove(timer);
+				timers.add(timer);
+			}
+			return timers;
+		}
+	}
+
+	private static final class Wheel {
+		final long tick;
+		final long interval;
+		final Bucket[] buckets;
+		long currentTime;
+		Wheel overflow;
+
+		Wheel(long tick, int wheelSize, long startTime) {
+			this.tick = tick;
+			this.interval = tick * wheelSize;
+			this.buckets = new Bucket[wheelSize];
+			for (int i = 0; i < wheelSize; i++) {
+				buckets[i] = new Bucket();
+			}
+			this.currentTime = startTime - (startTime % tick);
+		}
+
+		Bucket bucketFor(long time) {
+			return buckets[(int) ((time / tick) % buckets.length)];
+		}
+	}
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final Map<String, Timer> timers = new HashMap<>();
+	private final Bucket expired = new Bucket();
+	private final long tickMillis;
+	private final int wheelSize;
+	private final Clock clock;
+	private Wheel wheel;
+
+	/**
+	 * @param tickMillis resolution of the lowest wheel in milliseconds, e.g. 100
+	 * @param wheelSize  number of buckets per wheel, e.g. 512
+	 */
+	public TimingWheelNextRunIndex(long tickMillis, int wheelSize) {
+		this(tickMillis, wheelSize, Clock.systemDefaultZone());
+	}
+
+	public TimingWheelNextRunIndex(long tickMillis, int wheelSize, Clock clock) {
+		if (tickMillis <= 0 || wheelSize <= 1) {
+			throw new IllegalArgumentException("tickMillis must be positive and wheelSize greater than 1");
+		}
+		this.tickMillis = tickMillis;
+		this.wheelSize = wheelSize;
+		this.clock = clock;
+		this.wheel = new Wheel(tickMillis, wheelSize, clock.millis());
+	}
+
+	@Override
+	public void reload(Collection<JobDefinition> jobs) {
+		lock.lock();
+		try {
+			timers.clear();
+			expired.removeAll();
+			wheel = new Wheel(tickMillis, wheelSize, clock.millis());
+			for (JobDefinition job : jobs) {
+				if (job.getNextRun() != null) {
+					schedule(job.getName(), job.getNextRun());
+				}
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void update(String name, LocalDateTime nextRun) {
+		lock.lock();
+		try {
+			cancel(name);
+			if (nextRun != null) {
+				schedule(name, nextRun);
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void updateIfAbsent(String name, LocalDateTime nextRun) {
+		lock.lock();
+		try {
+			if (!timers.containsKey(name)) {
+				schedule(name, nextRun);
+				changed.signalAll();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void cancel(String name) {
+		Timer timer = timers.remove(name);
+		if (timer != null && timer.bucket != null) {
+			timer.bucket.remove(timer);
+		}
+	}
+
+	private void schedule(String name, LocalDateTime nextRun) {
+		// round up to the tick resolution, so a job never fires too early
+		long expiration = Math.floorDiv(toMillis(nextRun) + tickMillis - 1, tickMillis) * tickMillis;
+		Timer timer = new Timer(name, expiration);
+		timers.put(name, timer);
+		add(wheel, timer);
+	}
+
+	private void add(Wheel w, Timer timer) {
+		if (timer.expiration <= w.currentTime) {
+			expired.add(timer);
+		} else if (timer.expiration < w.currentTime + w.interval) {
+			w.bucketFor(timer.expiration).add(timer);
+		} else {
+			if (w.overflow == null) {
+				w.overflow = new Wheel(w.interval, wheelSize, w.currentTime);
+			}
+			add(w.overflow, timer);
+		}
+	}
+
+	/**
+	 * Move the clock of all wheels forward to {@code now}, one tick at a time.
+	 * On every tick the current bucket of the lowest wheel expires and buckets
+	 * of overflow wheels whose tick has passed are cascaded into lower wheels.
+	 */
+	private void advanceClock(long now) {
+		while (wheel.currentTime + wheel.tick <= now) {
+			wheel.currentTime += wheel.tick;
+			Wheel w = wheel.overflow;
+			while (w != null && w.currentTime + w.tick <= wheel.currentTime) {
+				w.currentTime += w.tick;
+				for (Timer timer : w.bucketFor(w.currentTime).removeAll()) {
+					add(wheel, timer);
+				}
+				w = w.overflow;
+			}
+			Bucket bucket = wheel.bucketFor(wheel.currentTime);
+			for (Timer timer : bucket.removeAll()) {
+				expired.add(timer);
+			}
+		}
+	}
+
+	@Override
+	public List<String> awaitDue(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (true) {
+				advanceClock(clock.millis());
+				if (expired.size > 0) {
+					List<String> due = new ArrayList<>(expired.size);
+					for (Timer timer : expired.removeAll()) {
+						timers.remove(timer.name);
+						due.add(timer.name);
+					}
+					return due;
+				}
+				long wait = deadline - System.nanoTime();
+				if (wait <= 0) {
+					return Collections.emptyList();
+				}
+				if (!timers.isEmpty()) {
+					long nextTick = wheel.currentTime + wheel.tick - clock.millis();
+					wait = Math.min(wait, TimeUnit.MILLISECONDS.toNanos(Math.max(1, nextTick)));
+				}
+				changed.awaitNanos(wait);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Note: This is an {@code O(n)} operation on a timing wheel.
+	 */
+	@Override
+	public LocalDateTime peekNextRun() {
+		lock.lock();
+		try {
+			return timers.values().stream()
+					.mapToLong(timer -> timer.expiration)
+					.min()
+					.stream()
+					.mapToObj(this::toLocalDateTime)
+					.findFirst()
+					.orElse(null);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return timers.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getTickMillis() {
+		return tickMillis;
+	}
+
+	public int getWheelSize() {
+		return wheelSize;
+	}
+
+	private long toMillis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private LocalDateTime toLocalDateTime(long millis) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+	}
+}
@@ -256,6 +256,8 @@ public final class CronExpression implements Serializable, Cloneable {
 
 	public static final int MAX_YEAR = Calendar.getInstance().get(Calendar.YEAR) + 100;
 
+	private static final long MAX_LOOKBACK_MILLIS = 400L * 366 * 24 * 60 * 60 * 1000;
+
 	/**
 	 * Constructs a new <CODE>CronExpression</CODE> based on the specified
 	 * parameter.
@@ -1586,12 +1588,43 @@ public final class CronExpression implements Serializable, Cloneable {
 	}
 
 	/**
-	 * NOT YET IMPLEMENTED: Returns the time before the given time
-	 * that the <code>CronExpression</code> matches.
+	 * Returns the last time <I>before</I> the given time that the
+	 * <code>CronExpression</code> matches, {@code null} if there is none
+	 * within the last 400 years.
+	 * <p>
+	 * Implemented with {@link #getTimeAfter(Date)}: the distance to a start time
+	 * with a match before <code>endTime</code> is doubled until one is found,
+	 * then the latest such start time is narrowed down by binary search. This
+	 * takes a logarithmic number of <code>getTimeAfter</code> calls.
 	 */
 	public Date getTimeBefore(Date endTime) {
-		// FUTURE_TODO: implement QUARTZ-423
-		return null;
+		long end = endTime.getTime();
+		long distance = 1000;
+		Date match;
+		while ((match = getTimeAfter(new Date(end - distance))) == null || !match.before(endTime)) {
+			if (distance > MAX_LOOKBACK_MILLIS) {
+				return null;
+			}
+			distance *= 2;
+		}
+		// getTimeAfter(lo) is before endTime, getTimeAfter(hi) is not
+		long lo = end - distance;
+		long hi = end;
+		while (hi - lo > 1000) {
+			long mid = lo + (hi - lo) / 2;
+			Date t = getTimeAfter(new Date(mid));
+			if (t != null && t.before(endTime)) {
+				lo = mid;
+			} else {
+				hi = mid;
+			}
+		}
+		match = getTimeAfter(new Date(lo));
+		Date next;
+		while ((next = getTimeAfter(match)) != null && next.before(endTime)) {
+			match = next;
+		}
+		return match;
 	}
 
 	/**
@@ -11,10 +11,19 @@ create table job
   schedule           varchar(255),
   suspended          boolean     not null,
   run_queue          varchar(255),
+  priority           integer     default 0 not null,
+  job_group          varchar(255),
+  executor           varchar(255),
+  misfire_policy     varchar(20),
+  jitter             integer,
+  lightweight        boolean     default false not null,
+  weight             integer,
   last_execution_id  bigint,
   primary key (name)
 );
 
+create index idx_job_next_run on job (priority desc, next_run, name);
+
 create table job_execution
 (
   id         bigint generated always as identity not null,
@@ -30,8 +39,64 @@ create table job_execution
 
 create sequence job_execution_seq start with 1 increment by 1;
 
+create table job_node
+(
+  name      varchar(255) not null,
+  heartbeat timestamp(6),
+  primary key (name)
+);
+
+create table job_lease
+(
+  name    varchar(50) not null,
+  owner   varchar(255),
+  expires timestamp(6),
+  primary key (name)
+);
+
+create table job_assignment
+(
+  job_name  varchar(50) not null,
+  node_name varchar(255),
+  assigned  timestamp(6),
+  primary key (job_name)
+);
+
+create index idx_job_assignment_node on job_assignment (node_name);
+
+create table job_partition
+(
+  id            bigint generated always as identity not null,
+  execution_id  bigint,
+  job_name      varchar(50),
+  partition_key varchar(1000),
+  status        varchar(20),
+  node_name     varchar(255),
+  start_time    timestamp(6),
+  end_time      timestamp(6),
+  message       varchar(4000),
+  primary key (id)
+);
+
+create index idx_job_partition_status on job_partition (status, id);
+create index idx_job_partition_execution on job_partition (execution_id);
+
+create table job_rate_limit
+(
+  name            varchar(255) not null,
+  capacity        integer      not null,
+  refill_interval integer      not null,
+  tokens          integer      not null,
+  last_refill     timestamp(6),
+  version         bigint       not null,
+  primary key (name)
+);
+
 alter table job
   add constraint fk_job_last_execution foreign key (last_execution_id) references job_execution ON DELETE SET NULL;
 
 alter table job_execution
   add constraint fk_job_execution_job foreign key (job_name) references job;
+
+alter table job_partition
+  add constraint fk_job_partition_execution foreign key (execution_id) references job_execution ON DELETE CASCADE;
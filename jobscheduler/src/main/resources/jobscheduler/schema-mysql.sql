@@ -10,6 +10,13 @@ create table job
 	suspended bit not null,
 	`schedule` varchar(255) null,
 	run_queue varchar(255) null,
+	priority int default 0 not null,
+	job_group varchar(255) null,
+	executor varchar(255) null,
+	misfire_policy varchar(20) null,
+	jitter int null,
+	lightweight bit default 0 not null,
+	weight int null,
 	last_execution_id bigint null,
 	error_mail_address varchar(255) null,
 	primary key(name)
@@ -17,6 +24,8 @@ create table job
 engine=InnoDB;
 
 
+create index idx_job_next_run on job (priority desc, next_run, name);
+
 create table job_execution
 (
 	id bigint auto_increment,
@@ -34,6 +43,64 @@ create table job_execution
 )
 engine=InnoDB;
 
+create table job_node
+(
+	name varchar(255) not null,
+	heartbeat timestamp(6) null,
+	primary key(name)
+)
+engine=InnoDB;
+
+create table job_lease
+(
+	name varchar(50) not null,
+	owner varchar(255) null,
+	expires timestamp(6) null,
+	primary key(name)
+)
+engine=InnoDB;
+
+create table job_assignment
+(
+	job_name varchar(50) not null,
+	node_name varchar(255) null,
+	assigned timestamp(6) null,
+	primary key(job_name),
+	key idx_job_assignment_node (node_name)
+)
+engine=InnoDB;
+
+create table job_partition
+(
+	id bigint auto_increment,
+	execution_id bigint null,
+	job_name varchar(50) null,
+	partition_key varchar(1000) null,
+	status varchar(20) null,
+	node_name varchar(255) null,
+	start_time timestamp(6) null,
+	end_time timestamp(6) null,
+	message text null,
+	primary key(id),
+	key idx_job_partition_status (status, id),
+	key idx_job_partition_execution (execution_id),
+	constraint fk_job_partition_execution
+		foreign key (execution_id) references job_execution(id) on delete cascade
+)
+engine=InnoDB;
+
+create table job_rate_limit
+(
+	name varchar(255) not null,
+	capacity int not null,
+	refill_interval int not null,
+	tokens int not null,
+	last_refill timestamp(6) null,
+	version bigint not null,
+	primary key(name)
+)
+engine=InnoDB;
+
 alter table job add constraint fk_job_last_execution
   foreign key (last_execution_id) references job_execution(id) on delete set null;
 
@@ -10,11 +10,20 @@ CREATE TABLE JOB (
    DISABLED           NUMBER(1, 0) DEFAULT 0 NOT NULL,
    "SCHEDULE"         VARCHAR2(255 CHAR),
    RUN_QUEUE          VARCHAR2(255 CHAR),
+   PRIORITY           NUMBER(10, 0) DEFAULT 0 NOT NULL,
+   JOB_GROUP          VARCHAR2(255 CHAR),
+   EXECUTOR           VARCHAR2(255 CHAR),
+   MISFIRE_POLICY     VARCHAR2(20 CHAR),
+   JITTER             NUMBER(10, 0),
+   LIGHTWEIGHT        NUMBER(1, 0) DEFAULT 0 NOT NULL,
+   WEIGHT             NUMBER(10, 0),
    LAST_EXECUTION_ID  NUMBER,
    ERROR_MAIL_ADDRESS VARCHAR2(255 CHAR),
    PRIMARY KEY (NAME)
 );
 
+CREATE INDEX IDX_JOB_NEXT_RUN ON JOB (PRIORITY DESC, NEXT_RUN, NAME);
+
 CREATE TABLE JOB_EXECUTION (
    ID         NUMBER GENERATED ALWAYS AS IDENTITY NOT NULL,
    JOB_NAME   VARCHAR2(50 CHAR) NOT NULL,
@@ -27,6 +36,54 @@ CREATE TABLE JOB_EXECUTION (
    PRIMARY KEY (ID)
 );
 
+CREATE TABLE JOB_NODE (
+   NAME      VARCHAR2(255 CHAR),
+   HEARTBEAT TIMESTAMP(6),
+   PRIMARY KEY (NAME)
+);
+
+CREATE TABLE JOB_LEASE (
+   NAME    VARCHAR2(50 CHAR),
+   OWNER   VARCHAR2(255 CHAR),
+   EXPIRES TIMESTAMP(6),
+   PRIMARY KEY (NAME)
+);
+
+CREATE TABLE JOB_ASSIGNMENT (
+   JOB_NAME  VARCHAR2(50 CHAR),
+   NODE_NAME VARCHAR2(255 CHAR),
+   ASSIGNED  TIMESTAMP(6),
+   PRIMARY KEY (JOB_NAME)
+);
+
+CREATE INDEX IDX_JOB_ASSIGNMENT_NODE ON JOB_ASSIGNMENT (NODE_NAME);
+
+CREATE TABLE JOB_PARTITION (
+   ID            NUMBER GENERATED ALWAYS AS IDENTITY NOT NULL,
+   EXECUTION_ID  NUMBER,
+   JOB_NAME      VARCHAR2(50 CHAR),
+   PARTITION_KEY VARCHAR2(1000 CHAR),
+   STATUS        VARCHAR2(20 CHAR),
+   NODE_NAME     VARCHAR2(255 CHAR),
+   START_TIME    TIMESTAMP(6),
+   END_TIME      TIMESTAMP(6),
+   MESSAGE       VARCHAR2(4000 CHAR),
+   PRIMARY KEY (ID)
+);
+
+CREATE INDEX IDX_JOB_PARTITION_STATUS ON JOB_PARTITION (STATUS, ID);
+CREATE INDEX IDX_JOB_PARTITION_EXECUTION ON JOB_PARTITION (EXECUTION_ID);
+
+CREATE TABLE JOB_RATE_LIMIT (
+   NAME            VARCHAR2(255 CHAR),
+   CAPACITY        NUMBER(10, 0) NOT NULL,
+   REFILL_INTERVAL NUMBER(10, 0) NOT NULL,
+   TOKENS          NUMBER(10, 0) NOT NULL,
+   LAST_REFILL     TIMESTAMP(6),
+   VERSION         NUMBER(19, 0) NOT NULL,
+   PRIMARY KEY (NAME)
+);
+
 alter table JOB add
    constraint FK_JOB_LAST_EXECUTION
       foreign key (LAST_EXECUTION_ID) references job_execution on delete set null;
@@ -35,10 +92,19 @@ alter table JOB_EXECUTION add
    constraint FK_EXECUTION_JOB
       foreign key (JOB_NAME) references job on delete cascade;
 
+alter table JOB_PARTITION add
+   constraint FK_PARTITION_EXECUTION
+      foreign key (EXECUTION_ID) references JOB_EXECUTION on delete cascade;
+
 
 /* Granting rights to other application user:
 
 GRANT SELECT,INSERT,UPDATE,DELETE ON JOB TO someuser;
 GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_EXECUTION TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_NODE TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_LEASE TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_ASSIGNMENT TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_PARTITION TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_RATE_LIMIT TO someuser;
 
  */
@@ -0,0 +1,69 @@
+-- Upgrade of a 2.0.x schema, see schema-h2.sql for new installations
+
+alter table job add column priority integer default 0 not null;
+alter table job add column job_group varchar(255);
+alter table job add column executor varchar(255);
+alter table job add column misfire_policy varchar(20);
+alter table job add column jitter integer;
+alter table job add column lightweight boolean default false not null;
+alter table job add column weight integer;
+
+create index idx_job_next_run on job (priority desc, next_run, name);
+
+-- Tables of optional features, only needed if the feature is enabled
+
+create table job_node
+(
+  name      varchar(255) not null,
+  heartbeat timestamp(6),
+  primary key (name)
+);
+
+create table job_lease
+(
+  name    varchar(50) not null,
+  owner   varchar(255),
+  expires timestamp(6),
+  primary key (name)
+);
+
+create table job_assignment
+(
+  job_name  varchar(50) not null,
+  node_name varchar(255),
+  assigned  timestamp(6),
+  primary key (job_name)
+);
+
+create index idx_job_assignment_node on job_assignment (node_name);
+
+create table job_partition
+(
+  id            bigint generated always as identity not null,
+  execution_id  bigint,
+  job_name      varchar(50),
+  partition_key varchar(1000),
+  status        varchar(20),
+  node_name     varchar(255),
+  start_time    timestamp(6),
+  end_time      timestamp(6),
+  message       varchar(4000),
+  primary key (id)
+);
+
+create index idx_job_partition_status on job_partition (status, id);
+create index idx_job_partition_execution on job_partition (execution_id);
+
+create table job_rate_limit
+(
+  name            varchar(255) not null,
+  capacity        integer      not null,
+  refill_interval integer      not null,
+  tokens          integer      not null,
+  last_refill     timestamp(6),
+  version         bigint       not null,
+  primary key (name)
+);
+
+alter table job_partition
+  add constraint fk_job_partition_execution foreign key (execution_id) references job_execution ON DELETE CASCADE;
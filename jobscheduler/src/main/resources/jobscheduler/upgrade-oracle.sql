@@ -0,0 +1,78 @@
+-- Upgrade of a 2.0.x schema, see schema-oracle.sql for new installations
+
+ALTER TABLE JOB ADD (
+   PRIORITY           NUMBER(10, 0) DEFAULT 0 NOT NULL,
+   JOB_GROUP          VARCHAR2(255 CHAR),
+   EXECUTOR           VARCHAR2(255 CHAR),
+   MISFIRE_POLICY     VARCHAR2(20 CHAR),
+   JITTER             NUMBER(10, 0),
+   LIGHTWEIGHT        NUMBER(1, 0) DEFAULT 0 NOT NULL,
+   WEIGHT             NUMBER(10, 0)
+);
+
+CREATE INDEX IDX_JOB_NEXT_RUN ON JOB (PRIORITY DESC, NEXT_RUN, NAME);
+
+-- Tables of optional features, only needed if the feature is enabled
+
+CREATE TABLE JOB_NODE (
+   NAME      VARCHAR2(255 CHAR),
+   HEARTBEAT TIMESTAMP(6),
+   PRIMARY KEY (NAME)
+);
+
+CREATE TABLE JOB_LEASE (
+   NAME    VARCHAR2(50 CHAR),
+   OWNER   VARCHAR2(255 CHAR),
+   EXPIRES TIMESTAMP(6),
+   PRIMARY KEY (NAME)
+);
+
+CREATE TABLE JOB_ASSIGNMENT (
+   JOB_NAME  VARCHAR2(50 CHAR),
+   NODE_NAME VARCHAR2(255 CHAR),
+   ASSIGNED  TIMESTAMP(6),
+   PRIMARY KEY (JOB_NAME)
+);
+
+CREATE INDEX IDX_JOB_ASSIGNMENT_NODE ON JOB_ASSIGNMENT (NODE_NAME);
+
+CREATE TABLE JOB_PARTITION (
+   ID            NUMBER GENERATED ALWAYS AS IDENTITY NOT NULL,
+   EXECUTION_ID  NUMBER,
+   JOB_NAME      VARCHAR2(50 CHAR),
+   PARTITION_KEY VARCHAR2(1000 CHAR),
+   STATUS        VARCHAR2(20 CHAR),
+   NODE_NAME     VARCHAR2(255 CHAR),
+   START_TIME    TIMESTAMP(6),
+   END_TIME      TIMESTAMP(6),
+   MESSAGE       VARCHAR2(4000 CHAR),
+   PRIMARY KEY (ID)
+);
+
+CREATE INDEX IDX_JOB_PARTITION_STATUS ON JOB_PARTITION (STATUS, ID);
+CREATE INDEX IDX_JOB_PARTITION_EXECUTION ON JOB_PARTITION (EXECUTION_ID);
+
+CREATE TABLE JOB_RATE_LIMIT (
+   NAME            VARCHAR2(255 CHAR),
+   CAPACITY        NUMBER(10, 0) NOT NULL,
+   REFILL_INTERVAL NUMBER(10, 0) NOT NULL,
+   TOKENS          NUMBER(10, 0) NOT NULL,
+   LAST_REFILL     TIMESTAMP(6),
+   VERSION         NUMBER(19, 0) NOT NULL,
+   PRIMARY KEY (NAME)
+);
+
+alter table JOB_PARTITION add
+   constraint FK_PARTITION_EXECUTION
+      foreign key (EXECUTION_ID) references JOB_EXECUTION on delete cascade;
+
+
+/* Granting rights to other application user:
+
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_NODE TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_LEASE TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_ASSIGNMENT TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_PARTITION TO someuser;
+GRANT SELECT,INSERT,UPDATE,DELETE ON JOB_RATE_LIMIT TO someuser;
+
+ */
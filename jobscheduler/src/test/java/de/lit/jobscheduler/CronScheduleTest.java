@@ -0,0 +1,74 @@
+package de.lit.jobscheduler;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CronScheduleTest {
+
+	private final CronSchedule schedule = new CronSchedule();
+
+	@Test
+	public void testPreviousRun() {
+		JobDefinition job = new JobDefinition();
+		job.setCronExpression("0 30 2 * * ?");
+
+		assertEquals(LocalDateTime.of(2024, 3, 10, 2, 30),
+				schedule.evalPreviousRun(job, LocalDateTime.of(2024, 3, 11, 2, 30)), "exclusive");
+		assertEquals(LocalDateTime.of(2024, 3, 11, 2, 30),
+				schedule.evalPreviousRun(job, LocalDateTime.of(2024, 3, 11, 2, 30, 1)), "same day");
+
+		job.setCronExpression("0 0 0 29 2 ?");
+		assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0),
+				schedule.evalPreviousRun(job, LocalDateTime.of(2027, 6, 1, 0, 0)), "leap day");
+
+		job.setCronExpression(null);
+		assertNull(schedule.evalPreviousRun(job, LocalDateTime.now()), "no cron expression");
+	}
+
+	@Test
+	public void testJitter() {
+		JobDefinition job = new JobDefinition();
+		job.setName("HOURLY");
+		job.setCronExpression("0 0 * * * ?");
+		assertEquals(0, schedule.evalNextRun(job).getMinute(), "no jitter");
+
+		job.setJitter(600);
+		long offset = schedule.jitterOffsetMillis(job);
+		assertTrue(offset >= 0 && offset < 600_000, "offset in window");
+		assertEquals(0, offset % 1000, "whole seconds");
+		LocalDateTime nextRun = schedule.evalNextRun(job);
+		assertTrue(nextRun.isAfter(LocalDateTime.now()), "future");
+		assertEquals(offset / 1000, nextRun.getMinute() * 60 + nextRun.getSecond(), "offset");
+		assertEquals(nextRun.minusHours(1), schedule.evalPreviousRun(job, nextRun), "previous run");
+
+		job.setName("HOURLY2");
+		assertNotEquals(offset, schedule.jitterOffsetMillis(job), "other job");
+
+		CronSchedule spread = new CronSchedule();
+		spread.setJitterWindow(600);
+		long jobOffset = schedule.jitterOffsetMillis(job);
+		job.setJitter(null);
+		assertEquals(jobOffset, spread.jitterOffsetMillis(job), "default window");
+		job.setJitter(0);
+		assertEquals(0, spread.jitterOffsetMillis(job), "disabled");
+	}
+
+	@Test
+	public void testFireAll() {
+		JobDefinition job = new JobDefinition();
+		job.setCronExpression("0 0 0 1 1 ?");
+		job.setNextRun(LocalDateTime.of(2020, 1, 1, 0, 0));
+
+		assertTrue(schedule.evalNextRun(job).isAfter(LocalDateTime.now()), "fire once");
+
+		job.setMisfirePolicy(JobDefinition.MisfirePolicy.FIRE_ALL);
+		assertEquals(LocalDateTime.of(2021, 1, 1, 0, 0), schedule.evalNextRun(job), "missed run");
+
+		job.setNextRun(LocalDateTime.now().minusSeconds(1));
+		assertTrue(schedule.evalNextRun(job).isAfter(LocalDateTime.now()), "no missed run");
+	}
+}
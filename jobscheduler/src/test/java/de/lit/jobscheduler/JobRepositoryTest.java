@@ -1,16 +1,23 @@
 package de.lit.jobscheduler;
 
 import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.dao.JobAssignmentDao;
 import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.dao.JobLeaseDao;
+import de.lit.jobscheduler.dao.JobNodeDao;
 import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobAssignment;
 import de.lit.jobscheduler.entity.JobExecution;
+import de.lit.jobscheduler.entity.JobNode;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +29,15 @@ public class JobRepositoryTest extends SpringTestCase {
 	@Autowired
 	private JobExecutionDao executionDao;
 
+	@Autowired
+	private JobNodeDao nodeDao;
+
+	@Autowired
+	private JobLeaseDao leaseDao;
+
+	@Autowired
+	private JobAssignmentDao assignmentDao;
+
 	@Autowired
 	protected EntityManager em;
 
@@ -41,6 +57,90 @@ public class JobRepositoryTest extends SpringTestCase {
 
 		assertEquals("__TEST1", job.getName(), "name");
 		assertTrue(job.isRunning());
+
+		assertEquals(job, jobDao.tryLockJob("__TEST1"));
+		assertNull(jobDao.tryLockJob("__UNKNOWN"));
+		assertTrue(jobDao.tryLockRunQueue("__UNKNOWN").isEmpty());
+	}
+
+	@Test
+	@Transactional
+	public void testClaimDueJobs() throws Exception {
+		jobDao.save(createJobDefinition("__CLAIM1"));
+		JobDefinition running = createJobDefinition("__CLAIM2");
+		running.setRunning(true);
+		jobDao.save(running);
+		JobDefinition later = createJobDefinition("__CLAIM3");
+		later.setNextRun(LocalDateTime.now().plusHours(1));
+		jobDao.save(later);
+		em.flush();
+
+		List<JobDefinition> claimed = jobDao.claimDueJobs(List.of("__CLAIM1", "__CLAIM2", "__CLAIM3"), LocalDateTime.now());
+		assertEquals(1, claimed.size());
+		assertEquals("__CLAIM1", claimed.get(0).getName());
+		assertTrue(claimed.get(0).isRunning());
+		assertTrue(jobDao.findById("__CLAIM1").orElseThrow(AssertionError::new).isRunning());
+
+		assertTrue(jobDao.claimDueJobs(List.of("__CLAIM1"), LocalDateTime.now()).isEmpty());
+	}
+
+	@Test
+	@Transactional
+	public void testFindDueByNames() throws Exception {
+		JobDefinition low = createJobDefinition("__BYNAME1");
+		jobDao.save(low);
+		JobDefinition high = createJobDefinition("__BYNAME2");
+		high.setPriority(5);
+		jobDao.save(high);
+		JobDefinition running = createJobDefinition("__BYNAME3");
+		running.setRunning(true);
+		jobDao.save(running);
+		JobDefinition later = createJobDefinition("__BYNAME4");
+		later.setNextRun(LocalDateTime.now().plusHours(1));
+		jobDao.save(later);
+		jobDao.save(createJobDefinition("__BYNAME5"));
+		em.flush();
+
+		List<JobDefinition> due = jobDao.findDueByNames(
+				List.of("__BYNAME1", "__BYNAME2", "__BYNAME3", "__BYNAME4", "__UNKNOWN"), LocalDateTime.now());
+		assertEquals(List.of("__BYNAME2", "__BYNAME1"), due.stream().map(JobDefinition::getName).toList());
+	}
+
+	@Test
+	@Transactional
+	public void testFindDuePaged() throws Exception {
+		LocalDateTime base = LocalDateTime.of(1990, 1, 1, 0, 0);
+		for (String name : new String[]{"__PAGE3", "__PAGE1", "__PAGE2", "__PAGE4"}) {
+			JobDefinition job = createJobDefinition(name);
+			job.setNextRun(name.equals("__PAGE4") ? base.plusMinutes(1) : base);
+			job.setPriority(name.equals("__PAGE4") ? 5 : 0);
+			jobDao.save(job);
+		}
+		em.flush();
+
+		LocalDateTime when = base.plusDays(1);
+		List<JobDefinition> page = jobDao.findDue(when, null, 3);
+		assertEquals(List.of("__PAGE4", "__PAGE1", "__PAGE2"), page.stream().map(JobDefinition::getName).toList());
+
+		JobDefinition last = page.get(2);
+		page = jobDao.findDue(when, last, 3);
+		assertEquals(List.of("__PAGE3"), page.stream().map(JobDefinition::getName).toList());
+	}
+
+	@Test
+	@Transactional
+	public void testFindNextRun() throws Exception {
+		LocalDateTime nextRun = LocalDateTime.now().minusYears(10).withNano(0);
+		JobDefinition job = createJobDefinition("__NEXT1");
+		job.setNextRun(nextRun);
+		jobDao.save(job);
+		JobDefinition running = createJobDefinition("__NEXT2");
+		running.setNextRun(nextRun.minusDays(1));
+		running.setRunning(true);
+		jobDao.save(running);
+		em.flush();
+
+		assertEquals(nextRun, jobDao.findNextRun());
 	}
 
 	@Test
@@ -64,6 +164,59 @@ public class JobRepositoryTest extends SpringTestCase {
 		assertEquals(job, job.getLastExecution().getJobDefinition());
 	}
 
+	@Test
+	@Transactional
+	public void testJobNodes() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		nodeDao.save(new JobNode("__node1", now.minusMinutes(5)));
+		nodeDao.save(new JobNode("__node2", now.minusMinutes(5)));
+		nodeDao.save(new JobNode("__node2", now));
+		em.flush();
+
+		List<JobNode> alive = nodeDao.findAllByHeartbeatAfterOrderByName(now.minusMinutes(1));
+		assertEquals(List.of("__node2"), alive.stream().map(JobNode::getName).toList());
+
+		nodeDao.deleteById("__node1");
+		nodeDao.deleteById("__node2");
+		em.flush();
+		assertTrue(nodeDao.findAllByHeartbeatAfterOrderByName(now.minusMinutes(10)).isEmpty());
+	}
+
+	@Test
+	@Transactional
+	public void testLease() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		assertEquals(0, leaseDao.acquire("__lease", "__node1", now, now.plusSeconds(30)));
+		assertEquals(1, leaseDao.create("__lease", "__node1", now.plusSeconds(30)));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> leaseDao.create("__lease", "__node2", now.plusSeconds(30)), "created twice");
+
+		assertEquals(1, leaseDao.acquire("__lease", "__node1", now, now.plusSeconds(30)), "renew");
+		assertEquals(0, leaseDao.acquire("__lease", "__node2", now, now.plusSeconds(30)), "not expired");
+		assertEquals(1, leaseDao.acquire("__lease", "__node2", now.plusSeconds(31), now.plusSeconds(60)), "expired");
+		assertEquals(0, leaseDao.release("__lease", "__node1"));
+		assertEquals(1, leaseDao.release("__lease", "__node2"));
+		assertEquals(1, leaseDao.acquire("__lease", "__node1", now, now.plusSeconds(30)), "released");
+		em.clear();
+		assertEquals("__node1", leaseDao.findById("__lease").orElseThrow(AssertionError::new).getOwner());
+	}
+
+	@Test
+	@Transactional
+	public void testAssignments() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		assignmentDao.save(new JobAssignment("__JOB1", "__node1", now));
+		assignmentDao.save(new JobAssignment("__JOB2", "__node2", now.minusSeconds(1)));
+		em.flush();
+
+		assertEquals(List.of("__JOB1"), assignmentDao.findAllByNodeName("__node1").stream().map(JobAssignment::getJobName).toList());
+		assertEquals(List.of("__JOB2", "__JOB1"), assignmentDao.findAllByOrderByAssigned().stream().map(JobAssignment::getJobName).toList());
+		assertEquals(0, assignmentDao.deleteAssignment("__JOB1", "__node2"));
+		assertEquals(1, assignmentDao.deleteAssignment("__JOB1", "__node1"));
+		assertEquals(1, assignmentDao.deleteAssignment("__JOB2", "__node2"));
+		assertTrue(assignmentDao.findAllByOrderByAssigned().isEmpty());
+	}
+
 	private JobDefinition createJobDefinition(String testName) {
 		JobDefinition job = new JobDefinition();
 		job.setName(testName);
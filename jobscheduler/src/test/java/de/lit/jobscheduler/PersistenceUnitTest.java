@@ -0,0 +1,82 @@
+package de.lit.jobscheduler;
+
+import de.lit.jobscheduler.dao.JobAssignmentDao;
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.dao.JobLeaseDao;
+import de.lit.jobscheduler.dao.JobNodeDao;
+import de.lit.jobscheduler.dao.JobPartitionDao;
+import de.lit.jobscheduler.dao.JobRateLimitDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobExecution;
+import de.lit.jobscheduler.entity.JobRateLimit;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Repositories of a Spring application without Spring Boot, with a persistence unit that lists the
+ * job scheduler entities as described in the README.
+ */
+public class PersistenceUnitTest {
+
+	@Test
+	public void testRequiredEntitiesOnly() {
+		try (AnnotationConfigApplicationContext context = start(List.of(JobDefinition.class, JobExecution.class))) {
+			assertNotNull(context.getBean(JobDefinitionDao.class));
+			assertNotNull(context.getBean(JobExecutionDao.class));
+			for (Class<?> dao : List.of(JobNodeDao.class, JobLeaseDao.class, JobAssignmentDao.class,
+					JobPartitionDao.class, JobRateLimitDao.class)) {
+				assertEquals(0, context.getBeanNamesForType(dao).length, dao.getSimpleName());
+			}
+		}
+	}
+
+	@Test
+	public void testOptionalFeatureEntity() {
+		try (AnnotationConfigApplicationContext context = start(
+				List.of(JobDefinition.class, JobExecution.class, JobRateLimit.class),
+				"application.jobscheduler.ratelimit.enable=true")) {
+			assertNotNull(context.getBean(JobRateLimitDao.class));
+			assertEquals(0, context.getBeanNamesForType(JobLeaseDao.class).length, "JobLeaseDao");
+		}
+	}
+
+	private static AnnotationConfigApplicationContext start(List<Class<?>> entities, String... properties) {
+		Map<String, Object> map = new HashMap<>();
+		Arrays.stream(properties).map(p -> p.split("=", 2)).forEach(p -> map.put(p[0], p[1]));
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", map));
+		context.registerBean(DataSource.class, () -> new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build());
+		context.registerBean("entityManagerFactory", LocalContainerEntityManagerFactoryBean.class, () -> {
+			LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
+			emf.setDataSource(context.getBean(DataSource.class));
+			emf.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			emf.setManagedTypes(PersistenceManagedTypes.of(entities.stream().map(Class::getName).toList(), List.of()));
+			emf.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+			return emf;
+		});
+		context.registerBean("transactionManager", JpaTransactionManager.class,
+				() -> new JpaTransactionManager(context.getBean(EntityManagerFactory.class)));
+		context.register(JobSchedulerRepositoryConfiguration.class);
+		context.refresh();
+		return context;
+	}
+}
@@ -0,0 +1,76 @@
+package de.lit.jobscheduler.dao;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The keyset paged due job query has to be answered by a scan of {@code idx_job_next_run}, so the
+ * index has to declare the columns of its {@code ORDER BY} in the same order and direction.
+ */
+public class DueJobIndexTest {
+
+	private static final Pattern ORDER_BY = Pattern.compile("ORDER BY (.*)$", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern CREATE_INDEX = Pattern.compile(
+			"create index idx_job_next_run on job \\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+	@Test
+	public void testIndexMatchesQueryOrder() throws Exception {
+		List<String> order = orderBy("findDueFirst");
+		assertEquals(List.of("priority desc", "next_run", "name"), order, "findDueFirst");
+		assertEquals(order, orderBy("findDueAfter"), "findDueAfter");
+
+		Index index = JobDefinition.class.getAnnotation(Table.class).indexes()[0];
+		assertEquals("idx_job_next_run", index.name());
+		assertEquals(order, columns(index.columnList()), "@Index");
+
+		for (String schema : List.of("schema-h2.sql", "schema-mysql.sql", "schema-oracle.sql",
+				"upgrade-h2.sql", "upgrade-mysql.sql", "upgrade-oracle.sql")) {
+			Matcher m = CREATE_INDEX.matcher(read("/jobscheduler/" + schema));
+			assertTrue(m.find(), schema);
+			assertEquals(order, columns(m.group(1)), schema);
+		}
+	}
+
+	private static List<String> orderBy(String methodName) {
+		Method method = Arrays.stream(JPAJobDefinitionDao.class.getDeclaredMethods())
+				.filter(m -> m.getName().equals(methodName))
+				.findFirst().orElseThrow();
+		Matcher m = ORDER_BY.matcher(method.getAnnotation(Query.class).value());
+		assertTrue(m.find(), methodName);
+		return columns(m.group(1).replace("a.", ""));
+	}
+
+	/**
+	 * Normalize a column list to lower case column names with an optional {@code desc}.
+	 */
+	private static List<String> columns(String columnList) {
+		return Arrays.stream(columnList.split(","))
+				.map(column -> column.trim()
+						.replaceAll("([a-z])([A-Z])", "$1_$2")
+						.toLowerCase()
+						.replaceAll("\\s+asc$", "")
+						.replaceAll("\\s+", " "))
+				.toList();
+	}
+
+	private static String read(String resource) throws Exception {
+		try (InputStream in = DueJobIndexTest.class.getResourceAsStream(resource)) {
+			assertNotNull(in, resource);
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
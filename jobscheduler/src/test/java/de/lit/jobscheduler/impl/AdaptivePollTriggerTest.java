@@ -0,0 +1,77 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AdaptivePollTriggerTest {
+
+	private JobScheduler jobScheduler;
+	private JobDefinitionDao jobDao;
+	private AdaptivePollTrigger trigger;
+
+	@BeforeEach
+	public void setup() {
+		jobScheduler = mock(JobScheduler.class);
+		jobDao = mock(JobDefinitionDao.class);
+		trigger = new AdaptivePollTrigger(jobScheduler, jobDao);
+		trigger.setInterval(20000);
+		trigger.setMinInterval(1000);
+		trigger.setMaxInterval(60000);
+	}
+
+	@Test
+	public void testBacklog() {
+		when(jobScheduler.hasBacklog()).thenReturn(true);
+		assertEquals(1000, trigger.nextDelay());
+		verifyNoInteractions(jobDao);
+	}
+
+	@Test
+	public void testNextRun() {
+		when(jobDao.findNextRun()).thenReturn(null);
+		assertEquals(60000, trigger.nextDelay(), "no job scheduled");
+
+		when(jobDao.findNextRun()).thenReturn(LocalDateTime.now().plusHours(2));
+		assertEquals(60000, trigger.nextDelay(), "max interval");
+
+		when(jobDao.findNextRun()).thenReturn(LocalDateTime.now().plusSeconds(30));
+		long delay = trigger.nextDelay();
+		assertTrue(delay > 29000 && delay <= 30000, "until next run: " + delay);
+
+		when(jobDao.findNextRun()).thenReturn(LocalDateTime.now().plusNanos(100_000_000));
+		assertEquals(1000, trigger.nextDelay(), "min interval");
+	}
+
+	@Test
+	public void testDueJobs() {
+		LocalDateTime lastPoll = LocalDateTime.now().minusSeconds(5);
+		when(jobScheduler.getLastPoll()).thenReturn(lastPoll);
+
+		when(jobDao.findNextRun()).thenReturn(lastPoll.plusSeconds(1));
+		assertEquals(1000, trigger.nextDelay(), "due since last poll");
+
+		when(jobDao.findNextRun()).thenReturn(lastPoll.minusSeconds(1));
+		assertEquals(20000, trigger.nextDelay(), "due but not started by last poll");
+	}
+
+	@Test
+	public void testInitialDelay() {
+		trigger.setInitialDelay(5000);
+		SimpleTriggerContext context = new SimpleTriggerContext();
+		Instant first = trigger.nextExecution(context);
+		assertTrue(first.isAfter(Instant.now().plusMillis(4000)));
+
+		Instant completion = Instant.now();
+		context.update(completion, completion, completion);
+		when(jobScheduler.hasBacklog()).thenReturn(true);
+		assertEquals(completion.plusMillis(1000), trigger.nextExecution(context));
+	}
+}
@@ -0,0 +1,47 @@
+package de.lit.jobscheduler.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+	private static final int KEYS = 10_000;
+
+	@Test
+	public void testDistribution() {
+		ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"), 100);
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(ring.ownerOf("JOB" + i), 1, Integer::sum);
+		}
+		assertEquals(3, counts.size());
+		for (int count : counts.values()) {
+			assertTrue(count > KEYS / 3 * 0.7 && count < KEYS / 3 * 1.3, "balanced: " + counts);
+		}
+	}
+
+	@Test
+	public void testRebalance() {
+		ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"), 100);
+		ConsistentHashRing shrunk = new ConsistentHashRing(Arrays.asList("node1", "node3"), 100);
+		for (int i = 0; i < KEYS; i++) {
+			String owner = ring.ownerOf("JOB" + i);
+			if (!owner.equals("node2")) {
+				assertEquals(owner, shrunk.ownerOf("JOB" + i), "only keys of the removed node move");
+			} else {
+				assertNotEquals("node2", shrunk.ownerOf("JOB" + i));
+			}
+		}
+		assertEquals(ring.ownerOf("x"), new ConsistentHashRing(Arrays.asList("node3", "node2", "node1"), 100).ownerOf("x"),
+				"independent of node order");
+	}
+
+	@Test
+	public void testEmpty() {
+		assertNull(new ConsistentHashRing(Collections.emptyList(), 10).ownerOf("x"));
+		assertEquals("node1", new ConsistentHashRing(Collections.singleton("node1"), 10).ownerOf("x"));
+	}
+}
@@ -0,0 +1,208 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchPipelineTest {
+
+	@Test
+	public void testShutdownWhileDispatching() throws Exception {
+		DispatchPipeline pipeline = new DispatchPipeline(1, 1);
+		CountDownLatch preparing = new CountDownLatch(1);
+		AtomicInteger submitted = new AtomicInteger();
+		AtomicInteger skipped = new AtomicInteger();
+		DispatchPipeline.Stages stages = new DispatchPipeline.Stages() {
+			@Override
+			public JobInstance prepare(JobDefinition job) {
+				preparing.countDown();
+				try {
+					Thread.sleep(60000);
+				} catch (InterruptedException e) {
+					// interrupted by the shutdown
+				}
+				return new JobInstance(job);
+			}
+
+			@Override
+			public boolean submit(JobInstance instance) {
+				submitted.incrementAndGet();
+				return true;
+			}
+
+			@Override
+			public void skip(JobInstance instance) {
+				skipped.incrementAndGet();
+			}
+		};
+		// the first job blocks the prepare stage, the second waits in its queue, the third blocks the caller
+		Thread dispatcher = new Thread(() -> pipeline.dispatch(List.of(job("A"), job("B"), job("C")), stages));
+		dispatcher.start();
+		assertTrue(preparing.await(5, TimeUnit.SECONDS), "preparing");
+		pipeline.shutdown();
+		dispatcher.join(5000);
+
+		assertFalse(dispatcher.isAlive(), "dispatch returned");
+		assertEquals(1, submitted.get() + skipped.get(), "prepared job submitted or skipped");
+	}
+
+	@Test
+	public void testRunQueueInOrder() {
+		DispatchPipeline pipeline = new DispatchPipeline(4, 2);
+		List<String> prepareOrder = Collections.synchronizedList(new ArrayList<>());
+		List<String> submitOrder = Collections.synchronizedList(new ArrayList<>());
+		List<JobDefinition> jobs = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			JobDefinition job = job("JOB" + i);
+			job.setRunQueue("Q");
+			jobs.add(job);
+			names.add(job.getName());
+		}
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pipeline.dispatch(jobs, new RecordingStages() {
+				@Override
+				public JobInstance prepare(JobDefinition job) {
+					prepareOrder.add(job.getName());
+					return new JobInstance(job);
+				}
+
+				@Override
+				public boolean submit(JobInstance instance) {
+					submitOrder.add(instance.getJob().getName());
+					return true;
+				}
+			}));
+		} finally {
+			pipeline.shutdown();
+		}
+
+		assertEquals(names, prepareOrder, "prepare order");
+		assertEquals(names, submitOrder, "submit order");
+	}
+
+	@Test
+	public void testLanesInParallel() {
+		DispatchPipeline pipeline = new DispatchPipeline(2, 1) {
+			@Override
+			protected int laneOf(JobDefinition job) {
+				return job.getName().equals("A") ? 0 : 1;
+			}
+		};
+		// both jobs only get ready when the other one is preparing at the same time
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		RecordingStages stages = new RecordingStages() {
+			@Override
+			public JobInstance prepare(JobDefinition job) {
+				try {
+					barrier.await(5, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					return null;
+				}
+				return new JobInstance(job);
+			}
+		};
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pipeline.dispatch(List.of(job("A"), job("B")), stages));
+		} finally {
+			pipeline.shutdown();
+		}
+
+		assertEquals(2, stages.submitted.get(), "both lanes prepared concurrently");
+	}
+
+	@Test
+	public void testDroppedJobs() {
+		DispatchPipeline pipeline = new DispatchPipeline(1, 1);
+		RecordingStages stages = new RecordingStages() {
+			@Override
+			public JobInstance prepare(JobDefinition job) {
+				switch (job.getName()) {
+					case "FAILS":
+						throw new IllegalStateException("prepare failed");
+					case "NOT_READY":
+						return null;
+					default:
+						return new JobInstance(job);
+				}
+			}
+		};
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+					pipeline.dispatch(List.of(job("FAILS"), job("NOT_READY"), job("READY")), stages));
+		} finally {
+			pipeline.shutdown();
+		}
+
+		assertEquals(1, stages.submitted.get(), "the lane goes on after a dropped job");
+		assertEquals(0, stages.skipped.get(), "skipped");
+	}
+
+	@Test
+	public void testExecutorFull() {
+		DispatchPipeline pipeline = new DispatchPipeline(1, 1);
+		AtomicInteger prepared = new AtomicInteger();
+		RecordingStages stages = new RecordingStages() {
+			@Override
+			public JobInstance prepare(JobDefinition job) {
+				prepared.incrementAndGet();
+				return new JobInstance(job);
+			}
+
+			@Override
+			public boolean submit(JobInstance instance) {
+				super.submit(instance);
+				return false;
+			}
+		};
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+					pipeline.dispatch(List.of(job("A"), job("B"), job("C")), stages));
+		} finally {
+			pipeline.shutdown();
+		}
+
+		assertEquals(1, stages.submitted.get(), "no submit after the executor is full");
+		assertEquals(prepared.get() - 1, stages.skipped.get(), "every other prepared job skipped");
+	}
+
+	/**
+	 * Stages that prepare every job and count submitted and skipped instances
+	 */
+	private static class RecordingStages implements DispatchPipeline.Stages {
+		final AtomicInteger submitted = new AtomicInteger();
+		final AtomicInteger skipped = new AtomicInteger();
+
+		@Override
+		public JobInstance prepare(JobDefinition job) {
+			return new JobInstance(job);
+		}
+
+		@Override
+		public boolean submit(JobInstance instance) {
+			submitted.incrementAndGet();
+			return true;
+		}
+
+		@Override
+		public void skip(JobInstance instance) {
+			skipped.incrementAndGet();
+		}
+	}
+
+	private static JobDefinition job(String name) {
+		JobDefinition job = new JobDefinition();
+		job.setName(name);
+		return job;
+	}
+}
@@ -0,0 +1,58 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class EventDrivenDispatcherTest {
+
+	private NextRunIndex index;
+	private JobScheduler jobScheduler;
+	private JobDefinitionDao jobDao;
+	private EventDrivenDispatcher dispatcher;
+
+	@BeforeEach
+	public void setup() {
+		index = new PriorityNextRunIndex();
+		jobScheduler = mock(JobScheduler.class);
+		jobDao = mock(JobDefinitionDao.class);
+		dispatcher = new EventDrivenDispatcher(index, jobScheduler, jobDao);
+		dispatcher.setRecheckDelay(60000);
+	}
+
+	@Test
+	public void testDispatchIndexedNames() {
+		JobDefinition job = new JobDefinition();
+		job.setName("A");
+		when(jobScheduler.dueLimit()).thenReturn(2);
+		when(jobDao.findDueByNames(eq(List.of("A", "B")), any())).thenReturn(List.of(job));
+
+		dispatcher.dispatch(List.of("A", "B", "C"));
+
+		verify(jobDao).findDueByNames(eq(List.of("A", "B")), any());
+		verify(jobScheduler).dispatch(List.of(job));
+		verifyNoMoreInteractions(jobDao);
+		assertEquals(3, index.size(), "due jobs are checked again");
+		assertTrue(index.peekNextRun().isAfter(LocalDateTime.now()));
+	}
+
+	@Test
+	public void testNoCapacity() {
+		when(jobScheduler.dueLimit()).thenReturn(0);
+
+		dispatcher.dispatch(List.of("A"));
+
+		verifyNoInteractions(jobDao);
+		verify(jobScheduler, never()).dispatch(any());
+		assertEquals(1, index.size());
+	}
+}
@@ -0,0 +1,88 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FairSharePolicyTest {
+
+	@Test
+	public void testParse() {
+		assertEquals(Map.of("etl", 3, "reports", 1), FairSharePolicy.parse(" etl:3, reports:1"));
+		assertTrue(FairSharePolicy.parse("").isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> FairSharePolicy.parse("etl"));
+	}
+
+	@Test
+	public void testWeightedShare() {
+		FairSharePolicy policy = new FairSharePolicy(Map.of("A", 3), Map.of());
+		List<JobDefinition> due = jobs("A", 8);
+		due.addAll(jobs("B", 8));
+
+		List<JobDefinition> selected = policy.select(due, Map.of(), 8, 8);
+		assertEquals(Map.of("A", 6L, "B", 2L), countByGroup(selected));
+
+		// running jobs count against the share
+		selected = policy.select(due, Map.of("A", 6), 8, 2);
+		assertEquals(Map.of("B", 2L), countByGroup(selected));
+	}
+
+	@Test
+	public void testBorrowIdleCapacity() {
+		FairSharePolicy policy = new FairSharePolicy(Map.of(), Map.of());
+		List<JobDefinition> due = jobs("A", 6);
+		due.addAll(jobs("B", 1));
+
+		// B uses only one of its two slots, A borrows the other one
+		List<JobDefinition> selected = policy.select(due, Map.of(), 4, 4);
+		assertEquals(Map.of("A", 3L, "B", 1L), countByGroup(selected));
+		assertEquals("B", FairSharePolicy.groupOf(selected.get(2)), "jobs within share first");
+	}
+
+	@Test
+	public void testMinimumSlots() {
+		FairSharePolicy policy = new FairSharePolicy(Map.of(), Map.of("C", 1));
+
+		// C is idle, its minimum slot is not borrowed
+		List<JobDefinition> selected = policy.select(jobs("A", 6), Map.of(), 4, 4);
+		assertEquals(Map.of("A", 3L), countByGroup(selected));
+
+		// C gets its slot although A runs on all others
+		selected = policy.select(jobs("C", 2), Map.of("A", 3), 4, 1);
+		assertEquals(Map.of("C", 1L), countByGroup(selected));
+	}
+
+	@Test
+	public void testMinimumSlotsFirst() {
+		FairSharePolicy policy = new FairSharePolicy(Map.of(), Map.of("C", 1));
+		List<JobDefinition> due = jobs("A", 1);
+		due.addAll(jobs("C", 1));
+
+		// the only free slot is the minimum slot of C, although A comes first within its share
+		List<JobDefinition> selected = policy.select(due, Map.of("B", 3), 4, 1);
+		assertEquals(Map.of("C", 1L), countByGroup(selected));
+
+		// with room for both, C is still dispatched first
+		selected = policy.select(due, Map.of(), 4, 2);
+		assertEquals(List.of("C0", "A0"), selected.stream().map(JobDefinition::getName).toList());
+	}
+
+	private List<JobDefinition> jobs(String group, int count) {
+		List<JobDefinition> jobs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			JobDefinition job = new JobDefinition();
+			job.setName(group + i);
+			job.setJobGroup(group);
+			jobs.add(job);
+		}
+		return jobs;
+	}
+
+	private Map<String, Long> countByGroup(List<JobDefinition> jobs) {
+		return jobs.stream().collect(Collectors.groupingBy(FairSharePolicy::groupOf, Collectors.counting()));
+	}
+}
@@ -0,0 +1,51 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeapAdmissionControlTest {
+
+	@Test
+	public void testThreshold() {
+		HeapAdmissionControl control = new HeapAdmissionControl();
+		JobDefinition job = createJob("JOB1");
+		assertTrue(control.currentUsage().getUsed() > 0, "heap in use");
+
+		control.setThreshold(0);
+		assertFalse(control.admit(job), "pressure");
+		control.setThreshold(1);
+		assertTrue(control.admit(job), "no pressure");
+	}
+
+	@Test
+	public void testEstimates() {
+		HeapAdmissionControl control = new HeapAdmissionControl();
+		control.setThreshold(1);
+		control.learn("JOB1", 1000);
+		assertEquals(1000, control.estimateOf("JOB1"));
+		control.learn("JOB1", -500);
+		assertEquals(500, control.estimateOf("JOB1"), "collection during run counts as no growth");
+		assertEquals(0, control.estimateOf("JOB2"));
+
+		control.learn("JOB2", Long.MAX_VALUE / 2);
+		assertFalse(control.admit(createJob("JOB2")), "known heavy job deferred");
+		assertTrue(control.admit(createJob("JOB1")));
+
+		JobInstance instance = new JobInstance(createJob("JOB3"));
+		control.jobStarted(instance);
+		control.jobFinished(instance);
+		assertEquals(0, control.estimateOf("JOB3"), "learning disabled");
+		control.setLearnEstimates(true);
+		control.jobStarted(instance);
+		control.jobFinished(instance);
+		assertTrue(control.estimateOf("JOB3") >= 0);
+	}
+
+	private static JobDefinition createJob(String name) {
+		JobDefinition job = new JobDefinition();
+		job.setName(name);
+		return job;
+	}
+}
@@ -0,0 +1,90 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.Job;
+import de.lit.jobscheduler.JobSchedule;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobExecution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Scope;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobBeanCacheTest {
+
+	static class TestContext {
+		static int created = 0;
+
+		@Bean
+		public Job singletonJob() {
+			return job -> {
+			};
+		}
+
+		@Bean
+		@Scope("prototype")
+		public Job prototypeJob() {
+			created++;
+			// no lambda, a non-capturing lambda would always be the same instance
+			return new Job() {
+				@Override
+				public void run(JobExecution job) {
+				}
+			};
+		}
+
+		@Bean
+		public JobSchedule testSchedule() {
+			return new JobSchedule() {
+				@Override
+				public boolean testJobReady(JobDefinition job) {
+					return true;
+				}
+
+				@Override
+				public LocalDateTime evalNextRun(JobDefinition job) {
+					return null;
+				}
+			};
+		}
+	}
+
+	private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestContext.class);
+	private final JobBeanCache cache = new JobBeanCache(context);
+
+	@AfterEach
+	public void close() {
+		context.close();
+	}
+
+	@Test
+	public void testSingletonCache() {
+		assertSame(context.getBean("singletonJob"), cache.acquireImplementation("singletonJob"));
+		assertSame(cache.acquireImplementation("singletonJob"), cache.acquireImplementation("singletonJob"));
+		assertSame(context.getBean("testSchedule"), cache.getSchedule("testSchedule"));
+	}
+
+	@Test
+	public void testPrototypePool() {
+		TestContext.created = 0;
+		Job first = cache.acquireImplementation("prototypeJob");
+		cache.releaseImplementation("prototypeJob", first);
+		assertNotSame(first, cache.acquireImplementation("prototypeJob"), "no pooling by default");
+
+		cache.setPrototypePoolSize(1);
+		first = cache.acquireImplementation("prototypeJob");
+		Job second = cache.acquireImplementation("prototypeJob");
+		cache.releaseImplementation("prototypeJob", first);
+		cache.releaseImplementation("prototypeJob", second);
+		assertSame(first, cache.acquireImplementation("prototypeJob"));
+		assertEquals(4, TestContext.created);
+		assertNotSame(second, cache.acquireImplementation("prototypeJob"), "pool size is 1");
+
+		cache.clear();
+		assertNotSame(first, cache.acquireImplementation("prototypeJob"));
+	}
+}
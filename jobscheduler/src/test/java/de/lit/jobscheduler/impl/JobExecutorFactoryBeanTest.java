@@ -0,0 +1,181 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobExecutorFactoryBeanTest {
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		boolean supported = Runtime.version().feature() >= 21;
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean();
+		factory.setThreadNamePrefix("test-");
+		factory.setVirtualThreads(true);
+		factory.setConcurrency(10);
+		factory.initialize();
+		try {
+			JobExecutorImpl executor = (JobExecutorImpl) factory.jobExecutor();
+			assertEquals(supported ? 10 : 4, executor.getMaximumPoolSize(), "concurrency");
+			assertEquals(supported ? 10 : 1, executor.getCorePoolSize(), "core pool size");
+
+			CompletableFuture<Thread> thread = new CompletableFuture<>();
+			executor.execute(() -> thread.complete(Thread.currentThread()));
+			assertTrue(thread.get(5, TimeUnit.SECONDS).getName().startsWith("test-"), "thread name");
+			assertEquals(supported, factory.createVirtualThreadFactory("x") != null, "virtual thread support");
+		} finally {
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testVirtualThreadsWithQueue() throws Exception {
+		// platform threads stand in for virtual threads, so this also runs on Java 17
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean() {
+			@Override
+			ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+				return new CustomizableThreadFactory(threadNamePrefix);
+			}
+		};
+		factory.setVirtualThreads(true);
+		factory.setConcurrency(100);
+		factory.setQueueCapacity(10);
+		factory.initialize();
+		try {
+			JobExecutorImpl executor = (JobExecutorImpl) factory.jobExecutor();
+			CountDownLatch started = new CountDownLatch(5);
+			CountDownLatch finish = new CountDownLatch(1);
+			for (int i = 0; i < 5; i++) {
+				executor.execute(() -> {
+					started.countDown();
+					try {
+						finish.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			assertTrue(started.await(5, TimeUnit.SECONDS), "all jobs run concurrently");
+			assertEquals(0, executor.getQueue().size(), "nothing queued");
+			finish.countDown();
+		} finally {
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testPlatformThreads() {
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean();
+		factory.setMaxPoolSize(3);
+		factory.setConcurrency(10);
+		factory.initialize();
+		try {
+			assertEquals(3, ((JobExecutorImpl) factory.jobExecutor()).getMaximumPoolSize());
+		} finally {
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testPools() throws Exception {
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean();
+		factory.setMaxPoolSize(3);
+		factory.setPoolNames("reports, alerts");
+		factory.initialize();
+		RoutingJobExecutor executor = (RoutingJobExecutor) factory.jobExecutor();
+		try {
+			assertEquals(2, executor.getPools().size(), "pools");
+			assertSame(executor.getPools().get("reports"), executor.executorFor("reports"));
+			assertSame(executor.getDefaultExecutor(), executor.executorFor(null));
+			assertSame(executor.getDefaultExecutor(), executor.executorFor("unknown"));
+			assertEquals(3 + 4 + 4, executor.remainingCapacity(), "total capacity");
+			assertEquals(3, executor.remainingCapacity(null), "default capacity");
+			assertEquals(4, executor.remainingCapacity("alerts"), "pool capacity");
+
+			CompletableFuture<Thread> thread = new CompletableFuture<>();
+			executor.executorFor("alerts").execute(() -> thread.complete(Thread.currentThread()));
+			assertTrue(thread.get(5, TimeUnit.SECONDS).getName().startsWith("jobExecutor-alerts-"), "thread name");
+		} finally {
+			executor.destroy();
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testIdlePools() throws Exception {
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean();
+		factory.setMaxPoolSize(1);
+		factory.setPoolNames("reports");
+		factory.initialize();
+		RoutingJobExecutor executor = (RoutingJobExecutor) factory.jobExecutor();
+		CountDownLatch finish = new CountDownLatch(1);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			executor.getDefaultExecutor().execute(() -> {
+				started.countDown();
+				try {
+					finish.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS), "default pool saturated");
+			assertEquals(0, executor.getDefaultExecutor().idleThreads(), "default pool");
+			assertEquals(4, executor.idleThreads(), "idle threads of all pools");
+
+			CompletableFuture<Thread> thread = new CompletableFuture<>();
+			executor.execute(() -> thread.complete(Thread.currentThread()));
+			assertTrue(thread.get(5, TimeUnit.SECONDS).getName().startsWith("jobExecutor-reports-"), "runs in idle pool");
+		} finally {
+			finish.countDown();
+			executor.destroy();
+			factory.shutdown();
+		}
+	}
+
+	@Test
+	public void testBudget() throws Exception {
+		JobExecutorFactoryBean factory = new JobExecutorFactoryBean();
+		factory.setPoolNames("reports");
+		factory.setBudget(5);
+		factory.initialize();
+		RoutingJobExecutor executor = (RoutingJobExecutor) factory.jobExecutor();
+		try {
+			ResourceBudget budget = executor.getDefaultExecutor().getResourceBudget();
+			assertSame(budget, executor.executorFor("reports").getResourceBudget(), "shared by all pools");
+			assertEquals(5, executor.remainingCapacity(), "limited by budget");
+
+			assertTrue(budget.tryAcquire(3));
+			assertEquals(2, executor.remainingCapacity());
+			assertTrue(executor.fits(createJob("reports", 2)));
+			assertFalse(executor.fits(createJob("reports", 3)));
+			assertFalse(executor.fits(createJob(null, 3)), "same budget in default pool");
+			assertFalse(budget.tryAcquire(3));
+			budget.release(3);
+
+			assertTrue(executor.fits(createJob(null, 8)), "oversized job fits into empty budget");
+			assertTrue(budget.tryAcquire(8));
+			assertEquals(0, executor.remainingCapacity());
+			assertFalse(executor.fits(createJob(null, null)));
+			budget.release(8);
+			assertEquals(0, budget.getUsed());
+		} finally {
+			executor.destroy();
+			factory.shutdown();
+		}
+	}
+
+	private static JobDefinition createJob(String executor, Integer weight) {
+		JobDefinition job = new JobDefinition();
+		job.setExecutor(executor);
+		job.setWeight(weight);
+		return job;
+	}
+}
@@ -7,6 +7,7 @@ import de.lit.jobscheduler.entity.JobExecution;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.quality.Strictness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,11 +18,18 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntPredicate;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ContextConfiguration(loader = AnnotationConfigContextLoader.class)
@@ -173,6 +181,84 @@ public class JobExecutorTest extends SpringTestCase {
 		assertNull(job.getNextRun(), "nextRun");
 	}
 
+	@Test
+	@Sql("testjob12.dataset.sql")
+	public void testBatchStartTime() throws Exception {
+		JobInstance job1 = claim("testjob1");
+		JobInstance job2 = claim("testjob2");
+
+		jobExecutor.submitClaimedBatch(List.of(job1, job2));
+
+		waitForCondition(100, i ->
+				jobIsNotRunning("TESTJOB1") && jobIsNotRunning("TESTJOB2")
+		);
+
+		JobExecution exec1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new).getLastExecution();
+		JobExecution exec2 = jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new).getLastExecution();
+		assertEquals(JobExecution.Status.SUCCESS, exec1.getStatus(), "job1 status");
+		assertEquals(JobExecution.Status.ERROR, exec2.getStatus(), "job2 status");
+		assertTrue(exec1.getEndTime().getTime() - exec1.getStartTime().getTime() >= 250, "job1 duration");
+		assertFalse(exec2.getStartTime().before(exec1.getEndTime()), "job2 starts after job1");
+	}
+
+	@Test
+	@Sql("testjob12.dataset.sql")
+	public void testBatchAbortWaitingJob() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch aborted = new CountDownLatch(1);
+		JobInstance job1 = claim("testjob1");
+		job1.setImplementation(job -> {
+			started.countDown();
+			aborted.await(10, TimeUnit.SECONDS);
+		});
+		JobInstance job2 = claim("testjob2");
+
+		jobExecutor.submitClaimedBatch(List.of(job1, job2));
+		assertTrue(started.await(10, TimeUnit.SECONDS), "job1 started");
+		jobExecutor.abortJobIfRunning(jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new));
+		aborted.countDown();
+
+		waitForCondition(100, i ->
+				jobIsNotRunning("TESTJOB1") && jobIsNotRunning("TESTJOB2")
+		);
+
+		JobDefinition job = jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new);
+		assertEquals(JobExecution.Status.ABORTED, job.getLastExecution().getStatus(), "job2 status");
+		verify(lifecycleMock).jobStarted(job1);
+		verify(lifecycleMock, never()).jobStarted(job2);
+	}
+
+	@Test
+	@Sql("testjob12.dataset.sql")
+	public void testBatchUpdateFailure() throws Exception {
+		JobInstance job1 = claim("testjob1");
+		JobInstance job2 = claim("testjob2");
+		job2.setSchedule(dummySchedule());
+		JobDefinitionDao failingDao = mock(JobDefinitionDao.class, withSettings().defaultAnswer(delegatesTo(jobDao)).strictness(Strictness.LENIENT));
+		doThrow(new IllegalStateException("update failed")).when(failingDao).updateForNextRun(eq("TESTJOB1"), any(), any());
+		doThrow(new IllegalStateException("update failed")).when(failingDao).updateForNextRun(eq("TESTJOB1"), any());
+		ReflectionTestUtils.setField(jobExecutor, "jobDao", failingDao);
+		try {
+			jobExecutor.submitClaimedBatch(List.of(job1, job2));
+
+			waitForCondition(100, i ->
+					jobIsNotRunning("TESTJOB1") && jobIsNotRunning("TESTJOB2")
+			);
+		} finally {
+			ReflectionTestUtils.setField(jobExecutor, "jobDao", jobDao);
+		}
+
+		JobDefinition job = jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new);
+		assertEquals(dummyNextRun, job.getNextRun(), "job2 nextRun");
+		assertEquals(JobExecution.Status.ERROR, job.getLastExecution().getStatus(), "job2 status");
+	}
+
+	private JobInstance claim(String implementation) {
+		JobInstance instance = jobUtility.createJobInstance(implementation, null);
+		jobDao.updateRunning(instance.getJob().getName(), true);
+		return instance;
+	}
+
 	private boolean jobIsNotRunning(String jobname) {
 		return !jobDao.findById(jobname).orElseThrow(AssertionError::new).isRunning();
 	}
@@ -0,0 +1,25 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobInstanceTest {
+
+	@Test
+	public void testInterruptOnlyWhileRunning() {
+		JobInstance instance = new JobInstance(new JobDefinition());
+		assertEquals(JobInstance.State.NEW, instance.getState());
+		assertFalse(instance.interrupt(), "not started");
+
+		instance.markRunning(Thread.currentThread());
+		assertTrue(instance.interrupt(), "running");
+		assertTrue(Thread.interrupted(), "thread interrupted");
+
+		instance.markFinished();
+		assertEquals(JobInstance.State.FINISHED, instance.getState());
+		assertFalse(instance.interrupt(), "finished");
+		assertFalse(Thread.interrupted(), "thread of the next job not interrupted");
+	}
+}
@@ -0,0 +1,150 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.JobSchedule;
+import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobExecution;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Start/finish throughput of {@link JobExecutorImpl} with empty jobs and 1 ms latency per DAO call,
+ * compared to the former lifecycle that held one global lock during all DAO calls. Every measurement
+ * runs twice, the first round serves as warm up. Not part of the regular test run, start with
+ * <pre>
+ *     mvn test -Dtest=JobLifecycleBenchmark
+ * </pre>
+ */
+public class JobLifecycleBenchmark {
+	private final Logger logger = LoggerFactory.getLogger(JobLifecycleBenchmark.class);
+
+	private static final int JOBS = 400;
+	private static final long DB_LATENCY_MILLIS = 1;
+
+	@Test
+	public void lifecycleThroughput() throws Exception {
+		double single = 0;
+		double parallel = 0;
+		for (int round = 0; round < 2; round++) {
+			for (int threads : new int[]{1, 4, 16}) {
+				double concurrent = run(threads, false);
+				double serialized = run(threads, true);
+				logger.info("{} threads: {} jobs/s, with global lock {} jobs/s",
+						threads, Math.round(concurrent), Math.round(serialized));
+				if (threads == 1) single = concurrent;
+				if (threads == 16) parallel = concurrent;
+			}
+		}
+		assertTrue(parallel > 2 * single, "throughput scales with threads");
+	}
+
+	private double run(int threads, boolean globalLock) throws Exception {
+		Object lock = new Object();
+		JobExecutorImpl executor = new JobExecutorImpl(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy()) {
+			@Override
+			protected void beforeJobExecute(Thread t, JobInstance jobInst) {
+				if (globalLock) {
+					synchronized (lock) {
+						super.beforeJobExecute(t, jobInst);
+					}
+				} else {
+					super.beforeJobExecute(t, jobInst);
+				}
+			}
+
+			@Override
+			protected void afterJobExecute(JobInstance jobInst) {
+				if (globalLock) {
+					synchronized (lock) {
+						super.afterJobExecute(jobInst);
+					}
+				} else {
+					super.afterJobExecute(jobInst);
+				}
+			}
+		};
+		ReflectionTestUtils.setField(executor, "jobDao", slowJobDao());
+		ReflectionTestUtils.setField(executor, "jobExecutionDao", slowJobExecutionDao());
+		CountDownLatch finished = new CountDownLatch(JOBS);
+		JobSchedule schedule = new JobSchedule() {
+			@Override
+			public boolean testJobReady(JobDefinition job) {
+				return true;
+			}
+
+			@Override
+			public LocalDateTime evalNextRun(JobDefinition job) {
+				finished.countDown();
+				return null;
+			}
+		};
+
+		long start = System.nanoTime();
+		for (int i = 0; i < JOBS; i++) {
+			JobDefinition job = new JobDefinition();
+			job.setName("JOB" + i);
+			JobInstance instance = new JobInstance(job);
+			instance.setImplementation(execution -> {
+			});
+			instance.setSchedule(schedule);
+			executor.execute(instance);
+		}
+		assertTrue(finished.await(60, TimeUnit.SECONDS), "all jobs finished");
+		double jobsPerSecond = JOBS / ((System.nanoTime() - start) / 1e9);
+		executor.shutdownNow();
+		return jobsPerSecond;
+	}
+
+	private static void dbRoundTrip() {
+		try {
+			Thread.sleep(DB_LATENCY_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static JobDefinitionDao slowJobDao() {
+		return (JobDefinitionDao) Proxy.newProxyInstance(JobDefinitionDao.class.getClassLoader(),
+				new Class<?>[]{JobDefinitionDao.class}, (proxy, method, args) -> {
+					dbRoundTrip();
+					return method.getReturnType() == int.class ? 1 : null;
+				});
+	}
+
+	private static JobExecutionDao slowJobExecutionDao() {
+		AtomicLong ids = new AtomicLong();
+		Map<Long, JobExecution> executions = new ConcurrentHashMap<>();
+		return (JobExecutionDao) Proxy.newProxyInstance(JobExecutionDao.class.getClassLoader(),
+				new Class<?>[]{JobExecutionDao.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "create":
+							return new JobExecution();
+						case "save":
+							dbRoundTrip();
+							JobExecution exec = (JobExecution) args[0];
+							if (exec.getId() == null) exec.setId(ids.incrementAndGet());
+							executions.put(exec.getId(), exec);
+							return exec;
+						case "findById":
+							dbRoundTrip();
+							return Optional.ofNullable(executions.get((Long) args[0]));
+						default:
+							dbRoundTrip();
+							return method.getReturnType() == int.class ? 0 : null;
+					}
+				});
+	}
+}
@@ -3,15 +3,30 @@ package de.lit.jobscheduler.impl;
 import de.lit.jobscheduler.Job;
 import de.lit.jobscheduler.JobImplementationProvider;
 import de.lit.jobscheduler.JobSchedule;
+import de.lit.jobscheduler.JobSchedulerMetrics;
+import de.lit.jobscheduler.PartitionedJob;
 import de.lit.jobscheduler.SpringTestCase;
+import de.lit.jobscheduler.dao.JobAssignmentDao;
 import de.lit.jobscheduler.dao.JobDefinitionDao;
+import de.lit.jobscheduler.dao.JobExecutionDao;
+import de.lit.jobscheduler.dao.JobLeaseDao;
+import de.lit.jobscheduler.dao.JobNodeDao;
+import de.lit.jobscheduler.dao.JobPartitionDao;
+import de.lit.jobscheduler.dao.JobRateLimitDao;
 import de.lit.jobscheduler.entity.JobDefinition;
+import de.lit.jobscheduler.entity.JobAssignment;
 import de.lit.jobscheduler.entity.JobExecution;
+import de.lit.jobscheduler.entity.JobLease;
+import de.lit.jobscheduler.entity.JobNode;
+import de.lit.jobscheduler.entity.JobPartition;
+import de.lit.jobscheduler.entity.JobRateLimit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -21,6 +36,13 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntPredicate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,10 +59,38 @@ public class JobSchedulerTest extends SpringTestCase {
     @Autowired
     private JobScheduler jobScheduler;
 
+    @Autowired
+    private JobNodeDao jobNodeDao;
+
+    @Autowired
+    private JobExecutor jobExecutor;
+
+    @Autowired
+    private JobLeaseDao jobLeaseDao;
+
+    @Autowired
+    private JobAssignmentDao jobAssignmentDao;
+
+    @Autowired
+    private InMemoryJobSchedulerMetrics metrics;
+
+    @Autowired
+    private JobExecutionDao jobExecutionDao;
+
+    @Autowired
+    private JobPartitionDao jobPartitionDao;
+
+    @Autowired
+    private JobRateLimitDao jobRateLimitDao;
+
+    @Autowired
+    private ApplicationContext appContext;
+
     private static int parallelCount = 0;
     private static int maxParallelCount = 0;
     private static int job1Count = 0;
     private static int job2Count = 0;
+    private static final Map<String, String> partitionThreads = new ConcurrentHashMap<>();
 
     private static LocalDateTime dummyNextRun = LocalDateTime.of(2099, 4, 1, 11, 11);
 
@@ -83,6 +133,30 @@ public class JobSchedulerTest extends SpringTestCase {
             };
         }
 
+        @Bean
+        public Job partitionedjob() {
+            return new PartitionedJob() {
+                @Override
+                public List<String> partition(JobExecution execution) {
+                    return List.of("1", "2", "3", "4", "5", "6");
+                }
+
+                @Override
+                public void runPartition(JobExecution execution, String partition) throws Exception {
+                    Thread.sleep(200);
+                    partitionThreads.put(partition, Thread.currentThread().getName());
+                    if (partition.equals("6")) {
+                        throw new IllegalArgumentException("partition 6 failed");
+                    }
+                }
+            };
+        }
+
+        @Bean
+        public InMemoryJobSchedulerMetrics jobSchedulerMetrics() {
+            return new InMemoryJobSchedulerMetrics();
+        }
+
         @Bean
         public JobSchedule dummySchedule() {
             return new JobSchedule() {
@@ -164,6 +238,160 @@ public class JobSchedulerTest extends SpringTestCase {
         assertEquals(JobExecution.Status.SUCCESS, job2.getLastExecution().getStatus(), "job2 status");
     }
 
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testConcurrentBatchClaim() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobScheduler.setClaimBatchSize(10);
+        try {
+            Thread t1 = new Thread(jobScheduler::run);
+            Thread t2 = new Thread(jobScheduler::run);
+
+            t1.start();
+            t2.start();
+
+            waitForCondition(10, i ->
+                    job1Count > 0 && job2Count > 0
+            );
+
+            t1.join(1000);
+            t2.join(1000);
+            Thread.sleep(500);
+        } finally {
+            jobScheduler.setClaimBatchSize(0);
+        }
+
+        assertEquals(1, job1Count, "job1Count");
+        assertEquals(1, job2Count, "job2Count");
+        JobDefinition job1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        JobDefinition job2 = jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new);
+        assertFalse(job1.isRunning(), "job1 running");
+        assertEquals(JobExecution.Status.SUCCESS, job1.getLastExecution().getStatus(), "job1 status");
+        assertEquals(JobExecution.Status.SUCCESS, job2.getLastExecution().getStatus(), "job2 status");
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testLightweightJobs() throws Exception {
+        for (String name : List.of("TESTJOB1", "TESTJOB2")) {
+            JobDefinition job = jobDao.findById(name).orElseThrow(AssertionError::new);
+            job.setLightweight(true);
+            jobDao.save(job);
+            jobDao.runJobNow(name);
+        }
+
+        jobScheduler.run();
+        waitForCondition(10, i -> jobDao.findById("TESTJOB2").map(job -> !job.isRunning()).orElse(false)
+                && jobDao.findById("TESTJOB1").map(job -> !job.isRunning()).orElse(false));
+
+        assertEquals(1, job1Count, "job1Count");
+        assertEquals(1, job2Count, "job2Count");
+        assertEquals(1, maxParallelCount, "run back to back");
+        for (String name : List.of("TESTJOB1", "TESTJOB2")) {
+            JobDefinition job = jobDao.findById(name).orElseThrow(AssertionError::new);
+            assertNotNull(job.getLastExecution(), name + " last execution");
+            assertEquals(JobExecution.Status.SUCCESS, job.getLastExecution().getStatus(), name + " status");
+            assertNotNull(job.getLastExecution().getEndTime(), name + " end time");
+            assertTrue(job.getNextRun().isAfter(LocalDateTime.now()), name + " next run");
+        }
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testResourceBudget() throws Exception {
+        JobDefinition job1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        job1.setWeight(2);
+        job1.setPriority(1);
+        jobDao.save(job1);
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        JobExecutorImpl executor = (JobExecutorImpl) jobExecutor;
+        ResourceBudget budget = new ResourceBudget(2);
+        // a job of weight 1 is running, the heavy TESTJOB1 does not fit, TESTJOB2 does
+        budget.tryAcquire(1);
+        executor.setResourceBudget(budget);
+        try {
+            jobScheduler.run();
+            waitForCondition(10, i -> job2Count > 0);
+            Thread.sleep(500);
+        } finally {
+            executor.setResourceBudget(null);
+        }
+
+        assertEquals(0, job1Count, "job1Count");
+        assertEquals(1, job2Count, "job2Count");
+        assertEquals(1, budget.getUsed(), "weight of TESTJOB2 released");
+        job1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        assertFalse(job1.isRunning(), "job1 running");
+        assertNull(job1.getLastExecution(), "job1 waits for next cycle");
+    }
+
+    @Test
+    @Sql("testjob1.dataset.sql")
+    public void testHeapAdmission() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        JobExecutorImpl executor = (JobExecutorImpl) jobExecutor;
+        HeapAdmissionControl admissionControl = new HeapAdmissionControl();
+        admissionControl.setThreshold(0);
+        // an idle node always admits, so pretend another job is running
+        JobDefinition other = new JobDefinition();
+        other.setName("OTHER");
+        executor.getRunningJobs().register(-1L, new JobInstance(other));
+        executor.setAdmissionControl(admissionControl);
+        try {
+            jobScheduler.run();
+            executor.submitJob(jobScheduler.createJobInstance(jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new)));
+            Thread.sleep(500);
+        } finally {
+            executor.setAdmissionControl(null);
+            executor.getRunningJobs().unregister(-1L);
+        }
+
+        assertEquals(0, job1Count, "job1Count");
+        JobDefinition job1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        assertFalse(job1.isRunning(), "not claimed");
+        assertFalse(job1.getNextRun().isAfter(LocalDateTime.now()), "still due for other nodes");
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testRateLimit() throws Exception {
+        JobRateLimit bucket = new JobRateLimit("TESTJOB1", 1, 3600);
+        bucket.setTokens(0);
+        bucket.setLastRefill(LocalDateTime.now());
+        jobRateLimitDao.save(bucket);
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobScheduler.setRateLimiter(new RateLimiter(jobRateLimitDao));
+        try {
+            jobScheduler.run();
+            waitForCondition(10, i -> job2Count > 0);
+            Thread.sleep(500);
+        } finally {
+            jobScheduler.setRateLimiter(null);
+        }
+
+        assertEquals(0, job1Count, "job1Count");
+        assertEquals(1, job2Count, "job2Count, no bucket");
+        JobDefinition job1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        assertFalse(job1.isRunning(), "job1 running");
+        assertFalse(job1.getNextRun().isAfter(LocalDateTime.now()), "job1 deferred");
+
+        bucket.setTokens(1);
+        jobRateLimitDao.save(bucket);
+        jobScheduler.setRateLimiter(new RateLimiter(jobRateLimitDao));
+        try {
+            jobScheduler.run();
+            waitForCondition(10, i -> job1Count > 0);
+        } finally {
+            jobScheduler.setRateLimiter(null);
+        }
+        bucket = jobRateLimitDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        assertEquals(0, bucket.getTokens(), "token taken");
+        assertEquals(1, bucket.getVersion(), "version");
+    }
+
     @Test
     @Sql("testjob-singleq.dataset.sql")
     public void testConcurrentSingleQueue() throws Exception {
@@ -193,6 +421,228 @@ public class JobSchedulerTest extends SpringTestCase {
         assertTrue(job1.getLastExecution() == null || job2.getLastExecution() == null, "only one job execution");
     }
 
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testDispatchLanes() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobScheduler.setDispatchLanes(4);
+        try {
+            jobScheduler.run();
+            waitForCondition(10, i ->
+                    job1Count > 0 && job2Count > 0
+            );
+        } finally {
+            jobScheduler.setDispatchLanes(0);
+        }
+        Thread.sleep(500);
+
+        assertEquals(1, job1Count, "job1Count");
+        assertEquals(1, job2Count, "job2Count");
+        assertEquals(2, maxParallelCount, "parallel");
+    }
+
+    @Test
+    @Sql("testjob-singleq.dataset.sql")
+    public void testDispatchLanesSingleQueue() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobScheduler.setDispatchLanes(4);
+        try {
+            Thread t1 = new Thread(jobScheduler::run);
+            Thread t2 = new Thread(jobScheduler::run);
+            t1.start();
+            t2.start();
+            waitForCondition(10, i ->
+                    job1Count > 0 || job2Count > 0
+            );
+            t1.join(1000);
+            t2.join(1000);
+        } finally {
+            jobScheduler.setDispatchLanes(0);
+        }
+        Thread.sleep(500);
+
+        assertEquals(1, job1Count + job2Count, "only one job");
+        assertEquals(1, maxParallelCount, "parallel");
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testPartitioned() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobNodeDao.save(new JobNode("__othernode", LocalDateTime.now()));
+        PartitionMembership membership = new PartitionMembership(jobNodeDao, jobExecutor);
+        membership.heartbeat();
+        assertEquals(2, membership.getRing().getNodes().size(), "nodes");
+        boolean owns1 = membership.owns(jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new));
+        boolean owns2 = membership.owns(jobDao.findById("TESTJOB2").orElseThrow(AssertionError::new));
+        jobScheduler.setPartitionMembership(membership);
+        try {
+            jobScheduler.run();
+            Thread.sleep(500);
+        } finally {
+            jobScheduler.setPartitionMembership(null);
+            membership.destroy();
+            jobNodeDao.deleteById("__othernode");
+        }
+
+        assertEquals(owns1 ? 1 : 0, job1Count, "job1Count");
+        assertEquals(owns2 ? 1 : 0, job2Count, "job2Count");
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testLeaderAssignment() throws Exception {
+        jobDao.runJobNow("TESTJOB1");
+        jobDao.runJobNow("TESTJOB2");
+        jobNodeDao.save(new JobNode("__othernode", LocalDateTime.now()));
+        LeaderElection leaderElection = new LeaderElection(jobLeaseDao, jobAssignmentDao, jobNodeDao, jobExecutor);
+        leaderElection.renew();
+        assertTrue(leaderElection.isLeader(), "leader");
+        jobScheduler.setLeaderElection(leaderElection);
+        try {
+            jobScheduler.run();
+            Thread.sleep(500);
+
+            assertEquals(1, job1Count + job2Count, "one job on this node");
+            List<JobAssignment> assigned = jobAssignmentDao.findAllByNodeName("__othernode");
+            assertEquals(1, assigned.size(), "one job assigned to other node");
+            assertTrue(jobDao.findById(assigned.get(0).getJobName()).orElseThrow(AssertionError::new).isRunning(), "claimed");
+            jobAssignmentDao.deleteAssignment(assigned.get(0).getJobName(), "__othernode");
+            jobDao.updateRunning(assigned.get(0).getJobName(), false);
+        } finally {
+            jobScheduler.setLeaderElection(null);
+            leaderElection.destroy();
+            jobNodeDao.deleteById("__othernode");
+        }
+        assertFalse(leaderElection.isLeader(), "released");
+    }
+
+    @Test
+    @Sql(statements = "delete from job_lease")
+    public void testLeaderBootstrap() throws Exception {
+        // both nodes find no lease row before either of them creates it
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        LeaderElection nodeA = new LeaderElection(racingLeaseDao(barrier), jobAssignmentDao, jobNodeDao, nodeExecutor("__nodeA"));
+        LeaderElection nodeB = new LeaderElection(racingLeaseDao(barrier), jobAssignmentDao, jobNodeDao, nodeExecutor("__nodeB"));
+        try {
+            CompletableFuture<Void> renewA = CompletableFuture.runAsync(nodeA::renew);
+            CompletableFuture<Void> renewB = CompletableFuture.runAsync(nodeB::renew);
+            renewA.get(10, TimeUnit.SECONDS);
+            renewB.get(10, TimeUnit.SECONDS);
+
+            assertTrue(nodeA.isLeader() ^ nodeB.isLeader(), "exactly one leader");
+            String leader = nodeA.isLeader() ? "__nodeA" : "__nodeB";
+            assertEquals(leader, jobLeaseDao.findById(LeaderElection.LEASE_NAME).orElseThrow(AssertionError::new).getOwner());
+        } finally {
+            nodeA.destroy();
+            nodeB.destroy();
+        }
+    }
+
+    private JobLeaseDao racingLeaseDao(CyclicBarrier barrier) {
+        return new JobLeaseDao() {
+            @Override
+            public JobLease save(JobLease entity) {
+                return jobLeaseDao.save(entity);
+            }
+
+            @Override
+            public Optional<JobLease> findById(String name) {
+                Optional<JobLease> lease = jobLeaseDao.findById(name);
+                await(barrier);
+                return lease;
+            }
+
+            @Override
+            public int create(String name, String owner, LocalDateTime expires) {
+                return jobLeaseDao.create(name, owner, expires);
+            }
+
+            @Override
+            public int acquire(String name, String owner, LocalDateTime now, LocalDateTime expires) {
+                int count = jobLeaseDao.acquire(name, owner, now, expires);
+                await(barrier);
+                return count;
+            }
+
+            @Override
+            public int release(String name, String owner) {
+                return jobLeaseDao.release(name, owner);
+            }
+        };
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JobExecutor nodeExecutor(String nodeName) {
+        JobExecutor executor = Mockito.mock(JobExecutor.class);
+        Mockito.when(executor.getNodeName()).thenReturn(nodeName);
+        return executor;
+    }
+
+    @Test
+    @Sql("testjob1.dataset.sql")
+    public void testMetrics() throws Exception {
+        metrics.reset();
+        JobDefinition testjob1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        testjob1.setNextRun(LocalDateTime.now().minusSeconds(2));
+        testjob1.setSuspended(false);
+        jobDao.save(testjob1);
+
+        jobScheduler.run();
+        waitForCondition(10, i -> job1Count > 0);
+
+        for (JobSchedulerMetrics.Latency latency : JobSchedulerMetrics.Latency.values()) {
+            assertEquals(1, metrics.getHistogram(latency).getCount(), latency.name());
+            assertEquals(1, metrics.getHistogram(latency, "TESTJOB1").getCount(), latency.name());
+        }
+        long startLag = metrics.getHistogram(JobSchedulerMetrics.Latency.START_LAG).percentile(0.99);
+        assertTrue(startLag >= 2000 && startLag < 10000, "start lag " + startLag);
+    }
+
+    @Test
+    @Sql("testjob1.dataset.sql")
+    public void testPartitionedJob() throws Exception {
+        partitionThreads.clear();
+        JobDefinition testjob1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        testjob1.setImplementation("partitionedjob");
+        testjob1.setNextRun(LocalDateTime.now().minusSeconds(1));
+        testjob1.setSuspended(false);
+        jobDao.save(testjob1);
+        PartitionManager partitionManager = new PartitionManager(jobPartitionDao, jobExecutionDao, jobExecutor,
+                appContext.getBeanProvider(JobScheduler.class));
+        partitionManager.setPollInterval(50);
+        jobScheduler.setPartitionManager(partitionManager);
+        try {
+            jobScheduler.run();
+            waitForCondition(10, i -> {
+                partitionManager.stealPartitions();
+                return jobExecutionDao.findAllByJobDefinitionName("TESTJOB1").stream()
+                        .anyMatch(exec -> exec.getStatus() != JobExecution.Status.RUNNING);
+            });
+        } finally {
+            jobScheduler.setPartitionManager(null);
+        }
+
+        JobExecution exec = jobExecutionDao.findAllByJobDefinitionName("TESTJOB1").get(0);
+        assertEquals(JobExecution.Status.PARTIAL_SUCCESS, exec.getStatus());
+        assertTrue(exec.getMessage().startsWith("1 of 6 partitions failed"), exec.getMessage());
+        assertEquals(6, partitionThreads.size(), "all partitions processed");
+        assertTrue(partitionThreads.values().stream().distinct().count() > 1, "partitions stolen by other threads");
+        assertTrue(jobPartitionDao.findAllByExecutionId(exec.getId()).stream()
+                .allMatch(p -> p.getStatus() == (p.getPartitionKey().equals("6") ? JobPartition.Status.ERROR : JobPartition.Status.SUCCESS)));
+        assertTrue(jobPartitionDao.findPending(null, 10).isEmpty(), "nothing pending");
+    }
+
     @Test
     @Sql("testjob1.dataset.sql")
     public void testSchedule() throws Exception {
@@ -210,6 +660,50 @@ public class JobSchedulerTest extends SpringTestCase {
         assertEquals(dummyNextRun, testjob1.getNextRun(), "nextRun");
     }
 
+    @Test
+    @Sql("testjob1.dataset.sql")
+    public void testMisfireSkip() throws Exception {
+        JobDefinition testjob1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        testjob1.setNextRun(LocalDateTime.of(2020, 1, 1, 0, 0));
+        testjob1.setSuspended(false);
+        testjob1.setMisfirePolicy(JobDefinition.MisfirePolicy.SKIP);
+        jobDao.save(testjob1);
+
+        jobScheduler.run();
+
+        Thread.sleep(500);
+        assertEquals(0, job1Count, "job1Count");
+        testjob1 = jobDao.findById("TESTJOB1").orElseThrow(AssertionError::new);
+        assertTrue(testjob1.getNextRun().isAfter(LocalDateTime.now()), "nextRun");
+        assertEquals(1, testjob1.getNextRun().getDayOfYear(), "nextRun");
+    }
+
+    @Test
+    @Sql("testjob12.dataset.sql")
+    public void testMisfireCatchUp() throws Exception {
+        for (String name : List.of("TESTJOB1", "TESTJOB2")) {
+            JobDefinition job = jobDao.findById(name).orElseThrow(AssertionError::new);
+            job.setNextRun(LocalDateTime.of(2020, 1, 1, 0, 0));
+            job.setSuspended(false);
+            jobDao.save(job);
+        }
+        int old = jobScheduler.getMisfireCatchUp();
+        try {
+            jobScheduler.setMisfireCatchUp(1);
+            jobScheduler.run();
+            waitForCondition(10, i -> job1Count + job2Count > 0);
+            Thread.sleep(500);
+            assertEquals(1, job1Count + job2Count, "first cycle");
+
+            jobScheduler.run();
+            waitForCondition(10, i -> job1Count + job2Count > 1);
+            assertEquals(1, job1Count, "job1Count");
+            assertEquals(1, job2Count, "job2Count");
+        } finally {
+            jobScheduler.setMisfireCatchUp(old);
+        }
+    }
+
     @Test
     @Sql("testjob1.dataset.sql")
     public void testImplProvider() throws Exception {
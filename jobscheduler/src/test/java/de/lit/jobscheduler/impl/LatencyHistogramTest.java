@@ -0,0 +1,70 @@
+package de.lit.jobscheduler.impl;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.lit.jobscheduler.JobSchedulerMetrics.Latency.QUEUED;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBuckets() {
+		for (long value : new long[]{0, 1, 15, 16, 17, 100, 1000, 123456, Long.MAX_VALUE}) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(value <= LatencyHistogram.upperBoundOf(index), "upper bound of " + value);
+			if (index > 0) {
+				assertTrue(value > LatencyHistogram.upperBoundOf(index - 1), "lower bound of " + value);
+			}
+		}
+	}
+
+	@Test
+	public void testPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.percentile(0.5));
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500.5, histogram.getMean(), 0.001);
+		assertEquals(500, histogram.percentile(0.5), 500 / 8.0);
+		assertEquals(990, histogram.percentile(0.99), 990 / 8.0);
+		assertEquals(1000, histogram.percentile(1.0));
+		assertEquals(1, histogram.percentile(0.0));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void testInMemoryMetrics() {
+		InMemoryJobSchedulerMetrics metrics = new InMemoryJobSchedulerMetrics();
+		metrics.record(QUEUED, "JOB1", 10);
+		metrics.record(QUEUED, "JOB2", 20);
+
+		assertEquals(2, metrics.getHistogram(QUEUED).getCount());
+		assertEquals(20, metrics.getHistogram(QUEUED).getMax());
+		assertEquals(10, metrics.getHistogram(QUEUED, "JOB1").getMax());
+		assertNull(metrics.getHistogram(QUEUED, "JOB3"));
+		assertEquals(2, metrics.getJobNames().size());
+	}
+
+	@Test
+	public void testMicrometerMetrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MicrometerJobSchedulerMetrics metrics = new MicrometerJobSchedulerMetrics(registry, 0.5, 0.99);
+		metrics.record(QUEUED, "JOB1", 10);
+		metrics.record(QUEUED, "JOB2", 20);
+
+		Timer global = registry.get("jobscheduler.latency").tag("type", "queued").timer();
+		assertEquals(2, global.count());
+		assertEquals(20, global.max(TimeUnit.MILLISECONDS), 0.001);
+		Timer job1 = registry.get("jobscheduler.job.latency").tags("type", "queued", "job", "JOB1").timer();
+		assertEquals(1, job1.count());
+	}
+}
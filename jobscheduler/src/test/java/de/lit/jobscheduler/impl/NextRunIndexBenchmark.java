@@ -0,0 +1,86 @@
+package de.lit.jobscheduler.impl;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Timer overhead of the next run index implementations with 100k registered jobs.
+ * Every measurement runs three times, the first rounds serve as JIT warm up. Not part of the regular test run, start with
+ * <pre>
+ *     mvn test -Dtest=NextRunIndexBenchmark
+ * </pre>
+ */
+public class NextRunIndexBenchmark {
+	private final Logger logger = LoggerFactory.getLogger(NextRunIndexBenchmark.class);
+
+	private static final int JOBS = 100_000;
+	private static final long HORIZON = TimeUnit.HOURS.toMillis(24);
+	private static final long TICK = 100;
+
+	@Test
+	public void timingWheel() throws Exception {
+		for (int round = 0; round < 3; round++) {
+			TimingWheelNextRunIndexTest.ManualClock clock = new TimingWheelNextRunIndexTest.ManualClock(System.currentTimeMillis());
+			run("TimingWheelNextRunIndex", new TimingWheelNextRunIndex(TICK, 512, clock), clock);
+		}
+	}
+
+	@Test
+	public void priorityQueue() throws Exception {
+		for (int round = 0; round < 3; round++) {
+			run("PriorityNextRunIndex", new PriorityNextRunIndex(), null);
+		}
+	}
+
+	private void run(String label, NextRunIndex index, TimingWheelNextRunIndexTest.ManualClock clock) throws Exception {
+		long base = clock != null ? clock.millis() : System.currentTimeMillis();
+		LocalDateTime[] times = new LocalDateTime[JOBS];
+		Random random = new Random(42);
+		for (int i = 0; i < JOBS; i++) {
+			times[i] = LocalDateTime.ofInstant(Instant.ofEpochMilli(base + (long) (random.nextDouble() * HORIZON)), ZoneId.systemDefault());
+		}
+
+		long t0 = System.nanoTime();
+		for (int i = 0; i < JOBS; i++) {
+			index.update("JOB" + i, times[i]);
+		}
+		long t1 = System.nanoTime();
+		for (int i = 0; i < JOBS; i++) {
+			index.update("JOB" + i, times[(i + 1) % JOBS]);
+		}
+		long t2 = System.nanoTime();
+		assertEquals(JOBS, index.size());
+
+		int fired = 0;
+		long e0 = t2;
+		if (clock != null) {
+			for (long t = 0; t <= HORIZON + TICK; t += TICK) {
+				clock.advance(TICK);
+				fired += index.awaitDue(0, TimeUnit.MILLISECONDS).size();
+			}
+		} else {
+			// no simulated clock: move every job into the past and expire them at once
+			LocalDateTime past = LocalDateTime.now().minusSeconds(1);
+			for (int i = 0; i < JOBS; i++) {
+				index.update("JOB" + i, past.minusNanos(i));
+			}
+			e0 = System.nanoTime();
+			fired = index.awaitDue(0, TimeUnit.MILLISECONDS).size();
+		}
+		long t3 = System.nanoTime();
+		assertEquals(JOBS, fired);
+
+		logger.info("{}: {} jobs, insert {} ns/op, reschedule {} ns/op, expire {} ns/op (incl. {} ticks)",
+				label, JOBS, (t1 - t0) / JOBS, (t2 - t1) / JOBS, (t3 - e0) / JOBS,
+				clock != null ? HORIZON / TICK : 0);
+	}
+}
@@ -0,0 +1,39 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityJobQueueTest {
+
+	@Test
+	public void testPriorityOrder() throws Exception {
+		PriorityJobQueue queue = new PriorityJobQueue(3);
+		LocalDateTime now = LocalDateTime.now();
+		JobInstance bulk = createInstance("BULK", 0, now.minusHours(1));
+		JobInstance critical = createInstance("CRITICAL", 10, now);
+		JobInstance normal = createInstance("NORMAL", 0, now.minusHours(2));
+
+		assertTrue(queue.offer(bulk));
+		assertTrue(queue.offer(critical));
+		assertTrue(queue.offer(normal));
+		assertFalse(queue.offer(createInstance("REJECTED", 100, now)), "queue is full");
+		assertEquals(0, queue.remainingCapacity());
+
+		assertSame(critical, queue.take());
+		assertSame(normal, queue.take());
+		assertSame(bulk, queue.take());
+		assertEquals(3, queue.remainingCapacity());
+	}
+
+	private JobInstance createInstance(String name, int priority, LocalDateTime nextRun) {
+		JobDefinition job = new JobDefinition();
+		job.setName(name);
+		job.setPriority(priority);
+		job.setNextRun(nextRun);
+		return new JobInstance(job);
+	}
+}
@@ -0,0 +1,87 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriorityNextRunIndexTest {
+
+	private final PriorityNextRunIndex index = new PriorityNextRunIndex();
+
+	@Test
+	public void testReload() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		index.reload(Arrays.asList(
+				createJob("JOB1", now.plusHours(1)),
+				createJob("JOB2", now.minusMinutes(1)),
+				createJob("JOB3", null)
+		));
+
+		assertEquals(2, index.size());
+		assertEquals(now.minusMinutes(1), index.peekNextRun());
+
+		List<String> due = index.awaitDue(0, TimeUnit.MILLISECONDS);
+		assertEquals(List.of("JOB2"), due);
+		assertEquals(1, index.size());
+		assertEquals(now.plusHours(1), index.peekNextRun());
+	}
+
+	@Test
+	public void testUpdate() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		index.update("JOB1", now.plusHours(1));
+		index.update("JOB1", now.minusSeconds(1));
+		index.updateIfAbsent("JOB1", now.plusHours(2));
+		assertEquals(1, index.size());
+		assertEquals(now.minusSeconds(1), index.peekNextRun());
+
+		index.update("JOB1", null);
+		assertEquals(0, index.size());
+		assertNull(index.peekNextRun());
+	}
+
+	@Test
+	public void testAwaitDue() throws Exception {
+		index.update("JOB1", LocalDateTime.now().plusHours(1));
+		assertTrue(index.awaitDue(50, TimeUnit.MILLISECONDS).isEmpty());
+
+		index.update("JOB2", LocalDateTime.now().plusNanos(200_000_000));
+		long start = System.currentTimeMillis();
+		List<String> due = index.awaitDue(5, TimeUnit.SECONDS);
+		long waited = System.currentTimeMillis() - start;
+
+		assertEquals(List.of("JOB2"), due);
+		assertTrue(waited >= 150 && waited < 2000, "waited " + waited + "ms");
+	}
+
+	@Test
+	public void testWakeUpOnEarlierRun() throws Exception {
+		index.update("JOB1", LocalDateTime.now().plusHours(1));
+		Thread t = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException ignored) {
+			}
+			index.update("JOB2", LocalDateTime.now());
+		});
+		t.start();
+
+		List<String> due = index.awaitDue(10, TimeUnit.SECONDS);
+		t.join();
+
+		assertEquals(List.of("JOB2"), due);
+	}
+
+	private JobDefinition createJob(String name, LocalDateTime nextRun) {
+		JobDefinition job = new JobDefinition();
+		job.setName(name);
+		job.setNextRun(nextRun);
+		return job;
+	}
+}
@@ -0,0 +1,91 @@
+package de.lit.jobscheduler.impl;
+
+import de.lit.jobscheduler.entity.JobDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RunningJobRegistryTest {
+
+	@Test
+	public void testIndexes() {
+		RunningJobRegistry registry = new RunningJobRegistry();
+		JobInstance job1 = createInstance("JOB1", "Q1");
+		JobInstance job2 = createInstance("JOB2", "Q1");
+		registry.register(1L, job1);
+		registry.register(2L, job2);
+
+		assertSame(job1, registry.get(1L));
+		assertSame(job2, registry.findByName("JOB2"));
+		assertNull(registry.findByName("JOB3"));
+		assertTrue(registry.isRunQueueBusy("Q1"));
+		assertFalse(registry.isRunQueueBusy("Q2"));
+		assertFalse(registry.isRunQueueBusy(null));
+
+		List<JobInstance> snapshot = registry.snapshot();
+		assertSame(job1, registry.unregister(1L));
+		assertNull(registry.unregister(1L));
+		assertEquals(2, snapshot.size(), "snapshot unchanged");
+		assertEquals(1, registry.values().size(), "live view");
+		assertNull(registry.findByName("JOB1"));
+		assertTrue(registry.isRunQueueBusy("Q1"));
+
+		registry.unregister(2L);
+		assertFalse(registry.isRunQueueBusy("Q1"));
+		assertTrue(registry.isEmpty());
+		assertThrows(UnsupportedOperationException.class, () -> registry.values().clear());
+	}
+
+	@Test
+	public void testConcurrentRegistration() throws Exception {
+		RunningJobRegistry registry = new RunningJobRegistry();
+		int threads = 200;
+		int rounds = 200;
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					for (int r = 0; r < rounds; r++) {
+						long executionId = (long) id * rounds + r;
+						JobInstance instance = createInstance("JOB" + id, "Q" + id % 10);
+						registry.register(executionId, instance);
+						assertSame(instance, registry.findByName("JOB" + id));
+						assertTrue(registry.isRunQueueBusy("Q" + id % 10));
+						// iterate while other threads modify the registry
+						registry.values().forEach(JobInstance::getJob);
+						assertSame(instance, registry.unregister(executionId));
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join(30000);
+		}
+		assertNull(failure.get());
+		assertTrue(registry.isEmpty());
+		for (int q = 0; q < 10; q++) {
+			assertFalse(registry.isRunQueueBusy("Q" + q), "Q" + q);
+		}
+	}
+
+	private static JobInstance createInstance(String name, String runQueue) {
+		JobDefinition job = new JobDefinition();
+		job.setName(name);
+		job.setRunQueue(runQueue);
+		return new JobInstance(job);
+	}
+}
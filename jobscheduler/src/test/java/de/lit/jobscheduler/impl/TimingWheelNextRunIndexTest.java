@@ -0,0 +1,111 @@
+package de.lit.jobscheduler.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelNextRunIndexTest {
+
+	/**
+	 * Clock that only moves when told to.
+	 */
+	static class ManualClock extends Clock {
+		private long millis;
+
+		ManualClock(long millis) {
+			this.millis = millis;
+		}
+
+		void advance(long delta) {
+			millis += delta;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.systemDefault();
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+	}
+
+	// start at a tick boundary, so next run times are not rounded up
+	private final ManualClock clock = new ManualClock(System.currentTimeMillis() / 1000 * 1000);
+	private final TimingWheelNextRunIndex index = new TimingWheelNextRunIndex(100, 8, clock);
+
+	@Test
+	public void testFireWithinOneTick() throws Exception {
+		index.update("JOB1", at(250));
+		index.update("JOB2", at(-1000));
+
+		assertEquals(List.of("JOB2"), index.awaitDue(0, TimeUnit.MILLISECONDS));
+
+		clock.advance(200);
+		assertTrue(index.awaitDue(0, TimeUnit.MILLISECONDS).isEmpty());
+		clock.advance(200);
+		assertEquals(List.of("JOB1"), index.awaitDue(0, TimeUnit.MILLISECONDS));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	public void testCascadeOverflowWheels() throws Exception {
+		// wheel range is 800ms, so these jobs end up in two and three levels of overflow wheels
+		Random random = new Random(4711);
+		Map<String, Long> expected = new HashMap<>();
+		for (int i = 0; i < 500; i++) {
+			long offset = random.nextInt(60000);
+			expected.put("JOB" + i, offset);
+			index.update("JOB" + i, at(offset));
+		}
+		assertEquals(500, index.size());
+
+		long start = clock.millis();
+		for (int step = 0; step < 650; step++) {
+			clock.advance(100);
+			long elapsed = clock.millis() - start;
+			for (String name : index.awaitDue(0, TimeUnit.MILLISECONDS)) {
+				long offset = expected.remove(name);
+				assertTrue(elapsed >= offset, name + " fired too early");
+				assertTrue(elapsed < offset + 200, name + " fired too late");
+			}
+		}
+		assertTrue(expected.isEmpty(), "not fired: " + expected.keySet());
+	}
+
+	@Test
+	public void testUpdateAndRemove() throws Exception {
+		index.update("JOB1", at(5000));
+		index.update("JOB1", at(300));
+		index.updateIfAbsent("JOB1", at(100));
+		index.update("JOB2", at(200));
+		index.update("JOB2", null);
+		assertEquals(1, index.size());
+
+		clock.advance(250);
+		assertTrue(index.awaitDue(0, TimeUnit.MILLISECONDS).isEmpty());
+		clock.advance(100);
+		assertEquals(List.of("JOB1"), index.awaitDue(0, TimeUnit.MILLISECONDS));
+		clock.advance(10000);
+		assertTrue(index.awaitDue(0, TimeUnit.MILLISECONDS).isEmpty());
+	}
+
+	private LocalDateTime at(long offsetMillis) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.millis() + offsetMillis), ZoneId.systemDefault());
+	}
+}
@@ -1,4 +1,5 @@
 update job set last_execution_id=null;
+delete from job_partition;
 delete from job_execution;
 delete from job;
 